@@ -1,9 +1,11 @@
 // build.gradle.kts (Module: app)
 import java.util.Properties
+import java.util.concurrent.Callable
 plugins {
     alias(libs.plugins.android.application)
     alias(libs.plugins.kotlin.android)
     alias(libs.plugins.kapt) // annotation processors
+    alias(libs.plugins.baselineprofile)
 }
 
 android {
@@ -47,6 +49,48 @@ android {
         viewBinding = true // XML + ViewBinding
         buildConfig = true // enable BuildConfig fields
     }
+
+    sourceSets {
+        // Synthetic recipes and pantries, shared by the JMH and Room query benchmarks
+        getByName("test") {
+            java.srcDir("src/benchmarkData/java")
+        }
+        // MigrationTestHelper reads the committed schema JSON from the test assets
+        getByName("androidTest") {
+            assets.srcDir("$projectDir/schemas")
+        }
+    }
+
+    testOptions {
+        unitTests.all { test ->
+            // Room query benchmarks (RoomQueryBenchmark) run only when given database sizes:
+            //   ./gradlew :app:testDebugUnitTest --tests "*RoomQueryBenchmark" -PqueryBenchmarkRecipes=10000,100000,500000
+            findProperty("queryBenchmarkRecipes")?.let { sizes ->
+                test.systemProperty("queryBenchmark.recipes", sizes)
+                test.systemProperty("queryBenchmark.output",
+                    layout.buildDirectory.file("reports/query-benchmark/results.csv").get().asFile.path)
+                test.maxHeapSize = "4g"
+                test.testLogging.showStandardStreams = true
+            }
+        }
+    }
+}
+
+// Baseline Profile (startup and list scrolling), generated by :macrobenchmark on an
+// emulator with ./gradlew :app:generateBaselineProfile and kept in src/main/generated.
+// src/main/baselineProfiles holds hand-written rules for the same paths.
+baselineProfile {
+    saveInSrc = true
+    mergeIntoMain = true
+    automaticGenerationDuringBuild = false
+}
+
+// Room schema JSON, committed with every version: the source of truth for the
+// prebuilt recipe database, and the history the migrations are tested against
+kapt {
+    arguments {
+        arg("room.schemaLocation", "$projectDir/schemas")
+    }
 }
 
 dependencies {
@@ -67,6 +111,10 @@ dependencies {
     implementation(libs.androidx.navigation.ui)
     kapt(libs.androidx.room.compiler)
     implementation(libs.androidx.room.ktx)
+    implementation(libs.androidx.room.paging)
+
+    // Paging (recipe list)
+    implementation(libs.androidx.paging.runtime)
 
     // Lifecycle (ViewModel + LiveData)
     implementation(libs.androidx.lifecycle.viewmodel)
@@ -82,11 +130,137 @@ dependencies {
     // Retrofit + Gson
     implementation(libs.retrofit)
     implementation(libs.retrofit.gson)
+    // Streaming JSON reader for the recipe import
+    implementation(libs.gson)
+
+    // Installs the Baseline Profile on devices without Play Store profile delivery
+    implementation(libs.androidx.profileinstaller)
+    baselineProfile(project(":macrobenchmark"))
 
     // Unit Testing
     testImplementation(libs.junit)
+    // Room query benchmarks on the JVM
+    testImplementation(libs.robolectric)
+    testImplementation(libs.androidx.test.core)
 
     // Android Instrumentation Testing
     androidTestImplementation(libs.androidx.junit)
     androidTestImplementation(libs.androidx.espresso.core)
+    // Migration tests against the committed schemas
+    androidTestImplementation(libs.androidx.room.testing)
+}
+
+// Prebuilt recipe database (assets/databases/recipe_matcher.db)
+//
+// Plain JVM code under src/dbgen builds the SQLite file from the JSONL dataset at
+// build time, so first launch copies a file instead of importing row by row.
+// Skipped when the dataset is not present; the app then falls back to RecipeImportWorker.
+//
+// The base dataset lives in src/dataset, outside the assets, so the APK carries
+// either the prebuilt database or the dataset, never both. -PprebuiltRecipeDb=false
+// packages the dataset instead, for RecipeImportWorker to import on device.
+// Dataset deltas and recipes_manifest.json stay in src/main/assets.
+val recipeDbGenerator: Configuration by configurations.creating
+
+dependencies {
+    recipeDbGenerator(libs.gson)
+    recipeDbGenerator(libs.sqlite.jdbc)
+}
+
+val recipeDatasetDir = file("src/dataset")
+val recipeDataset = listOf("recipes.jsonl.gz", "recipes.jsonl").map { recipeDatasetDir.resolve(it) }
+val prebuiltRecipeDb = findProperty("prebuiltRecipeDb")?.toString()?.toBoolean() ?: true
+val roomSchemaDir = file("schemas/com.example.receipematcher.data.db.AppDatabase")
+val recipeManifest = file("src/main/assets/recipes_manifest.json")
+
+if (!prebuiltRecipeDb) {
+    android.sourceSets.getByName("main").assets.srcDir(recipeDatasetDir)
+}
+
+val compileRecipeDbGenerator by tasks.registering(JavaCompile::class) {
+    source("src/dbgen/java")
+    // Android-free import code shared with RecipeImportWorker
+    source(
+        "src/main/java/com/example/receipematcher/utils/DatasetManifest.java",
+        "src/main/java/com/example/receipematcher/utils/RecipeJsonlParser.java",
+        "src/main/java/com/example/receipematcher/utils/RecipeMetadata.java",
+        "src/main/java/com/example/receipematcher/utils/RecipeImportPipeline.java",
+        "src/main/java/com/example/receipematcher/utils/RecipeBlobCodec.java",
+        "src/main/java/com/example/receipematcher/utils/IngredientNormalizer.java"
+    )
+    classpath = recipeDbGenerator
+    destinationDirectory.set(layout.buildDirectory.dir("intermediates/recipe_db_generator/classes"))
+    sourceCompatibility = "21"
+    targetCompatibility = "21"
+}
+
+abstract class GenerateRecipeDbTask : JavaExec() {
+    @get:OutputDirectory
+    abstract val outputDir: DirectoryProperty
+}
+
+androidComponents {
+    onVariants { variant ->
+        val variantName = variant.name.replaceFirstChar { it.uppercase() }
+        val generate = tasks.register<GenerateRecipeDbTask>("generate${variantName}RecipeDb") {
+            // The schema JSON is written by the Room annotation processor
+            dependsOn("kapt${variantName}Kotlin")
+            classpath = files(compileRecipeDbGenerator) + recipeDbGenerator
+            mainClass.set("com.example.receipematcher.dbgen.RecipeDbGenerator")
+            inputs.files(recipeDataset).withPropertyName("dataset").optional()
+            inputs.files(fileTree(roomSchemaDir)).withPropertyName("schema")
+            inputs.files(recipeManifest).withPropertyName("manifest").optional()
+            onlyIf { prebuiltRecipeDb && recipeDataset.any { it.exists() } }
+            argumentProviders.add(CommandLineArgumentProvider {
+                listOf(
+                    roomSchemaDir.path,
+                    recipeDataset.first { it.exists() }.path,
+                    outputDir.get().file("databases/recipe_matcher.db").asFile.path
+                ) + listOfNotNull(recipeManifest.takeIf { it.exists() }?.path)
+            })
+        }
+        variant.sources.assets?.addGeneratedSourceDirectory(generate, GenerateRecipeDbTask::outputDir)
+    }
+}
+
+// JMH microbenchmarks (src/jmh)
+//
+// Plain JVM benchmarks of the matching, filtering and import hot paths over a
+// synthetic corpus, compiled against the debug classes:
+//   ./gradlew :app:jmh -PjmhArgs="RecipeMatchBenchmark -p recipeCount=10000"
+// Results are written to build/reports/jmh/results.json for before/after comparisons.
+val jmh: Configuration by configurations.creating
+val jmhProcessor: Configuration by configurations.creating
+
+dependencies {
+    jmh(libs.jmh.core)
+    jmhProcessor(libs.jmh.generator.annprocess)
+}
+
+val debugJavac = tasks.withType<JavaCompile>().matching { it.name == "compileDebugJavaWithJavac" }
+// App classes and everything they compile against (AndroidX, R, android.jar stubs)
+val jmhAppClasspath = files(
+    Callable { debugJavac.map { it.outputs.files + it.classpath } },
+    androidComponents.sdkComponents.bootClasspath
+)
+
+val compileJmh by tasks.registering(JavaCompile::class) {
+    dependsOn(debugJavac)
+    source("src/jmh/java", "src/benchmarkData/java")
+    classpath = jmh + jmhAppClasspath
+    options.annotationProcessorPath = jmhProcessor
+    destinationDirectory.set(layout.buildDirectory.dir("intermediates/jmh/classes"))
+    sourceCompatibility = "21"
+    targetCompatibility = "21"
+}
+
+tasks.register<JavaExec>("jmh") {
+    group = "verification"
+    description = "Runs the JMH microbenchmarks. JMH options: -PjmhArgs=\"...\""
+    classpath = files(compileJmh) + jmh + jmhAppClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    val results = layout.buildDirectory.file("reports/jmh/results.json")
+    doFirst { results.get().asFile.parentFile.mkdirs() }
+    args("-rf", "json", "-rff", results.get().asFile.path)
+    (findProperty("jmhArgs") as String?)?.let { args(it.split(" ").filter(String::isNotBlank)) }
 }
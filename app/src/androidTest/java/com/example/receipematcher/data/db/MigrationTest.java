@@ -0,0 +1,199 @@
+package com.example.receipematcher.data.db;
+
+import android.database.Cursor;
+
+import androidx.room.migration.Migration;
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.receipematcher.utils.RecipeBlobCodec;
+import com.example.receipematcher.utils.RecipeMetadata;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * Every migration from the first release (5) on, run against the committed
+ * schema JSON. A version 5 database is seeded once, then migrated a step at a
+ * time up to the version under test; each step's schema is validated.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MigrationTest {
+
+    private static final String TEST_DB = "migration-test";
+
+    private static final Migration[] MIGRATIONS = {
+            Migrations.MIGRATION_5_6, Migrations.MIGRATION_6_7, Migrations.MIGRATION_7_8,
+            Migrations.MIGRATION_8_9, Migrations.MIGRATION_9_10, Migrations.MIGRATION_10_11,
+            Migrations.MIGRATION_11_12};
+
+    private static final long PASTA = 1;
+    private static final long CURRY = 3;
+
+    @Rule
+    public final MigrationTestHelper helper = new MigrationTestHelper(
+            InstrumentationRegistry.getInstrumentation(), AppDatabase.class);
+
+    @Test
+    public void migrate5To6FillsMetadata() throws IOException {
+        SupportSQLiteDatabase db = migrateTo(6);
+        assertEquals("Italian", string(db, "SELECT cuisine FROM ai_recipes WHERE id = " + PASTA));
+        assertEquals("Indian", string(db, "SELECT cuisine FROM ai_recipes WHERE id = " + CURRY));
+        assertEquals(15, number(db, "SELECT cookingTimeMinutes FROM ai_recipes WHERE id = " + PASTA));
+        assertEquals("Easy", string(db, "SELECT difficulty FROM ai_recipes WHERE id = " + PASTA));
+        // The FTS triggers were restored after the backfill
+        assertEquals(3, number(db, "SELECT count(*) FROM recipes_fts WHERE recipes_fts MATCH 'basil OR curry'"));
+    }
+
+    @Test
+    public void migrate6To7KeysRecipesAndDropsDuplicates() throws IOException {
+        SupportSQLiteDatabase db = migrateTo(7);
+        assertEquals(Arrays.asList(PASTA, CURRY), ids(db, "SELECT id FROM ai_recipes ORDER BY id"));
+        assertEquals(0, number(db, "SELECT count(*) FROM ai_recipes WHERE recipeKey = ''"));
+        assertNotEquals(string(db, "SELECT recipeKey FROM ai_recipes WHERE id = " + PASTA),
+                string(db, "SELECT recipeKey FROM ai_recipes WHERE id = " + CURRY));
+        assertEquals(2, number(db, "SELECT count(*) FROM recipes_fts"));
+    }
+
+    @Test
+    public void migrate7To8StoresBlobs() throws IOException {
+        SupportSQLiteDatabase db = migrateTo(8);
+        assertEquals(Arrays.asList("2 cups tomatoes, diced", "fresh basil", "1/2 lb pasta"),
+                new ArrayList<>(blob(db, "SELECT ingredientsBlob FROM ai_recipes WHERE id = " + PASTA)));
+        assertEquals(Arrays.asList("boil", "mix"),
+                new ArrayList<>(blob(db, "SELECT stepsBlob FROM ai_recipes WHERE id = " + PASTA)));
+        // Row ids were kept, so recipes_fts still finds the rebuilt rows
+        assertEquals(Arrays.asList(CURRY),
+                ids(db, "SELECT docid FROM recipes_fts WHERE recipes_fts MATCH 'turmeric'"));
+    }
+
+    @Test
+    public void migrate8To9LinksIngredients() throws IOException {
+        SupportSQLiteDatabase db = migrateTo(9);
+        assertEquals(6, number(db, "SELECT count(*) FROM recipe_ingredient"));
+        // Only recipe ingredients are interned
+        assertEquals(0, number(db, "SELECT count(*) FROM ingredients_dict"
+                + " WHERE id NOT IN (SELECT ingredient_id FROM recipe_ingredient)"));
+    }
+
+    @Test
+    public void migrate9To10RebuildsCanonicalNames() throws IOException {
+        SupportSQLiteDatabase db = migrateTo(10);
+        assertEquals(Arrays.asList("tomato", "basil", "pasta"),
+                new ArrayList<>(blob(db, "SELECT canonicalBlob FROM ai_recipes WHERE id = " + PASTA)));
+        assertEquals(Arrays.asList("basil", "pasta", "tomato"), strings(db, "SELECT d.name FROM recipe_ingredient ri"
+                + " JOIN ingredients_dict d ON d.id = ri.ingredient_id WHERE ri.recipe_id = " + PASTA + " ORDER BY d.name"));
+        assertEquals(6, number(db, "SELECT count(*) FROM recipe_ingredient"));
+    }
+
+    @Test
+    public void migrate10To11IndexesIngredientTokens() throws IOException {
+        SupportSQLiteDatabase db = migrateTo(11);
+        assertEquals("tomato, basil, pasta",
+                string(db, "SELECT ingredientTokens FROM ai_recipes WHERE id = " + PASTA));
+        // Porter stemming: "tomatoes" finds "tomato"
+        assertEquals(Arrays.asList(PASTA),
+                ids(db, "SELECT docid FROM recipes_fts WHERE recipes_fts MATCH 'ingredientTokens:tomatoes'"));
+    }
+
+    @Test
+    public void migrate11To12AddsCuisineFlagsAndKeepsLinks() throws IOException {
+        SupportSQLiteDatabase db = migrateTo(12);
+        assertEquals(RecipeMetadata.CUISINE_ITALIAN,
+                number(db, "SELECT cuisineFlags FROM ai_recipes WHERE id = " + PASTA));
+        assertEquals(RecipeMetadata.CUISINE_INDIAN | RecipeMetadata.CUISINE_THAI,
+                number(db, "SELECT cuisineFlags FROM ai_recipes WHERE id = " + CURRY));
+        // Set aside and restored around the rebuild of ai_recipes
+        assertEquals(6, number(db, "SELECT count(*) FROM recipe_ingredient"));
+        // Filled by RecipeImportWorker on its first run
+        assertEquals(0, number(db, "SELECT count(*) FROM import_state"));
+        assertEquals(Arrays.asList(CURRY),
+                ids(db, "SELECT docid FROM recipes_fts WHERE recipes_fts MATCH 'coconut'"));
+        try (Cursor c = db.query("PRAGMA foreign_key_check")) {
+            assertFalse(c.moveToFirst());
+        }
+    }
+
+    @Test
+    public void migrationsKeepUserTables() throws IOException {
+        SupportSQLiteDatabase db = migrateTo(12);
+        assertEquals(2, number(db, "SELECT count(*) FROM ingredients"));
+        assertEquals(1, number(db, "SELECT count(*) FROM favourites"));
+        assertEquals(1, number(db, "SELECT count(*) FROM shopping_items"));
+    }
+
+    // The seeded version 5 database, migrated one validated step at a time
+    private SupportSQLiteDatabase migrateTo(int version) throws IOException {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 5);
+        seedVersion5(db);
+        db.close();
+        for (int v = 5; v < version; v++) {
+            db = helper.runMigrationsAndValidate(TEST_DB, v + 1, true, MIGRATIONS[v - 5]);
+            if (v + 1 < version) db.close();
+        }
+        return db;
+    }
+
+    private static void seedVersion5(SupportSQLiteDatabase db) {
+        db.execSQL("INSERT INTO ingredients (name, quantity, unit, expiryDate)"
+                + " VALUES ('Tomatoes', 2, 'pcs', '2026-11-01'), ('fresh basil', 1, 'bunch', NULL)");
+        db.execSQL("INSERT INTO favourites (recipeId, addedAt, ingredientsJson, stepsJson)"
+                + " VALUES ('pasta', 1, '[\"a\"]', '[\"b\"]')");
+        db.execSQL("INSERT INTO shopping_items (name, quantity, unit, completed, shoppingListId, priority,"
+                + " estimatedPrice, addedAt) VALUES ('milk', 1, 'l', 0, 1, 3, 1.5, 100)");
+        // Rows 1 and 2 are the same recipe, as a restarted version 5 import left it
+        String pasta = "('Tomato Basil Pasta', '[\"2 cups tomatoes, diced\",\"fresh basil\",\"1\\/2 lb pasta\"]',"
+                + " '[\"boil\",\"mix\"]')";
+        db.execSQL("INSERT INTO ai_recipes (name, ingredientsJson, stepsJson) VALUES " + pasta + ", " + pasta
+                + ", ('Chicken Curry', '[\"chicken\",\"turmeric\",\"coconut milk\"]', '[\"a\",\"b\",\"c\"]')");
+    }
+
+    private static String string(SupportSQLiteDatabase db, String sql) {
+        try (Cursor c = db.query(sql)) {
+            c.moveToFirst();
+            return c.getString(0);
+        }
+    }
+
+    private static long number(SupportSQLiteDatabase db, String sql) {
+        try (Cursor c = db.query(sql)) {
+            c.moveToFirst();
+            return c.getLong(0);
+        }
+    }
+
+    private static List<String> blob(SupportSQLiteDatabase db, String sql) {
+        try (Cursor c = db.query(sql)) {
+            c.moveToFirst();
+            return RecipeBlobCodec.decode(c.getBlob(0));
+        }
+    }
+
+    private static List<String> strings(SupportSQLiteDatabase db, String sql) {
+        List<String> values = new ArrayList<>();
+        try (Cursor c = db.query(sql)) {
+            while (c.moveToNext()) values.add(c.getString(0));
+        }
+        return values;
+    }
+
+    private static List<Long> ids(SupportSQLiteDatabase db, String sql) {
+        List<Long> values = new ArrayList<>();
+        try (Cursor c = db.query(sql)) {
+            while (c.moveToNext()) values.add(c.getLong(0));
+        }
+        return values;
+    }
+}
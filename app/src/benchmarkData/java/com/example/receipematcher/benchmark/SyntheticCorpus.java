@@ -0,0 +1,189 @@
+package com.example.receipematcher.benchmark;
+
+import com.example.receipematcher.data.entities.Ingredient;
+import com.example.receipematcher.data.repository.RecipeRepository.AiRecipe;
+import com.example.receipematcher.utils.IngredientNormalizer;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Deterministic recipes and pantries for the benchmarks.
+ *
+ * Ingredient names come from a fixed vocabulary, drawn with a skewed
+ * distribution so a few staples (salt, butter, eggs, ...) appear in most
+ * recipes and the long tail is rare, as in the real dataset. Recipe lines are
+ * written the way the dataset writes them: "2 cups chopped tomatoes".
+ * The same seed always gives the same corpus.
+ */
+public class SyntheticCorpus {
+
+    // Ordered from most to least common
+    private static final String[] BASE_NAMES = {
+            "salt", "butter", "egg", "sugar", "all-purpose flour", "garlic", "onion", "olive oil", "milk",
+            "black pepper", "water", "vanilla extract", "baking powder", "lemon juice", "brown sugar",
+            "baking soda", "parmesan cheese", "tomato", "cinnamon", "honey", "chicken breast", "carrot",
+            "celery", "cream cheese", "sour cream", "soy sauce", "green onion", "potato", "heavy cream",
+            "cheddar cheese", "parsley", "basil", "oregano", "thyme", "paprika", "cumin", "chili powder",
+            "ground beef", "bacon", "mushroom", "bell pepper", "zucchini", "spinach", "rice", "pasta",
+            "chicken broth", "beef broth", "vegetable oil", "mayonnaise", "dijon mustard", "worcestershire sauce",
+            "cornstarch", "powdered sugar", "cocoa powder", "chocolate chip", "walnut", "pecan", "almond",
+            "raisin", "oat", "banana", "apple", "strawberry", "blueberry", "lime", "orange", "ginger",
+            "cilantro", "avocado", "black bean", "chickpea", "lentil", "shrimp", "salmon", "pork chop",
+            "sausage", "ham", "turkey", "mozzarella cheese", "feta cheese", "ricotta cheese", "yogurt",
+            "coconut milk", "peanut butter", "maple syrup", "balsamic vinegar", "red wine", "white wine",
+            "capers", "olive", "artichoke heart", "eggplant", "cabbage", "kale", "broccoli", "cauliflower",
+            "sweet potato", "corn", "pea", "green bean", "asparagus", "leek", "shallot", "jalapeno"
+    };
+    private static final String[] VARIETIES = {"", "smoked ", "red ", "wild ", "baby "};
+    private static final String[] QUANTITIES = {"1", "2", "3", "1/2", "1 1/2", "a", "2 to 3", "\u00bd"};
+    private static final String[] UNITS = {"", "", "cup", "cups", "tbsp", "tsp", "g", "oz", "pinch of", "cloves"};
+    private static final String[] DESCRIPTORS = {"", "", "", "fresh ", "chopped ", "large ", "finely chopped ",
+            "diced "};
+    private static final String[] NOTES = {"", "", "", ", divided", " (optional)", " to taste", ", at room temperature"};
+    private static final String[] DATE_FORMATS = {"dd/MM/yyyy", "yyyy-MM-dd", "MM/dd/yyyy", "dd-MM-yyyy"};
+
+    private final List<String> vocabulary = new ArrayList<>();
+    private final Random random;
+
+    public SyntheticCorpus(long seed) {
+        this.random = new Random(seed);
+        for (String variety : VARIETIES) {
+            for (String name : BASE_NAMES) vocabulary.add(variety + name);
+        }
+    }
+
+    /**
+     * @param count Number of recipes
+     * @param minIngredients Fewest ingredients per recipe
+     * @param maxIngredients Most ingredients per recipe
+     * @return Recipes with ids 1..count and canonical names filled in as at import
+     */
+    public List<AiRecipe> recipes(int count, int minIngredients, int maxIngredients) {
+        List<AiRecipe> recipes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            AiRecipe recipe = new AiRecipe();
+            recipe.id = i + 1;
+            recipe.name = "Recipe " + (i + 1);
+            recipe.ingredients = ingredientLines(minIngredients + random.nextInt(maxIngredients - minIngredients + 1));
+            recipe.canonicalIngredients = IngredientNormalizer.canonicalList(recipe.ingredients);
+            recipes.add(recipe);
+        }
+        return recipes;
+    }
+
+    /**
+     * @param count Number of distinct ingredients
+     * @return Ingredient lines with quantities, units, descriptors and notes
+     */
+    public List<String> ingredientLines(int count) {
+        List<String> lines = new ArrayList<>(count);
+        for (String name : distinctNames(count)) {
+            lines.add(line(name));
+        }
+        return lines;
+    }
+
+    /**
+     * @param size Number of pantry items, at most the vocabulary size
+     * @return Pantry item names as a user would type them
+     */
+    public List<String> pantry(int size) {
+        return new ArrayList<>(distinctNames(Math.min(size, vocabulary.size())));
+    }
+
+    /**
+     * @param size Number of pantry items
+     * @return Pantry rows with expiry dates from two weeks ago to two months ahead,
+     * in each supported date format; one in ten has no date
+     */
+    public List<Ingredient> pantryItems(int size) {
+        List<String> names = pantry(size);
+        List<Ingredient> items = new ArrayList<>(names.size());
+        Calendar calendar = Calendar.getInstance();
+        for (int i = 0; i < names.size(); i++) {
+            Ingredient item = new Ingredient();
+            item.id = i + 1;
+            item.name = names.get(i);
+            item.quantity = 1 + random.nextInt(5);
+            item.unit = "pcs";
+            if (random.nextInt(10) > 0) {
+                calendar.setTimeInMillis(System.currentTimeMillis());
+                calendar.add(Calendar.DAY_OF_YEAR, random.nextInt(75) - 14);
+                String format = DATE_FORMATS[random.nextInt(DATE_FORMATS.length)];
+                item.expiryDate = new SimpleDateFormat(format, Locale.getDefault()).format(calendar.getTime());
+            }
+            items.add(item);
+        }
+        return items;
+    }
+
+    /**
+     * @param count Number of lines
+     * @return Dataset lines in the recipes.jsonl format read by RecipeJsonlParser
+     */
+    public List<String> jsonlLines(int count) {
+        List<String> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            lines.add(jsonlLine(i + 1));
+        }
+        return lines;
+    }
+
+    /**
+     * Write a dataset too large to hold in memory
+     * @param out Receives count lines in the recipes.jsonl format
+     * @param count Number of lines
+     */
+    public void writeJsonl(Writer out, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            out.write(jsonlLine(i + 1));
+            out.write('\n');
+        }
+    }
+
+    private String jsonlLine(int number) {
+        JsonObject recipe = new JsonObject();
+        recipe.addProperty("name", "Recipe " + number);
+        JsonArray ingredients = new JsonArray();
+        for (String line : ingredientLines(5 + random.nextInt(11))) ingredients.add(line);
+        recipe.add("ingredients", ingredients);
+        JsonArray steps = new JsonArray();
+        int stepCount = 3 + random.nextInt(8);
+        for (int s = 1; s <= stepCount; s++) {
+            steps.add("Step " + s + ": combine the ingredients and cook for " + (5 + random.nextInt(20))
+                    + " minutes, stirring occasionally.");
+        }
+        recipe.add("steps", steps);
+        return recipe.toString();
+    }
+
+    // Vocabulary names, most common first in probability; distinct within one call
+    private Set<String> distinctNames(int count) {
+        Set<String> names = new LinkedHashSet<>();
+        while (names.size() < count) {
+            double r = random.nextDouble();
+            names.add(vocabulary.get((int) (vocabulary.size() * r * r * r)));
+        }
+        return names;
+    }
+
+    private String line(String name) {
+        String quantity = QUANTITIES[random.nextInt(QUANTITIES.length)];
+        String unit = UNITS[random.nextInt(UNITS.length)];
+        String descriptor = DESCRIPTORS[random.nextInt(DESCRIPTORS.length)];
+        String note = NOTES[random.nextInt(NOTES.length)];
+        String plural = !name.endsWith("s") && random.nextInt(3) == 0 ? "s" : "";
+        return quantity + " " + (unit.isEmpty() ? "" : unit + " ") + descriptor + name + plural + note;
+    }
+}
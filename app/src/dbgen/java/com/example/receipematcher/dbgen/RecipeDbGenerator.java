@@ -0,0 +1,226 @@
+package com.example.receipematcher.dbgen;
+
+import com.example.receipematcher.utils.DatasetManifest;
+import com.example.receipematcher.utils.RecipeImportPipeline;
+import com.example.receipematcher.utils.RecipeJsonlParser;
+import com.example.receipematcher.utils.RecipeMetadata;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Build-time generator for the prepackaged recipe database
+ * (assets/databases/recipe_matcher.db, see AppDatabase#PREBUILT_ASSET).
+ *
+ * Runs on the JVM from the app module's Gradle build. The schema, including
+ * the FTS sync triggers and Room's identity hash, comes from the schema JSON
+ * exported by the Room compiler, so Room opens the copied file without a
+ * migration. Rows are parsed with the same code as RecipeImportWorker.
+ * The import_state row marks the base dataset, at the manifest's version
+ * when there is one, as imported, so the worker only applies newer deltas.
+ *
+ * Usage: RecipeDbGenerator &lt;schemaDir&gt; &lt;dataset.jsonl[.gz]&gt; &lt;output.db&gt; [recipes_manifest.json]
+ */
+public class RecipeDbGenerator {
+
+    // Same column list as AiRecipeBulkInserter
+    private static final String INSERT_SQL = "INSERT OR IGNORE INTO ai_recipes (recipeKey, name, ingredientsBlob,"
+            + " stepsBlob, canonicalBlob, ingredientTokens, cuisine, cuisineFlags, dietaryFlags, cookingTimeMinutes,"
+            + " difficulty, rating, reviewCount, nutritionInfo, isTrending, isPopular, isQuick, isHealthy)"
+            + " VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?)";
+
+    private static final String INSERT_NAME_SQL = "INSERT INTO ingredients_dict (id, name) VALUES (?,?)";
+    private static final String INSERT_LINK_SQL =
+            "INSERT OR IGNORE INTO recipe_ingredient (recipe_id, ingredient_id) VALUES (?,?)";
+    // Same row as RecipeImportWorker writes once the base dataset is in
+    private static final String INSERT_STATE_SQL = "INSERT INTO import_state"
+            + " (id, imported, datasetVersion, checkpointAsset, checkpointOffset) VALUES (1, 1, ?, NULL, 0)";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 3 && args.length != 4) {
+            System.err.println("Usage: RecipeDbGenerator <schemaDir> <dataset.jsonl[.gz]> <output.db>"
+                    + " [recipes_manifest.json]");
+            System.exit(2);
+        }
+        File schemaFile = latestSchema(new File(args[0]));
+        File dataset = new File(args[1]);
+        File output = new File(args[2]);
+        int datasetVersion = 0;
+        if (args.length == 4) {
+            try (Reader r = Files.newBufferedReader(new File(args[3]).toPath(), StandardCharsets.UTF_8)) {
+                datasetVersion = DatasetManifest.parse(r).base.version;
+            }
+        }
+
+        JsonObject database;
+        try (Reader r = Files.newBufferedReader(schemaFile.toPath(), StandardCharsets.UTF_8)) {
+            database = JsonParser.parseReader(r).getAsJsonObject().getAsJsonObject("database");
+        }
+
+        File parent = output.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Cannot create " + parent);
+        }
+        Files.deleteIfExists(output.toPath());
+
+        long start = System.nanoTime();
+        int total;
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + output.getAbsolutePath())) {
+            conn.setAutoCommit(false);
+            try (Statement st = conn.createStatement()) {
+                for (String sql : schemaSql(database, "createSql")) st.execute(sql);
+            }
+            // Recipes, ingredients_dict and recipe_ingredient
+            total = insertRecipes(conn, dataset);
+            try (PreparedStatement state = conn.prepareStatement(INSERT_STATE_SQL)) {
+                state.setInt(1, datasetVersion);
+                state.executeUpdate();
+            }
+            try (Statement st = conn.createStatement()) {
+                // Index once, then install the triggers Room expects for later writes
+                st.execute("INSERT INTO recipes_fts(recipes_fts) VALUES('rebuild')");
+                for (String sql : schemaSql(database, "contentSyncTriggers")) st.execute(sql);
+                for (JsonElement sql : database.getAsJsonArray("setupQueries")) st.execute(sql.getAsString());
+                st.execute("PRAGMA user_version = " + database.get("version").getAsInt());
+            }
+            conn.commit();
+            conn.setAutoCommit(true);
+            try (Statement st = conn.createStatement()) {
+                st.execute("ANALYZE");
+                st.execute("VACUUM");
+            }
+        }
+        System.out.printf("Wrote %d recipes to %s in %d ms (schema %s)%n", total, output,
+                (System.nanoTime() - start) / 1_000_000, schemaFile.getName());
+    }
+
+    // Room writes one <version>.json per database version; use the newest
+    private static File latestSchema(File schemaDir) throws IOException {
+        File[] files = schemaDir.listFiles((dir, name) -> name.matches("\\d+\\.json"));
+        if (files == null || files.length == 0) {
+            throw new IOException("No Room schema JSON in " + schemaDir);
+        }
+        File latest = files[0];
+        for (File f : files) {
+            if (version(f) > version(latest)) latest = f;
+        }
+        return latest;
+    }
+
+    private static int version(File schemaFile) {
+        String name = schemaFile.getName();
+        return Integer.parseInt(name.substring(0, name.length() - ".json".length()));
+    }
+
+    /**
+     * Collect DDL from the exported schema
+     * @param key "createSql" for tables, indices and views; "contentSyncTriggers" for FTS triggers
+     */
+    private static List<String> schemaSql(JsonObject database, String key) {
+        List<String> sql = new ArrayList<>();
+        for (JsonElement e : database.getAsJsonArray("entities")) {
+            JsonObject entity = e.getAsJsonObject();
+            String table = entity.get("tableName").getAsString();
+            if (key.equals("createSql")) {
+                sql.add(entity.get("createSql").getAsString().replace("${TABLE_NAME}", table));
+                JsonArray indices = entity.getAsJsonArray("indices");
+                if (indices == null) continue;
+                for (JsonElement index : indices) {
+                    sql.add(index.getAsJsonObject().get("createSql").getAsString().replace("${TABLE_NAME}", table));
+                }
+            } else if (entity.has(key)) {
+                for (JsonElement trigger : entity.getAsJsonArray(key)) sql.add(trigger.getAsString());
+            }
+        }
+        JsonArray views = database.getAsJsonArray("views");
+        if (key.equals("createSql") && views != null) {
+            for (JsonElement e : views) {
+                JsonObject view = e.getAsJsonObject();
+                sql.add(view.get("createSql").getAsString().replace("${VIEW_NAME}", view.get("viewName").getAsString()));
+            }
+        }
+        return sql;
+    }
+
+    /**
+     * @return Rows written to ai_recipes; lines whose key was already imported are not counted
+     */
+    private static int insertRecipes(Connection conn, File dataset) throws Exception {
+        InputStream raw = new FileInputStream(dataset);
+        // The database is new and has a single writer, so ids are assigned in insert
+        // order from 1 (AUTOINCREMENT) and can be tracked here instead of read back
+        long[] lastRecipeId = {0};
+        Map<String, Long> dictionary = new HashMap<>();
+        try (InputStream in = dataset.getName().endsWith(".gz") ? new GZIPInputStream(raw, 1 << 16) : raw;
+             PreparedStatement insert = conn.prepareStatement(INSERT_SQL);
+             PreparedStatement insertName = conn.prepareStatement(INSERT_NAME_SQL);
+             PreparedStatement insertLink = conn.prepareStatement(INSERT_LINK_SQL)) {
+            RecipeImportPipeline.forDevice().run(in, 0, batch -> {
+                for (int i = 0; i < batch.recipes.size(); i++) {
+                    RecipeJsonlParser.ParsedRecipe recipe = batch.recipes.get(i);
+                    bind(insert, recipe, batch.metadata.get(i));
+                    // 0 when the key was already imported (duplicate line)
+                    if (insert.executeUpdate() == 0) continue;
+                    long recipeId = ++lastRecipeId[0];
+                    for (String name : recipe.canonicalIngredients) {
+                        Long ingredientId = dictionary.get(name);
+                        if (ingredientId == null) {
+                            ingredientId = dictionary.size() + 1L;
+                            dictionary.put(name, ingredientId);
+                            insertName.setLong(1, ingredientId);
+                            insertName.setString(2, name);
+                            insertName.addBatch();
+                        }
+                        insertLink.setLong(1, recipeId);
+                        insertLink.setLong(2, ingredientId);
+                        insertLink.addBatch();
+                    }
+                }
+                insertName.executeBatch();
+                insertLink.executeBatch();
+            });
+        }
+        return (int) lastRecipeId[0];
+    }
+
+    private static void bind(PreparedStatement insert, RecipeJsonlParser.ParsedRecipe recipe, RecipeMetadata meta)
+            throws SQLException {
+        insert.setString(1, recipe.key);
+        insert.setString(2, recipe.name);
+        insert.setBytes(3, recipe.ingredientsBlob);
+        insert.setBytes(4, recipe.stepsBlob);
+        insert.setBytes(5, recipe.canonicalBlob);
+        insert.setString(6, recipe.ingredientTokens);
+        insert.setString(7, meta.cuisine);
+        insert.setInt(8, meta.cuisineFlags);
+        insert.setInt(9, meta.dietaryFlags);
+        insert.setInt(10, meta.cookingTimeMinutes);
+        insert.setString(11, meta.difficulty);
+        insert.setDouble(12, meta.rating);
+        insert.setInt(13, meta.reviewCount);
+        insert.setString(14, meta.nutritionInfo);
+        insert.setInt(15, meta.isTrending ? 1 : 0);
+        insert.setInt(16, meta.isPopular ? 1 : 0);
+        insert.setInt(17, meta.isQuick ? 1 : 0);
+        insert.setInt(18, meta.isHealthy ? 1 : 0);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.receipematcher.jmh;
+
+import com.example.receipematcher.benchmark.SyntheticCorpus;
+import com.example.receipematcher.data.repository.RecipeRepository.AiRecipe;
+import com.example.receipematcher.utils.FilterManager;
+import com.example.receipematcher.utils.RecipeMatchCache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FilterManager#applyFilters} with an availability filter. The cold case
+ * matches every recipe against a fresh pantry snapshot; the warm case reads
+ * results already in the {@link RecipeMatchCache}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterBenchmark {
+
+    @Param({"1000", "10000"})
+    public int recipeCount;
+
+    @Param({"10", "50", "200"})
+    public int pantrySize;
+
+    @Param({"ALMOST_READY", "NEED_SHOPPING"})
+    public FilterManager.AvailabilityFilter availability;
+
+    private List<AiRecipe> recipes;
+    private List<String> pantry;
+    private FilterManager filterManager;
+    private RecipeMatchCache warmCache;
+
+    @Setup
+    public void setUp() {
+        SyntheticCorpus corpus = new SyntheticCorpus(42);
+        recipes = corpus.recipes(recipeCount, 5, 15);
+        pantry = corpus.pantry(pantrySize);
+
+        FilterManager.RecipeFilters filters = new FilterManager.RecipeFilters();
+        filters.availabilityFilter = availability;
+        filterManager = new FilterManager(filters);
+
+        warmCache = new RecipeMatchCache();
+        warmCache.updatePantry(pantry);
+        filterManager.applyFilters(recipes, warmCache);
+    }
+
+    @Benchmark
+    public List<AiRecipe> applyFiltersCold() {
+        RecipeMatchCache cache = new RecipeMatchCache();
+        cache.updatePantry(pantry);
+        return filterManager.applyFilters(recipes, cache);
+    }
+
+    @Benchmark
+    public List<AiRecipe> applyFiltersWarm() {
+        return filterManager.applyFilters(recipes, warmCache);
+    }
+}
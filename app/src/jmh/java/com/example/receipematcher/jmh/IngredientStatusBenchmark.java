@@ -0,0 +1,57 @@
+package com.example.receipematcher.jmh;
+
+import com.example.receipematcher.benchmark.SyntheticCorpus;
+import com.example.receipematcher.data.entities.Ingredient;
+import com.example.receipematcher.utils.IngredientStatusCalculator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Expiry status of a whole pantry, as the pantry list and expiry worker compute it
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IngredientStatusBenchmark {
+
+    @Param({"50", "200", "500"})
+    public int pantrySize;
+
+    private List<Ingredient> items;
+
+    @Setup
+    public void setUp() {
+        items = new SyntheticCorpus(42).pantryItems(pantrySize);
+    }
+
+    @Benchmark
+    public void calculateStatus(Blackhole bh) {
+        for (Ingredient item : items) {
+            bh.consume(IngredientStatusCalculator.calculateStatus(item));
+        }
+    }
+
+    @Benchmark
+    public void isCritical(Blackhole bh) {
+        for (Ingredient item : items) {
+            bh.consume(IngredientStatusCalculator.isCritical(item));
+        }
+    }
+}
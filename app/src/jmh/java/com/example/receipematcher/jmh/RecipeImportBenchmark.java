@@ -0,0 +1,82 @@
+package com.example.receipematcher.jmh;
+
+import com.example.receipematcher.benchmark.SyntheticCorpus;
+import com.example.receipematcher.utils.IngredientNormalizer;
+import com.example.receipematcher.utils.RecipeBlobCodec;
+import com.example.receipematcher.utils.RecipeJsonlParser;
+import com.example.receipematcher.utils.RecipeMetadata;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-recipe work of the import and of loading list rows: parsing a dataset
+ * line, generating metadata, canonicalizing ingredients and decoding the
+ * stored ingredient blob.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecipeImportBenchmark {
+
+    @Param({"1000", "10000"})
+    public int recipeCount;
+
+    private List<String> lines;
+    private List<RecipeJsonlParser.ParsedRecipe> parsed;
+
+    @Setup
+    public void setUp() {
+        lines = new SyntheticCorpus(42).jsonlLines(recipeCount);
+        parsed = new ArrayList<>(lines.size());
+        for (String line : lines) parsed.add(RecipeJsonlParser.parse(line));
+    }
+
+    @Benchmark
+    public void parse(Blackhole bh) {
+        for (String line : lines) {
+            bh.consume(RecipeJsonlParser.parse(line));
+        }
+    }
+
+    @Benchmark
+    public void generateMetadata(Blackhole bh) {
+        for (RecipeJsonlParser.ParsedRecipe recipe : parsed) {
+            bh.consume(RecipeMetadata.generate(recipe.name, recipe.ingredients, recipe.steps));
+        }
+    }
+
+    @Benchmark
+    public void canonicalIngredients(Blackhole bh) {
+        for (RecipeJsonlParser.ParsedRecipe recipe : parsed) {
+            bh.consume(IngredientNormalizer.canonicalList(recipe.ingredients));
+        }
+    }
+
+    // Every string is read, as binding a list row does
+    @Benchmark
+    public void decodeIngredients(Blackhole bh) {
+        for (RecipeJsonlParser.ParsedRecipe recipe : parsed) {
+            for (String ingredient : RecipeBlobCodec.decode(recipe.ingredientsBlob)) {
+                bh.consume(ingredient);
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.receipematcher.jmh;
+
+import com.example.receipematcher.benchmark.SyntheticCorpus;
+import com.example.receipematcher.data.repository.RecipeRepository.AiRecipe;
+import com.example.receipematcher.utils.PantryMatcher;
+import com.example.receipematcher.utils.RecipeMatchCalculator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RecipeMatchCalculator} over a whole corpus, one pantry. Each calculator
+ * call builds its own {@link PantryMatcher}; {@link #pantryMatcherShared} is the
+ * same work with one matcher, as RecipeMatchCache does it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecipeMatchBenchmark {
+
+    @Param({"1000", "10000"})
+    public int recipeCount;
+
+    @Param({"10", "50", "200"})
+    public int pantrySize;
+
+    private List<AiRecipe> recipes;
+    private List<String> pantry;
+
+    @Setup
+    public void setUp() {
+        SyntheticCorpus corpus = new SyntheticCorpus(42);
+        recipes = corpus.recipes(recipeCount, 5, 15);
+        pantry = corpus.pantry(pantrySize);
+    }
+
+    @Benchmark
+    public void calculateMatchPercentage(Blackhole bh) {
+        for (AiRecipe recipe : recipes) {
+            bh.consume(RecipeMatchCalculator.calculateMatchPercentage(recipe, pantry));
+        }
+    }
+
+    @Benchmark
+    public void getMissingIngredients(Blackhole bh) {
+        for (AiRecipe recipe : recipes) {
+            bh.consume(RecipeMatchCalculator.getMissingIngredients(recipe, pantry));
+        }
+    }
+
+    @Benchmark
+    public void getMatchedIngredientsCount(Blackhole bh) {
+        for (AiRecipe recipe : recipes) {
+            bh.consume(RecipeMatchCalculator.getMatchedIngredientsCount(recipe, pantry));
+        }
+    }
+
+    @Benchmark
+    public void pantryMatcherShared(Blackhole bh) {
+        PantryMatcher matcher = new PantryMatcher(pantry);
+        for (AiRecipe recipe : recipes) {
+            bh.consume(matcher.match(recipe));
+        }
+    }
+}
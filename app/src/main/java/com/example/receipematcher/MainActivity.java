@@ -75,6 +75,8 @@ public class MainActivity extends AppCompatActivity {
             WorkManager.getInstance(this).enqueue(req);
         }
 
+        // End of app startup (splash included) for startup metrics: the first screen has been laid out
+        binding.getRoot().post(this::reportFullyDrawn);
     }
 
     @Override
@@ -0,0 +1,125 @@
+package com.example.receipematcher.data.db;
+
+import android.database.Cursor;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import com.example.receipematcher.utils.RecipeJsonlParser.ParsedRecipe;
+import com.example.receipematcher.utils.RecipeMetadata;
+
+import java.io.IOException;
+
+/**
+ * Fast insert path into ai_recipes for one batch of the dataset import. Rows
+ * go through one compiled statement, and the recipes_fts sync triggers are
+ * dropped while loading; {@link #finish()} indexes the batch's new rows with a
+ * single INSERT ... SELECT and restores the triggers.
+ *
+ * Rows are keyed by recipeKey and inserted with OR IGNORE, so replaying a batch
+ * after an interrupted import is a no-op for rows that were already committed.
+ * (Rows with the same key have the same content, so there is nothing to update.)
+ *
+ * Must be used inside a transaction (see RoomDatabase#runInTransaction): if the
+ * batch fails, the rollback also restores the triggers.
+ */
+public class AiRecipeBulkInserter {
+
+    static final String INSERT_SQL = "INSERT OR IGNORE INTO ai_recipes (recipeKey, name, ingredientsBlob,"
+            + " stepsBlob, canonicalBlob, ingredientTokens, cuisine, cuisineFlags, dietaryFlags, cookingTimeMinutes,"
+            + " difficulty, rating, reviewCount, nutritionInfo, isTrending, isPopular, isQuick, isHealthy)"
+            + " VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?)";
+
+    // Room's content-sync triggers for @Fts4(contentEntity = AiRecipeEntity.class)
+    static final String[] FTS_TRIGGER_NAMES = {
+            "room_fts_content_sync_recipes_fts_BEFORE_UPDATE",
+            "room_fts_content_sync_recipes_fts_BEFORE_DELETE",
+            "room_fts_content_sync_recipes_fts_AFTER_UPDATE",
+            "room_fts_content_sync_recipes_fts_AFTER_INSERT"
+    };
+    static final String[] FTS_TRIGGER_SQL = {
+            "CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_recipes_fts_BEFORE_UPDATE BEFORE UPDATE ON `ai_recipes`"
+                    + " BEGIN DELETE FROM `recipes_fts` WHERE `docid`=OLD.`rowid`; END",
+            "CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_recipes_fts_BEFORE_DELETE BEFORE DELETE ON `ai_recipes`"
+                    + " BEGIN DELETE FROM `recipes_fts` WHERE `docid`=OLD.`rowid`; END",
+            "CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_recipes_fts_AFTER_UPDATE AFTER UPDATE ON `ai_recipes`"
+                    + " BEGIN INSERT INTO `recipes_fts`(`docid`, `name`, `ingredientTokens`)"
+                    + " VALUES (NEW.`rowid`, NEW.`name`, NEW.`ingredientTokens`); END",
+            "CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_recipes_fts_AFTER_INSERT AFTER INSERT ON `ai_recipes`"
+                    + " BEGIN INSERT INTO `recipes_fts`(`docid`, `name`, `ingredientTokens`)"
+                    + " VALUES (NEW.`rowid`, NEW.`name`, NEW.`ingredientTokens`); END"
+    };
+
+    private final SupportSQLiteDatabase db;
+    private final SupportSQLiteStatement insert;
+    private final IngredientLinker linker;
+    // Rows above this rowid were added by this batch and still need indexing
+    private final long lastRowIdBefore;
+
+    /**
+     * Drop the FTS triggers and prepare the insert statement
+     * @param db Writable database, already in a transaction
+     */
+    public AiRecipeBulkInserter(SupportSQLiteDatabase db) {
+        this.db = db;
+        for (String trigger : FTS_TRIGGER_NAMES) {
+            db.execSQL("DROP TRIGGER IF EXISTS " + trigger);
+        }
+        try (Cursor c = db.query("SELECT IFNULL(MAX(rowid), 0) FROM ai_recipes")) {
+            c.moveToFirst();
+            this.lastRowIdBefore = c.getLong(0);
+        }
+        this.insert = db.compileStatement(INSERT_SQL);
+        this.linker = new IngredientLinker(db);
+    }
+
+    /**
+     * Insert one recipe and its recipe_ingredient links unless a row with the same key exists
+     * @return Row id of the new recipe, or -1 if it was already imported
+     */
+    public long insert(ParsedRecipe recipe, RecipeMetadata meta) {
+        bindRecipe(insert, recipe, meta);
+        long id = insert.executeInsert();
+        if (id != -1) {
+            linker.link(id, recipe.canonicalIngredients);
+        }
+        return id;
+    }
+
+    // Binds parameters 1-18 in INSERT_SQL column order; shared with AiRecipeDeltaApplier
+    static void bindRecipe(SupportSQLiteStatement st, ParsedRecipe recipe, RecipeMetadata meta) {
+        st.clearBindings();
+        st.bindString(1, recipe.key);
+        st.bindString(2, recipe.name);
+        st.bindBlob(3, recipe.ingredientsBlob);
+        st.bindBlob(4, recipe.stepsBlob);
+        st.bindBlob(5, recipe.canonicalBlob);
+        st.bindString(6, recipe.ingredientTokens);
+        st.bindString(7, meta.cuisine);
+        st.bindLong(8, meta.cuisineFlags);
+        st.bindLong(9, meta.dietaryFlags);
+        st.bindLong(10, meta.cookingTimeMinutes);
+        st.bindString(11, meta.difficulty);
+        st.bindDouble(12, meta.rating);
+        st.bindLong(13, meta.reviewCount);
+        st.bindString(14, meta.nutritionInfo);
+        st.bindLong(15, meta.isTrending ? 1 : 0);
+        st.bindLong(16, meta.isPopular ? 1 : 0);
+        st.bindLong(17, meta.isQuick ? 1 : 0);
+        st.bindLong(18, meta.isHealthy ? 1 : 0);
+    }
+
+    /**
+     * Index the rows inserted by this batch and restore the triggers
+     */
+    public void finish() throws IOException {
+        insert.close();
+        linker.close();
+        db.execSQL("INSERT INTO recipes_fts(docid, name, ingredientTokens)"
+                + " SELECT rowid, name, ingredientTokens FROM ai_recipes WHERE rowid > ?",
+                new Object[]{lastRowIdBefore});
+        for (String sql : FTS_TRIGGER_SQL) {
+            db.execSQL(sql);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.receipematcher.data.db;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import com.example.receipematcher.utils.RecipeJsonlParser.DeltaEntry;
+import com.example.receipematcher.utils.RecipeJsonlParser.ParsedRecipe;
+import com.example.receipematcher.utils.RecipeMetadata;
+
+import java.io.IOException;
+
+/**
+ * Applies dataset delta entries (adds, updates, deletes) to ai_recipes.
+ *
+ * Unlike {@link AiRecipeBulkInserter}, the recipes_fts sync triggers stay in
+ * place: deltas are small, so only the touched rows are re-indexed.
+ * Every operation is idempotent, so a delta interrupted before its
+ * transaction committed can simply be applied again.
+ */
+public class AiRecipeDeltaApplier {
+
+    private static final String UPDATE_SQL = "UPDATE OR IGNORE ai_recipes SET recipeKey = ?, name = ?,"
+            + " ingredientsBlob = ?, stepsBlob = ?, canonicalBlob = ?, ingredientTokens = ?,"
+            + " cuisine = ?, cuisineFlags = ?, dietaryFlags = ?, cookingTimeMinutes = ?, difficulty = ?, rating = ?,"
+            + " reviewCount = ?, nutritionInfo = ?, isTrending = ?, isPopular = ?, isQuick = ?, isHealthy = ?"
+            + " WHERE recipeKey = ?";
+    // recipe_ingredient rows are removed by ON DELETE CASCADE
+    private static final String DELETE_SQL = "DELETE FROM ai_recipes WHERE recipeKey = ?";
+    private static final String SELECT_ID_SQL = "SELECT id FROM ai_recipes WHERE recipeKey = ?";
+
+    private final SupportSQLiteStatement insert;
+    private final SupportSQLiteStatement update;
+    private final SupportSQLiteStatement delete;
+    private final SupportSQLiteStatement selectId;
+    private final IngredientLinker linker;
+
+    /**
+     * @param db Writable database, already in a transaction
+     */
+    public AiRecipeDeltaApplier(SupportSQLiteDatabase db) {
+        this.insert = db.compileStatement(AiRecipeBulkInserter.INSERT_SQL);
+        this.update = db.compileStatement(UPDATE_SQL);
+        this.delete = db.compileStatement(DELETE_SQL);
+        this.selectId = db.compileStatement(SELECT_ID_SQL);
+        this.linker = new IngredientLinker(db);
+    }
+
+    /**
+     * Apply one delta entry
+     * @return Number of rows changed
+     */
+    public int apply(DeltaEntry entry) {
+        switch (entry.op) {
+            case DeltaEntry.OP_DELETE:
+                delete.clearBindings();
+                delete.bindString(1, entry.key);
+                return delete.executeUpdateDelete();
+            case DeltaEntry.OP_UPDATE:
+                ParsedRecipe recipe = entry.recipe;
+                AiRecipeBulkInserter.bindRecipe(update, recipe, metadata(recipe));
+                update.bindString(19, entry.key);
+                int updated = update.executeUpdateDelete();
+                if (updated > 0) {
+                    // Same row id, new ingredients
+                    selectId.bindString(1, recipe.key);
+                    linker.relink(selectId.simpleQueryForLong(), recipe.canonicalIngredients);
+                    return updated;
+                }
+                // Old row gone (already applied, or never imported), or the new key
+                // belongs to another row, which the update ignored: drop the old
+                // row and make sure the new one exists
+                delete.clearBindings();
+                delete.bindString(1, entry.key);
+                return delete.executeUpdateDelete() + add(recipe);
+            default:
+                return add(entry.recipe);
+        }
+    }
+
+    private int add(ParsedRecipe recipe) {
+        AiRecipeBulkInserter.bindRecipe(insert, recipe, metadata(recipe));
+        long id = insert.executeInsert();
+        if (id == -1) return 0;
+        linker.link(id, recipe.canonicalIngredients);
+        return 1;
+    }
+
+    private static RecipeMetadata metadata(ParsedRecipe recipe) {
+        return RecipeMetadata.generate(recipe.name, recipe.ingredients, recipe.steps);
+    }
+
+    public void close() throws IOException {
+        insert.close();
+        update.close();
+        delete.close();
+        selectId.close();
+        linker.close();
+    }
+}
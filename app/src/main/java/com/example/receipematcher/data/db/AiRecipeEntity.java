@@ -1,10 +1,20 @@
 package com.example.receipematcher.data.db;
 
 import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
-@Entity(tableName = "ai_recipes")
+import com.example.receipematcher.utils.RecipeMetadata;
+
+// No index on cuisineFlags or dietaryFlags: they are filtered with bit masks,
+// which SQLite cannot look up in an index
+@Entity(tableName = "ai_recipes", indices = {
+        @Index(value = "recipeKey", unique = true),
+        @Index("difficulty"),
+        @Index("cookingTimeMinutes")
+})
 public class AiRecipeEntity {
     @PrimaryKey(autoGenerate = true)
     public long id;
@@ -12,15 +22,65 @@ public class AiRecipeEntity {
     @NonNull
     public String name;
 
+    // Natural key derived from name + ingredients (RecipeJsonlParser#recipeKey),
+    // so a resumed or repeated import does not duplicate rows
+    @NonNull
+    public String recipeKey = "";
+
+    // Canonical ingredient names (IngredientNormalizer#searchText), indexed by recipes_fts
+    // and searched by the free-text and avoid filters
+    @NonNull
+    @ColumnInfo(defaultValue = "")
+    public String ingredientTokens = "";
+
+    // RecipeBlobCodec encodings
+    @NonNull
+    public byte[] ingredientsBlob;
+
     @NonNull
-    public String ingredientsJson;
+    public byte[] stepsBlob;
 
+    // IngredientNormalizer#canonical of each ingredient, parallel to ingredientsBlob
     @NonNull
-    public String stepsJson;
+    @ColumnInfo(defaultValue = "x''")
+    public byte[] canonicalBlob = new byte[0];
 
-    public AiRecipeEntity(@NonNull String name, @NonNull String ingredientsJson, @NonNull String stepsJson) {
+    // Derived metadata, generated once at import (see RecipeMetadata)
+    @NonNull
+    public String cuisine = "American";
+    @ColumnInfo(defaultValue = "0")
+    public int cuisineFlags; // RecipeMetadata.CUISINE_* bits
+    public int dietaryFlags; // RecipeMetadata.FLAG_* bits
+    public int cookingTimeMinutes;
+    @NonNull
+    public String difficulty = "Easy";
+    public float rating;
+    public int reviewCount;
+    @NonNull
+    public String nutritionInfo = "";
+    public boolean isTrending;
+    public boolean isPopular;
+    public boolean isQuick;
+    public boolean isHealthy;
+
+    public AiRecipeEntity(@NonNull String name, @NonNull byte[] ingredientsBlob, @NonNull byte[] stepsBlob) {
         this.name = name;
-        this.ingredientsJson = ingredientsJson;
-        this.stepsJson = stepsJson;
+        this.ingredientsBlob = ingredientsBlob;
+        this.stepsBlob = stepsBlob;
+    }
+
+    public void applyMetadata(RecipeMetadata meta) {
+        cuisine = meta.cuisine;
+        cuisineFlags = meta.cuisineFlags;
+        dietaryFlags = meta.dietaryFlags;
+        cookingTimeMinutes = meta.cookingTimeMinutes;
+        difficulty = meta.difficulty;
+        rating = meta.rating;
+        reviewCount = meta.reviewCount;
+        nutritionInfo = meta.nutritionInfo;
+        isTrending = meta.isTrending;
+        isPopular = meta.isPopular;
+        isQuick = meta.isQuick;
+        isHealthy = meta.isHealthy;
     }
 }
@@ -0,0 +1,45 @@
+package com.example.receipematcher.data.db;
+
+import androidx.annotation.NonNull;
+
+/**
+ * List-row projection of ai_recipes: everything the recipe list shows, without
+ * stepsBlob. Steps are the bulkiest column and are only read when a recipe's
+ * detail screen opens (see AiRecipeDao#observeStepsBlob).
+ */
+public class AiRecipeRow {
+    // Columns selected into this projection, qualified for the FTS join
+    public static final String COLUMNS = "ai_recipes.id, ai_recipes.name, ai_recipes.ingredientsBlob,"
+            + " ai_recipes.canonicalBlob,"
+            + " ai_recipes.cuisine, ai_recipes.dietaryFlags, ai_recipes.cookingTimeMinutes,"
+            + " ai_recipes.difficulty, ai_recipes.rating, ai_recipes.reviewCount, ai_recipes.nutritionInfo,"
+            + " ai_recipes.isTrending, ai_recipes.isPopular, ai_recipes.isQuick, ai_recipes.isHealthy";
+
+    public long id;
+
+    @NonNull
+    public String name = "";
+
+    // RecipeBlobCodec encoding
+    @NonNull
+    public byte[] ingredientsBlob = new byte[0];
+
+    // Canonical names parallel to ingredientsBlob, same encoding
+    @NonNull
+    public byte[] canonicalBlob = new byte[0];
+
+    @NonNull
+    public String cuisine = "American";
+    public int dietaryFlags;
+    public int cookingTimeMinutes;
+    @NonNull
+    public String difficulty = "Easy";
+    public float rating;
+    public int reviewCount;
+    @NonNull
+    public String nutritionInfo = "";
+    public boolean isTrending;
+    public boolean isPopular;
+    public boolean isQuick;
+    public boolean isHealthy;
+}
@@ -11,35 +11,66 @@ import com.example.receipematcher.data.db.dao.FavouriteDao;
 import com.example.receipematcher.data.db.dao.RecipeDao;
 import com.example.receipematcher.data.db.dao.ShoppingDao;
 import com.example.receipematcher.data.db.dao.AiRecipeDao;
+import com.example.receipematcher.data.db.dao.IngredientDictDao;
+import com.example.receipematcher.data.db.dao.ImportStateDao;
 import com.example.receipematcher.data.entities.Ingredient;
 import com.example.receipematcher.data.entities.Recipe;
 import com.example.receipematcher.data.entities.Favourite;
 import com.example.receipematcher.data.entities.ShoppingItem;
+import com.example.receipematcher.utils.AppExecutors;
 
-@Database(entities = {Ingredient.class, Recipe.class, Favourite.class, ShoppingItem.class, AiRecipeEntity.class, RecipeFtsEntity.class}, version = 5, exportSchema = false)
+import java.io.IOException;
+import java.io.InputStream;
+
+@Database(entities = {Ingredient.class, Recipe.class, Favourite.class, ShoppingItem.class, AiRecipeEntity.class, RecipeFtsEntity.class, IngredientDictEntity.class, RecipeIngredientEntity.class, ImportStateEntity.class}, version = 12, exportSchema = true)
 public abstract class AppDatabase extends RoomDatabase {
     private static volatile AppDatabase INSTANCE;
 
+    // Generated at build time from the JSONL dataset (see app/src/dbgen)
+    public static final String PREBUILT_ASSET = "databases/recipe_matcher.db";
+
     public abstract PantryDao pantryDao();
     public abstract RecipeDao recipeDao();
     public abstract FavouriteDao favouriteDao();
     public abstract ShoppingDao shoppingDao();
     public abstract AiRecipeDao aiRecipeDao();
+    public abstract IngredientDictDao ingredientDictDao();
+    public abstract ImportStateDao importStateDao();
 
     public static AppDatabase getDatabase(final Context context) {
         if (INSTANCE == null) {
             synchronized (AppDatabase.class) {
                 if (INSTANCE == null) {
-                    INSTANCE = Room.databaseBuilder(
+                    RoomDatabase.Builder<AppDatabase> builder = Room.databaseBuilder(
                             context.getApplicationContext(),
                             AppDatabase.class,
                             "recipe_matcher_db"
-                    )
-                            .fallbackToDestructiveMigration()
+                    );
+                    if (hasAsset(context, PREBUILT_ASSET)) {
+                        // First launch copies the ready-made recipes instead of importing them
+                        builder.createFromAsset(PREBUILT_ASSET);
+                    }
+                    INSTANCE = builder
+                            .addMigrations(Migrations.MIGRATION_5_6, Migrations.MIGRATION_6_7,
+                                    Migrations.MIGRATION_7_8, Migrations.MIGRATION_8_9, Migrations.MIGRATION_9_10,
+                                    Migrations.MIGRATION_10_11, Migrations.MIGRATION_11_12)
+                            // Only databases older than the first release (5) are rebuilt
+                            .fallbackToDestructiveMigrationFrom(true, 1, 2, 3, 4)
+                            .fallbackToDestructiveMigrationOnDowngrade(true)
+                            // LiveData and paging reads share the app query pool
+                            .setQueryExecutor(AppExecutors.queryExecutor())
                             .build();
                 }
             }
         }
         return INSTANCE;
     }
+
+    public static boolean hasAsset(Context context, String path) {
+        try (InputStream ignored = context.getAssets().open(path)) {
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
 }
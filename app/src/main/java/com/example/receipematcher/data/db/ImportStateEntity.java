@@ -0,0 +1,30 @@
+package com.example.receipematcher.data.db;
+
+import androidx.annotation.Nullable;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * Progress of the recipe dataset import: a single row, written in the same
+ * transaction as the recipes it describes so it cannot run ahead of them.
+ * The prebuilt database ships with the row already marking its base dataset
+ * as imported (see RecipeDbGenerator).
+ */
+@Entity(tableName = "import_state")
+public class ImportStateEntity {
+    public static final int ID = 1;
+
+    @PrimaryKey
+    public int id = ID;
+
+    // Base dataset fully imported
+    public boolean imported;
+
+    // Dataset version in the database: the manifest's base version plus applied deltas
+    public int datasetVersion;
+
+    // Base dataset asset being imported, and its byte offset after the last committed batch
+    @Nullable
+    public String checkpointAsset;
+    public long checkpointOffset;
+}
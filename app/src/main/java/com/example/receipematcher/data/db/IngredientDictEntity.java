@@ -0,0 +1,23 @@
+package com.example.receipematcher.data.db;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * Interned ingredient names: one row per canonical name
+ * (see IngredientNormalizer#canonical), linked to recipes through recipe_ingredient.
+ */
+@Entity(tableName = "ingredients_dict", indices = {@Index(value = "name", unique = true)})
+public class IngredientDictEntity {
+    @PrimaryKey(autoGenerate = true)
+    public long id;
+
+    @NonNull
+    public String name = "";
+
+    public IngredientDictEntity(@NonNull String name) {
+        this.name = name;
+    }
+}
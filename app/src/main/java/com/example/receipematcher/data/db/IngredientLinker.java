@@ -0,0 +1,81 @@
+package com.example.receipematcher.data.db;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes recipe_ingredient rows for the import paths, interning canonical
+ * names into ingredients_dict on the way. Ids are cached for the lifetime of
+ * the linker, so a batch looks each distinct name up once.
+ *
+ * Must be used inside a transaction.
+ */
+public class IngredientLinker {
+
+    private final SupportSQLiteStatement insertName;
+    private final SupportSQLiteStatement selectId;
+    private final SupportSQLiteStatement insertLink;
+    private final SupportSQLiteStatement deleteLinks;
+    private final Map<String, Long> ids = new HashMap<>();
+
+    /**
+     * @param db Writable database, already in a transaction
+     */
+    public IngredientLinker(SupportSQLiteDatabase db) {
+        this.insertName = db.compileStatement("INSERT OR IGNORE INTO ingredients_dict (name) VALUES (?)");
+        this.selectId = db.compileStatement("SELECT id FROM ingredients_dict WHERE name = ?");
+        this.insertLink = db.compileStatement(
+                "INSERT OR IGNORE INTO recipe_ingredient (recipe_id, ingredient_id) VALUES (?, ?)");
+        this.deleteLinks = db.compileStatement("DELETE FROM recipe_ingredient WHERE recipe_id = ?");
+    }
+
+    /**
+     * @param canonicalName Output of IngredientNormalizer#canonical, not empty
+     * @return Dictionary id, existing or new
+     */
+    public long intern(String canonicalName) {
+        Long id = ids.get(canonicalName);
+        if (id != null) return id;
+        insertName.bindString(1, canonicalName);
+        long inserted = insertName.executeInsert();
+        if (inserted == -1) {
+            selectId.bindString(1, canonicalName);
+            inserted = selectId.simpleQueryForLong();
+        }
+        ids.put(canonicalName, inserted);
+        return inserted;
+    }
+
+    /**
+     * Add links for a newly inserted recipe
+     * @param canonicalNames Distinct canonical ingredient names (IngredientNormalizer#canonicalSet)
+     */
+    public void link(long recipeId, List<String> canonicalNames) {
+        for (String name : canonicalNames) {
+            insertLink.bindLong(1, recipeId);
+            insertLink.bindLong(2, intern(name));
+            insertLink.executeInsert();
+        }
+    }
+
+    /**
+     * Replace the links of a recipe whose ingredients changed
+     */
+    public void relink(long recipeId, List<String> canonicalNames) {
+        deleteLinks.bindLong(1, recipeId);
+        deleteLinks.executeUpdateDelete();
+        link(recipeId, canonicalNames);
+    }
+
+    public void close() throws IOException {
+        insertName.close();
+        selectId.close();
+        insertLink.close();
+        deleteLinks.close();
+    }
+}
@@ -0,0 +1,904 @@
+package com.example.receipematcher.data.db;
+
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import org.json.JSONArray;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Schema migrations from the released version 5 onwards. They keep the pantry,
+ * favourites and shopping list as well as the imported recipes; only versions
+ * before 5 fall back to a destructive rebuild.
+ *
+ * Each migration carries frozen copies of the encodings, normalizer rules and
+ * SQL of the version it produces, rather than calling the live app classes:
+ * a later change to RecipeBlobCodec, IngredientNormalizer or the import code
+ * must not change what an old migration writes.
+ */
+public final class Migrations {
+
+    // Room's names for the recipes_fts sync triggers, the same in every version
+    private static final String[] FTS_TRIGGER_NAMES = {
+            "room_fts_content_sync_recipes_fts_BEFORE_UPDATE",
+            "room_fts_content_sync_recipes_fts_BEFORE_DELETE",
+            "room_fts_content_sync_recipes_fts_AFTER_UPDATE",
+            "room_fts_content_sync_recipes_fts_AFTER_INSERT"
+    };
+
+    // recipes_fts sync triggers from versions 5-10, when ingredientsJson was indexed
+    private static final String[] JSON_FTS_TRIGGER_SQL = {
+            "CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_recipes_fts_BEFORE_UPDATE BEFORE UPDATE ON `ai_recipes`"
+                    + " BEGIN DELETE FROM `recipes_fts` WHERE `docid`=OLD.`rowid`; END",
+            "CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_recipes_fts_BEFORE_DELETE BEFORE DELETE ON `ai_recipes`"
+                    + " BEGIN DELETE FROM `recipes_fts` WHERE `docid`=OLD.`rowid`; END",
+            "CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_recipes_fts_AFTER_UPDATE AFTER UPDATE ON `ai_recipes`"
+                    + " BEGIN INSERT INTO `recipes_fts`(`docid`, `name`, `ingredientsJson`)"
+                    + " VALUES (NEW.`rowid`, NEW.`name`, NEW.`ingredientsJson`); END",
+            "CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_recipes_fts_AFTER_INSERT AFTER INSERT ON `ai_recipes`"
+                    + " BEGIN INSERT INTO `recipes_fts`(`docid`, `name`, `ingredientsJson`)"
+                    + " VALUES (NEW.`rowid`, NEW.`name`, NEW.`ingredientsJson`); END"
+    };
+
+    // recipes_fts sync triggers from version 11, when ingredientTokens is indexed
+    private static final String[] TOKEN_FTS_TRIGGER_SQL = {
+            "CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_recipes_fts_BEFORE_UPDATE BEFORE UPDATE ON `ai_recipes`"
+                    + " BEGIN DELETE FROM `recipes_fts` WHERE `docid`=OLD.`rowid`; END",
+            "CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_recipes_fts_BEFORE_DELETE BEFORE DELETE ON `ai_recipes`"
+                    + " BEGIN DELETE FROM `recipes_fts` WHERE `docid`=OLD.`rowid`; END",
+            "CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_recipes_fts_AFTER_UPDATE AFTER UPDATE ON `ai_recipes`"
+                    + " BEGIN INSERT INTO `recipes_fts`(`docid`, `name`, `ingredientTokens`)"
+                    + " VALUES (NEW.`rowid`, NEW.`name`, NEW.`ingredientTokens`); END",
+            "CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_recipes_fts_AFTER_INSERT AFTER INSERT ON `ai_recipes`"
+                    + " BEGIN INSERT INTO `recipes_fts`(`docid`, `name`, `ingredientTokens`)"
+                    + " VALUES (NEW.`rowid`, NEW.`name`, NEW.`ingredientTokens`); END"
+    };
+
+    private Migrations() { }
+
+    /**
+     * 5 -> 6: derived metadata columns on ai_recipes, filled from each stored
+     * recipe with the version 6 heuristics (see {@link MetadataV6}). The FTS sync
+     * triggers are dropped for the backfill, since name and ingredientsJson do
+     * not change.
+     */
+    public static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `ai_recipes` ADD COLUMN `cuisine` TEXT NOT NULL DEFAULT 'American'");
+            db.execSQL("ALTER TABLE `ai_recipes` ADD COLUMN `dietaryFlags` INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE `ai_recipes` ADD COLUMN `cookingTimeMinutes` INTEGER NOT NULL DEFAULT 30");
+            db.execSQL("ALTER TABLE `ai_recipes` ADD COLUMN `difficulty` TEXT NOT NULL DEFAULT 'Easy'");
+            db.execSQL("ALTER TABLE `ai_recipes` ADD COLUMN `rating` REAL NOT NULL DEFAULT 4.0");
+            db.execSQL("ALTER TABLE `ai_recipes` ADD COLUMN `reviewCount` INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE `ai_recipes` ADD COLUMN `nutritionInfo` TEXT NOT NULL DEFAULT ''");
+            db.execSQL("ALTER TABLE `ai_recipes` ADD COLUMN `isTrending` INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE `ai_recipes` ADD COLUMN `isPopular` INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE `ai_recipes` ADD COLUMN `isQuick` INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE `ai_recipes` ADD COLUMN `isHealthy` INTEGER NOT NULL DEFAULT 0");
+
+            dropTriggers(db, FTS_TRIGGER_NAMES);
+            try (SupportSQLiteStatement update = db.compileStatement("UPDATE ai_recipes SET cuisine = ?,"
+                    + " dietaryFlags = ?, cookingTimeMinutes = ?, difficulty = ?, rating = ?, reviewCount = ?,"
+                    + " nutritionInfo = ?, isTrending = ?, isPopular = ?, isQuick = ?, isHealthy = ? WHERE id = ?");
+                 Cursor c = db.query("SELECT id, name, ingredientsJson, stepsJson FROM ai_recipes")) {
+                while (c.moveToNext()) {
+                    MetadataV6 meta = new MetadataV6(c.getString(1), jsonToList(c.getString(2)),
+                            jsonToList(c.getString(3)));
+                    update.bindString(1, meta.cuisine);
+                    update.bindLong(2, meta.dietaryFlags);
+                    update.bindLong(3, meta.cookingTimeMinutes);
+                    update.bindString(4, meta.difficulty);
+                    update.bindDouble(5, meta.rating);
+                    update.bindLong(6, meta.reviewCount);
+                    update.bindString(7, meta.nutritionInfo);
+                    update.bindLong(8, meta.isTrending ? 1 : 0);
+                    update.bindLong(9, meta.isPopular ? 1 : 0);
+                    update.bindLong(10, meta.isQuick ? 1 : 0);
+                    update.bindLong(11, meta.isHealthy ? 1 : 0);
+                    update.bindLong(12, c.getLong(0));
+                    update.executeUpdateDelete();
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            for (String sql : JSON_FTS_TRIGGER_SQL) {
+                db.execSQL(sql);
+            }
+
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_ai_recipes_difficulty` ON `ai_recipes` (`difficulty`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_ai_recipes_cookingTimeMinutes`"
+                    + " ON `ai_recipes` (`cookingTimeMinutes`)");
+        }
+    };
+
+    /**
+     * 6 -> 7: recipeKey with a unique index. Keys are computed the way the
+     * version 7 importer did ({@link #recipeKeyV7}), so later imports and deltas
+     * find the existing rows. Duplicates left by restarted version 5 imports are
+     * removed first, keeping the oldest row.
+     */
+    public static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `ai_recipes` ADD COLUMN `recipeKey` TEXT NOT NULL DEFAULT ''");
+
+            dropTriggers(db, FTS_TRIGGER_NAMES);
+            try (SupportSQLiteStatement update = db.compileStatement(
+                    "UPDATE ai_recipes SET recipeKey = ? WHERE id = ?");
+                 Cursor c = db.query("SELECT id, name, ingredientsJson FROM ai_recipes")) {
+                while (c.moveToNext()) {
+                    update.bindString(1, recipeKeyV7(c.getString(1), jsonToList(c.getString(2))));
+                    update.bindLong(2, c.getLong(0));
+                    update.executeUpdateDelete();
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            for (String sql : JSON_FTS_TRIGGER_SQL) {
+                db.execSQL(sql);
+            }
+
+            // With the triggers back, deleted duplicates also leave recipes_fts
+            db.execSQL("DELETE FROM ai_recipes WHERE id NOT IN (SELECT MIN(id) FROM ai_recipes GROUP BY recipeKey)");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_ai_recipes_recipeKey` ON `ai_recipes` (`recipeKey`)");
+        }
+    };
+
+    /**
+     * 7 -> 8: ingredients and steps are read from RecipeBlobCodec BLOBs instead of
+     * JSON text. ingredientsJson stays as the FTS / ranking source; stepsJson is
+     * dropped. SQLite cannot drop a column before 3.35, so ai_recipes is rebuilt.
+     * Row ids are kept, so recipes_fts (docid = rowid) stays valid without a reindex.
+     */
+    public static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `ai_recipes_new` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `name` TEXT NOT NULL,"
+                    + " `recipeKey` TEXT NOT NULL, `ingredientsJson` TEXT NOT NULL,"
+                    + " `ingredientsBlob` BLOB NOT NULL, `stepsBlob` BLOB NOT NULL, `cuisine` TEXT NOT NULL,"
+                    + " `dietaryFlags` INTEGER NOT NULL, `cookingTimeMinutes` INTEGER NOT NULL,"
+                    + " `difficulty` TEXT NOT NULL, `rating` REAL NOT NULL, `reviewCount` INTEGER NOT NULL,"
+                    + " `nutritionInfo` TEXT NOT NULL, `isTrending` INTEGER NOT NULL, `isPopular` INTEGER NOT NULL,"
+                    + " `isQuick` INTEGER NOT NULL, `isHealthy` INTEGER NOT NULL)");
+            db.execSQL("INSERT INTO ai_recipes_new (id, name, recipeKey, ingredientsJson, ingredientsBlob, stepsBlob,"
+                    + " cuisine, dietaryFlags, cookingTimeMinutes, difficulty, rating, reviewCount, nutritionInfo,"
+                    + " isTrending, isPopular, isQuick, isHealthy)"
+                    + " SELECT id, name, recipeKey, ingredientsJson, x'', x'', cuisine, dietaryFlags,"
+                    + " cookingTimeMinutes, difficulty, rating, reviewCount, nutritionInfo, isTrending, isPopular,"
+                    + " isQuick, isHealthy FROM ai_recipes");
+
+            try (SupportSQLiteStatement update = db.compileStatement(
+                    "UPDATE ai_recipes_new SET ingredientsBlob = ?, stepsBlob = ? WHERE id = ?");
+                 Cursor c = db.query("SELECT id, ingredientsJson, stepsJson FROM ai_recipes")) {
+                while (c.moveToNext()) {
+                    update.bindBlob(1, encodeBlob(jsonToList(c.getString(1))));
+                    update.bindBlob(2, encodeBlob(jsonToList(c.getString(2))));
+                    update.bindLong(3, c.getLong(0));
+                    update.executeUpdateDelete();
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+
+            // Also drops the old indices and FTS sync triggers
+            db.execSQL("DROP TABLE ai_recipes");
+            db.execSQL("ALTER TABLE ai_recipes_new RENAME TO ai_recipes");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_ai_recipes_recipeKey` ON `ai_recipes` (`recipeKey`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_ai_recipes_difficulty` ON `ai_recipes` (`difficulty`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_ai_recipes_cookingTimeMinutes`"
+                    + " ON `ai_recipes` (`cookingTimeMinutes`)");
+            for (String sql : JSON_FTS_TRIGGER_SQL) {
+                db.execSQL(sql);
+            }
+        }
+    };
+
+    /**
+     * 8 -> 9: ingredients_dict and recipe_ingredient, backfilled from the stored
+     * ingredients. Names are interned under the version 9 rules ({@link CanonicalV9}).
+     */
+    public static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `ingredients_dict` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `name` TEXT NOT NULL)");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_ingredients_dict_name` ON `ingredients_dict` (`name`)");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `recipe_ingredient` (`recipe_id` INTEGER NOT NULL,"
+                    + " `ingredient_id` INTEGER NOT NULL, PRIMARY KEY(`recipe_id`, `ingredient_id`),"
+                    + " FOREIGN KEY(`recipe_id`) REFERENCES `ai_recipes`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE ,"
+                    + " FOREIGN KEY(`ingredient_id`) REFERENCES `ingredients_dict`(`id`)"
+                    + " ON UPDATE NO ACTION ON DELETE NO ACTION )");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_recipe_ingredient_ingredient_id_recipe_id`"
+                    + " ON `recipe_ingredient` (`ingredient_id`, `recipe_id`)");
+
+            try (Linker linker = new Linker(db);
+                 Cursor c = db.query("SELECT id, ingredientsBlob FROM ai_recipes")) {
+                while (c.moveToNext()) {
+                    List<String> names = new ArrayList<>();
+                    for (String ingredient : decodeBlob(c.getBlob(1))) {
+                        names.add(CanonicalV9.canonical(ingredient));
+                    }
+                    linker.link(c.getLong(0), names);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    };
+
+    /**
+     * 9 -> 10: canonical names now come from the full normalizer pipeline
+     * ({@link CanonicalV10}) and are stored per recipe (canonicalBlob). The
+     * dictionary and links are rebuilt, since names interned under the old rules
+     * no longer match.
+     */
+    public static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `ai_recipes` ADD COLUMN `canonicalBlob` BLOB NOT NULL DEFAULT x''");
+            db.execSQL("DELETE FROM recipe_ingredient");
+            db.execSQL("DELETE FROM ingredients_dict");
+
+            try (SupportSQLiteStatement update = db.compileStatement(
+                    "UPDATE ai_recipes SET canonicalBlob = ? WHERE id = ?");
+                 Linker linker = new Linker(db);
+                 Cursor c = db.query("SELECT id, ingredientsBlob FROM ai_recipes")) {
+                while (c.moveToNext()) {
+                    List<String> canonical = new ArrayList<>();
+                    for (String ingredient : decodeBlob(c.getBlob(1))) {
+                        canonical.add(CanonicalV10.canonical(ingredient));
+                    }
+                    update.bindBlob(1, encodeBlob(canonical));
+                    update.bindLong(2, c.getLong(0));
+                    update.executeUpdateDelete();
+                    linker.link(c.getLong(0), canonical);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    };
+
+    /**
+     * 10 -> 11: recipes_fts indexes canonical ingredient names (ingredientTokens)
+     * with the porter tokenizer instead of ingredientsJson. The FTS table is
+     * recreated and rebuilt from the content table in one pass.
+     */
+    public static final Migration MIGRATION_10_11 = new Migration(10, 11) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            // Drop the sync triggers first so the backfill below does not re-index row by row
+            dropTriggers(db, FTS_TRIGGER_NAMES);
+            db.execSQL("DROP TABLE IF EXISTS `recipes_fts`");
+            db.execSQL("ALTER TABLE `ai_recipes` ADD COLUMN `ingredientTokens` TEXT NOT NULL DEFAULT ''");
+            try (SupportSQLiteStatement update = db.compileStatement(
+                    "UPDATE ai_recipes SET ingredientTokens = ? WHERE id = ?");
+                 Cursor c = db.query("SELECT id, canonicalBlob FROM ai_recipes")) {
+                while (c.moveToNext()) {
+                    // The distinct stored names, separated by ", "
+                    update.bindString(1, String.join(", ", distinct(decodeBlob(c.getBlob(1)))));
+                    update.bindLong(2, c.getLong(0));
+                    update.executeUpdateDelete();
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `recipes_fts` USING FTS4("
+                    + "`name` TEXT NOT NULL, `ingredientTokens` TEXT NOT NULL, tokenize=porter, content=`ai_recipes`)");
+            db.execSQL("INSERT INTO recipes_fts(recipes_fts) VALUES('rebuild')");
+            for (String sql : TOKEN_FTS_TRIGGER_SQL) {
+                db.execSQL(sql);
+            }
+        }
+    };
+
+    /**
+     * 11 -> 12: import progress moves from SharedPreferences into import_state.
+     * The table starts empty; RecipeImportWorker carries the old flag over on its
+     * first run, once it has checked the recipes are still there.
+     *
+     * ai_recipes gains cuisineFlags, every cuisine a recipe matches (see
+     * {@link CuisineV12}), filled from the stored name and ingredients, and drops
+     * ingredientsJson: text search and the avoid filter read ingredientTokens.
+     * The table is rebuilt as in MIGRATION_7_8, keeping row ids, so recipes_fts
+     * stays valid. recipe_ingredient is set aside while the old table is dropped,
+     * which would otherwise cascade into it when foreign keys are enforced.
+     */
+    public static final Migration MIGRATION_11_12 = new Migration(11, 12) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `import_state` (`id` INTEGER NOT NULL, `imported` INTEGER NOT NULL,"
+                    + " `datasetVersion` INTEGER NOT NULL, `checkpointAsset` TEXT, `checkpointOffset` INTEGER NOT NULL,"
+                    + " PRIMARY KEY(`id`))");
+
+            db.execSQL("CREATE TABLE IF NOT EXISTS `ai_recipes_new` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `name` TEXT NOT NULL,"
+                    + " `recipeKey` TEXT NOT NULL, `ingredientTokens` TEXT NOT NULL DEFAULT '',"
+                    + " `ingredientsBlob` BLOB NOT NULL, `stepsBlob` BLOB NOT NULL,"
+                    + " `canonicalBlob` BLOB NOT NULL DEFAULT x'', `cuisine` TEXT NOT NULL,"
+                    + " `cuisineFlags` INTEGER NOT NULL DEFAULT 0, `dietaryFlags` INTEGER NOT NULL,"
+                    + " `cookingTimeMinutes` INTEGER NOT NULL, `difficulty` TEXT NOT NULL, `rating` REAL NOT NULL,"
+                    + " `reviewCount` INTEGER NOT NULL, `nutritionInfo` TEXT NOT NULL, `isTrending` INTEGER NOT NULL,"
+                    + " `isPopular` INTEGER NOT NULL, `isQuick` INTEGER NOT NULL, `isHealthy` INTEGER NOT NULL)");
+            db.execSQL("INSERT INTO ai_recipes_new (id, name, recipeKey, ingredientTokens, ingredientsBlob, stepsBlob,"
+                    + " canonicalBlob, cuisine, dietaryFlags, cookingTimeMinutes, difficulty, rating, reviewCount,"
+                    + " nutritionInfo, isTrending, isPopular, isQuick, isHealthy)"
+                    + " SELECT id, name, recipeKey, ingredientTokens, ingredientsBlob, stepsBlob, canonicalBlob, cuisine,"
+                    + " dietaryFlags, cookingTimeMinutes, difficulty, rating, reviewCount, nutritionInfo, isTrending,"
+                    + " isPopular, isQuick, isHealthy FROM ai_recipes");
+
+            try (SupportSQLiteStatement update = db.compileStatement(
+                    "UPDATE ai_recipes_new SET cuisineFlags = ? WHERE id = ?");
+                 Cursor c = db.query("SELECT id, name, ingredientsBlob FROM ai_recipes")) {
+                while (c.moveToNext()) {
+                    update.bindLong(1, CuisineV12.flags(c.getString(1), decodeBlob(c.getBlob(2))));
+                    update.bindLong(2, c.getLong(0));
+                    update.executeUpdateDelete();
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+
+            db.execSQL("CREATE TEMP TABLE recipe_ingredient_old AS"
+                    + " SELECT recipe_id, ingredient_id FROM recipe_ingredient");
+            // Also drops the old indices and FTS sync triggers
+            db.execSQL("DROP TABLE ai_recipes");
+            db.execSQL("ALTER TABLE ai_recipes_new RENAME TO ai_recipes");
+            db.execSQL("INSERT OR IGNORE INTO recipe_ingredient (recipe_id, ingredient_id)"
+                    + " SELECT recipe_id, ingredient_id FROM recipe_ingredient_old");
+            db.execSQL("DROP TABLE recipe_ingredient_old");
+
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_ai_recipes_recipeKey` ON `ai_recipes` (`recipeKey`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_ai_recipes_difficulty` ON `ai_recipes` (`difficulty`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_ai_recipes_cookingTimeMinutes`"
+                    + " ON `ai_recipes` (`cookingTimeMinutes`)");
+            for (String sql : TOKEN_FTS_TRIGGER_SQL) {
+                db.execSQL(sql);
+            }
+        }
+    };
+
+    // RecipeBlobCodec's format as of version 8: varint count, then per string a
+    // varint byte length and the UTF-8 bytes. Null and empty strings are dropped.
+    private static byte[] encodeBlob(List<String> values) {
+        List<byte[]> encoded = new ArrayList<>(values.size());
+        for (String v : values) {
+            if (v != null && !v.isEmpty()) encoded.add(v.getBytes(StandardCharsets.UTF_8));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeVarint(out, encoded.size());
+        for (byte[] bytes : encoded) {
+            writeVarint(out, bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7f) != 0) {
+            out.write((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    // Reads encodeBlob's format; an empty, truncated or malformed blob yields an
+    // empty list rather than failing the migration
+    private static List<String> decodeBlob(byte[] blob) {
+        if (blob == null || blob.length == 0) return Collections.emptyList();
+        int[] pos = {0};
+        long count = readVarint(blob, pos);
+        if (count < 0 || count > blob.length - pos[0]) return Collections.emptyList();
+        List<String> values = new ArrayList<>((int) count);
+        for (int i = 0; i < count; i++) {
+            long length = readVarint(blob, pos);
+            if (length < 0 || length > blob.length - pos[0]) return Collections.emptyList();
+            values.add(new String(blob, pos[0], (int) length, StandardCharsets.UTF_8));
+            pos[0] += (int) length;
+        }
+        return values;
+    }
+
+    // pos[0] is advanced past the varint; -1 if it is truncated or too long
+    private static long readVarint(byte[] blob, int[] pos) {
+        long value = 0;
+        for (int shift = 0; shift <= 28; shift += 7) {
+            if (pos[0] >= blob.length) return -1;
+            byte b = blob[pos[0]++];
+            value |= (long) (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        return -1;
+    }
+
+    // Distinct non-empty names, in first-seen order
+    private static List<String> distinct(List<String> names) {
+        Set<String> set = new LinkedHashSet<>();
+        for (String name : names) {
+            if (!name.isEmpty()) set.add(name);
+        }
+        return new ArrayList<>(set);
+    }
+
+    private static void dropTriggers(SupportSQLiteDatabase db, String[] names) {
+        for (String trigger : names) {
+            db.execSQL("DROP TRIGGER IF EXISTS " + trigger);
+        }
+    }
+
+    // RecipeJsonlParser#recipeKey as of version 7: 64-bit FNV-1a over the lowercased
+    // name, "\n" and the ingredients as Gson's JsonWriter wrote them
+    static String recipeKeyV7(String name, List<String> ingredients) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < ingredients.size(); i++) {
+            if (i > 0) json.append(',');
+            appendJsonString(json, ingredients.get(i));
+        }
+        json.append(']');
+        long hash = 0xcbf29ce484222325L;
+        hash = fnv1a(hash, name.toLowerCase());
+        hash = fnv1a(hash, "\n");
+        hash = fnv1a(hash, json.toString());
+        return Long.toHexString(hash);
+    }
+
+    private static long fnv1a(long hash, String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            hash = (hash ^ (c & 0xff)) * 0x100000001b3L;
+            hash = (hash ^ (c >>> 8)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // JsonWriter's escaping without HTML safety
+    private static void appendJsonString(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\t': out.append("\\t"); break;
+                case '\b': out.append("\\b"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\f': out.append("\\f"); break;
+                case '\u2028': out.append("\\u2028"); break;
+                case '\u2029': out.append("\\u2029"); break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+
+    // Same lenient reading as the JSON columns had: bad JSON yields an empty list
+    private static List<String> jsonToList(String json) {
+        List<String> list = new ArrayList<>();
+        if (json == null) return list;
+        try {
+            JSONArray arr = new JSONArray(json);
+            for (int i = 0; i < arr.length(); i++) {
+                list.add(arr.optString(i, ""));
+            }
+        } catch (Exception ignored) {}
+        return list;
+    }
+
+    /**
+     * RecipeMetadata#generate as of version 6, kept here so MIGRATION_5_6 does
+     * not change when the import heuristics do
+     */
+    static final class MetadataV6 {
+        static final int FLAG_VEGETARIAN = 1;
+        static final int FLAG_VEGAN = 1 << 1;
+        static final int FLAG_GLUTEN_FREE = 1 << 2;
+        static final int FLAG_DAIRY_FREE = 1 << 3;
+        static final int FLAG_LOW_CARB = 1 << 4;
+        static final int FLAG_KETO = 1 << 5;
+        static final int FLAG_PALEO = 1 << 6;
+        static final int FLAG_HEALTHY = 1 << 7;
+
+        final String cuisine;
+        final int dietaryFlags;
+        final int cookingTimeMinutes;
+        final String difficulty;
+        final float rating;
+        final int reviewCount;
+        final String nutritionInfo;
+        final boolean isTrending;
+        final boolean isPopular;
+        final boolean isQuick;
+        final boolean isHealthy;
+
+        MetadataV6(String name, List<String> ingredients, List<String> steps) {
+            String recipeName = name.toLowerCase();
+            String text = String.join(" ", ingredients).toLowerCase();
+            cuisine = cuisine(recipeName, text);
+            dietaryFlags = dietaryFlags(text);
+            cookingTimeMinutes = Math.max(15, steps.size() * 5 + new Random(name.hashCode()).nextInt(20));
+            int complexity = steps.size() + ingredients.size() / 2;
+            difficulty = complexity <= 6 ? "Easy" : complexity <= 10 ? "Medium" : "Hard";
+            Random random = new Random(name.hashCode());
+            rating = 3.5f + random.nextFloat() * 1.5f;
+            reviewCount = random.nextInt(500) + 10;
+            isQuick = cookingTimeMinutes <= 30;
+            isHealthy = (dietaryFlags & FLAG_HEALTHY) != 0;
+            isPopular = rating >= 4.3f && reviewCount >= 100;
+            isTrending = random.nextFloat() < 0.15f;
+            nutritionInfo = (200 + ingredients.size() * 50 + random.nextInt(200)) + " cal";
+        }
+
+        private static String cuisine(String name, String text) {
+            if (name.contains("pasta") || name.contains("pizza") || text.contains("parmesan")
+                    || text.contains("basil")) return "Italian";
+            if (name.contains("stir") || name.contains("asian") || text.contains("soy sauce")
+                    || text.contains("ginger")) return "Asian";
+            if (name.contains("taco") || name.contains("burrito") || text.contains("cumin")
+                    || text.contains("cilantro")) return "Mexican";
+            if (name.contains("curry") || text.contains("turmeric")) return "Indian";
+            if (text.contains("olive oil") || text.contains("feta")) return "Mediterranean";
+            return "American";
+        }
+
+        private static int dietaryFlags(String text) {
+            int flags = 0;
+            if (!containsAny(text, "meat", "chicken", "beef", "pork")) {
+                flags |= FLAG_VEGETARIAN;
+                if (!containsAny(text, "dairy", "cheese", "milk", "egg")) flags |= FLAG_VEGAN;
+            }
+            if (!containsAny(text, "wheat", "flour", "bread")) flags |= FLAG_GLUTEN_FREE;
+            if (!containsAny(text, "milk", "cheese", "butter", "cream")) flags |= FLAG_DAIRY_FREE;
+            if (!containsAny(text, "pasta", "rice", "bread", "potato")) flags |= FLAG_LOW_CARB;
+            if (!containsAny(text, "sugar", "pasta", "rice", "bread")) flags |= FLAG_KETO;
+            if (!containsAny(text, "grain", "dairy", "legume")) flags |= FLAG_PALEO;
+            if (containsAny(text, "vegetable", "fruit", "spinach", "broccoli", "carrot", "lean", "quinoa",
+                    "salmon")) flags |= FLAG_HEALTHY;
+            return flags;
+        }
+
+        private static boolean containsAny(String text, String... words) {
+            for (String word : words) {
+                if (text.contains(word)) return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * RecipeMetadata's cuisine keywords as of version 12: one bit per cuisine
+     * whose keywords appear in the name or ingredients
+     */
+    static final class CuisineV12 {
+        static final int ITALIAN = 1;
+        static final int ASIAN = 1 << 1;
+        static final int MEXICAN = 1 << 2;
+        static final int AMERICAN = 1 << 3;
+        static final int MEDITERRANEAN = 1 << 4;
+        static final int INDIAN = 1 << 5;
+        static final int FRENCH = 1 << 6;
+        static final int THAI = 1 << 7;
+        static final int CHINESE = 1 << 8;
+        static final int JAPANESE = 1 << 9;
+
+        static int flags(String name, List<String> ingredients) {
+            String n = name.toLowerCase();
+            String text = String.join(" ", ingredients).toLowerCase();
+            int flags = 0;
+            if (containsAny(n, "pasta", "pizza") || containsAny(text, "parmesan", "basil")) flags |= ITALIAN;
+            if (containsAny(n, "stir", "asian") || containsAny(text, "soy sauce", "ginger")) flags |= ASIAN;
+            if (containsAny(n, "taco", "burrito") || containsAny(text, "cumin", "cilantro")) flags |= MEXICAN;
+            if (containsAny(n, "burger", "bbq", "american")) flags |= AMERICAN;
+            if (containsAny(text, "olive oil", "feta", "olives")) flags |= MEDITERRANEAN;
+            if (containsAny(n, "curry") || containsAny(text, "turmeric", "garam masala")) flags |= INDIAN;
+            if (containsAny(n, "french", "croissant") || containsAny(text, "butter")) flags |= FRENCH;
+            if (containsAny(n, "thai") || containsAny(text, "coconut milk", "lemongrass")) flags |= THAI;
+            if (containsAny(n, "chinese", "fried rice") || containsAny(text, "sesame oil")) flags |= CHINESE;
+            if (containsAny(n, "sushi", "teriyaki") || containsAny(text, "miso")) flags |= JAPANESE;
+            return flags;
+        }
+
+        private static boolean containsAny(String text, String... words) {
+            for (String word : words) {
+                if (text.contains(word)) return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Fills recipe_ingredient, interning names into ingredients_dict. The version 9 IngredientLinker, kept here so the
+     * migrations do not follow changes to the import path.
+     */
+    private static final class Linker implements Closeable {
+        private final SupportSQLiteStatement insertName;
+        private final SupportSQLiteStatement selectId;
+        private final SupportSQLiteStatement insertLink;
+        private final Map<String, Long> ids = new HashMap<>();
+
+        Linker(SupportSQLiteDatabase db) {
+            insertName = db.compileStatement("INSERT OR IGNORE INTO ingredients_dict (name) VALUES (?)");
+            selectId = db.compileStatement("SELECT id FROM ingredients_dict WHERE name = ?");
+            insertLink = db.compileStatement(
+                    "INSERT OR IGNORE INTO recipe_ingredient (recipe_id, ingredient_id) VALUES (?, ?)");
+        }
+
+        long intern(String name) {
+            Long id = ids.get(name);
+            if (id != null) return id;
+            insertName.bindString(1, name);
+            long inserted = insertName.executeInsert();
+            if (inserted == -1) {
+                selectId.bindString(1, name);
+                inserted = selectId.simpleQueryForLong();
+            }
+            ids.put(name, inserted);
+            return inserted;
+        }
+
+        /**
+         * @param canonicalNames Canonical name of each ingredient; duplicates and "" are skipped
+         */
+        void link(long recipeId, List<String> canonicalNames) {
+            for (String name : distinct(canonicalNames)) {
+                insertLink.bindLong(1, recipeId);
+                insertLink.bindLong(2, intern(name));
+                insertLink.executeInsert();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            insertName.close();
+            selectId.close();
+            insertLink.close();
+        }
+    }
+
+    /**
+     * IngredientNormalizer#canonical as of version 9: lowercase and drop a few
+     * descriptor words
+     */
+    static final class CanonicalV9 {
+        private static final Set<String> DESCRIPTOR_WORDS = new HashSet<>(Arrays.asList(
+                "fresh", "dried", "ground", "whole", "chopped", "sliced", "diced", "minced"));
+
+        static String canonical(String raw) {
+            if (raw == null) return "";
+            String lower = raw.toLowerCase().trim();
+            if (lower.isEmpty()) return "";
+            StringBuilder out = new StringBuilder(lower.length());
+            int i = 0;
+            while (i < lower.length()) {
+                char c = lower.charAt(i);
+                if (!isWordChar(c)) {
+                    if (Character.isWhitespace(c)) {
+                        if (out.length() > 0 && out.charAt(out.length() - 1) != ' ') out.append(' ');
+                    } else {
+                        out.append(c);
+                    }
+                    i++;
+                    continue;
+                }
+                int end = i;
+                while (end < lower.length() && isWordChar(lower.charAt(end))) end++;
+                String word = lower.substring(i, end);
+                if (!DESCRIPTOR_WORDS.contains(word)) out.append(word);
+                i = end;
+            }
+            String stripped = out.toString().trim();
+            return stripped.isEmpty() ? lower : stripped;
+        }
+
+        private static boolean isWordChar(char c) {
+            return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+        }
+    }
+
+    /**
+     * IngredientNormalizer#canonical as of version 10: notes, quantity and unit,
+     * descriptors, plurals and synonyms
+     */
+    static final class CanonicalV10 {
+        private static final Set<String> DESCRIPTOR_WORDS = new HashSet<>(Arrays.asList(
+                "fresh", "dried", "ground", "whole", "chopped", "sliced", "diced", "minced",
+                "finely", "thinly", "roughly", "coarsely", "freshly", "grated", "shredded", "peeled",
+                "crushed", "softened", "melted", "large", "medium", "small", "boneless", "skinless"));
+
+        private static final Set<String> UNIT_WORDS = new HashSet<>(Arrays.asList(
+                "cup", "cups", "c", "tablespoon", "tablespoons", "tbsp", "tbs", "tbsps", "teaspoon", "teaspoons",
+                "tsp", "tsps", "g", "gram", "grams", "kg", "kilogram", "kilograms", "mg", "ml", "milliliter",
+                "milliliters", "millilitre", "millilitres", "l", "liter", "liters", "litre", "litres", "oz", "ounce",
+                "ounces", "lb", "lbs", "pound", "pounds", "pinch", "pinches", "dash", "dashes", "clove", "cloves",
+                "can", "cans", "package", "packages", "pkg", "slice", "slices", "piece", "pieces", "stick", "sticks",
+                "bunch", "bunches", "handful", "handfuls", "sprig", "sprigs", "head", "heads", "quart", "quarts",
+                "qt", "pint", "pints", "pt", "gallon", "gallons", "inch", "inches", "jar", "jars", "bottle", "bottles"));
+
+        private static final Set<String> NOT_PLURAL = new HashSet<>(Arrays.asList(
+                "molasses", "hummus", "couscous", "asparagus", "citrus", "swiss", "grits", "harissa", "bitters",
+                "schnapps"));
+
+        private static final List<List<String>> TRAILING_NOTES = Arrays.asList(
+                Arrays.asList("to", "taste"), Arrays.asList("for", "garnish"), Arrays.asList("for", "serving"),
+                Collections.singletonList("optional"));
+
+        private static final Map<String, String> IRREGULAR_PLURALS = new HashMap<>();
+        private static final Map<String, String> SYNONYMS = new HashMap<>();
+
+        static {
+            IRREGULAR_PLURALS.put("leaves", "leaf");
+            IRREGULAR_PLURALS.put("loaves", "loaf");
+            IRREGULAR_PLURALS.put("halves", "half");
+            IRREGULAR_PLURALS.put("cookies", "cookie");
+            IRREGULAR_PLURALS.put("brownies", "brownie");
+
+            SYNONYMS.put("scallion", "green onion");
+            SYNONYMS.put("spring onion", "green onion");
+            SYNONYMS.put("garbanzo bean", "chickpea");
+            SYNONYMS.put("courgette", "zucchini");
+            SYNONYMS.put("aubergine", "eggplant");
+            SYNONYMS.put("capsicum", "bell pepper");
+            SYNONYMS.put("icing sugar", "powdered sugar");
+            SYNONYMS.put("confectioner sugar", "powdered sugar");
+            SYNONYMS.put("bicarbonate of soda", "baking soda");
+            SYNONYMS.put("coriander leaf", "cilantro");
+            SYNONYMS.put("prawn", "shrimp");
+            SYNONYMS.put("plain flour", "all-purpose flour");
+            SYNONYMS.put("all purpose flour", "all-purpose flour");
+            SYNONYMS.put("cornflour", "cornstarch");
+            SYNONYMS.put("corn starch", "cornstarch");
+            SYNONYMS.put("rocket", "arugula");
+            SYNONYMS.put("beetroot", "beet");
+        }
+
+        static String canonical(String raw) {
+            if (raw == null) return "";
+            String lower = raw.toLowerCase().trim();
+            if (lower.isEmpty()) return "";
+
+            List<String> words = words(cutNotes(lower));
+            int start = skipQuantity(words);
+            int end = words.size();
+            for (List<String> note : TRAILING_NOTES) {
+                if (end - note.size() > start && words.subList(end - note.size(), end).equals(note)) {
+                    end -= note.size();
+                    break;
+                }
+            }
+            StringBuilder out = new StringBuilder(lower.length());
+            for (int i = start; i < end; i++) {
+                String word = words.get(i);
+                if (DESCRIPTOR_WORDS.contains(word)) continue;
+                if (out.length() > 0) out.append(' ');
+                out.append(singular(word));
+            }
+            if (out.length() == 0) {
+                for (String word : words) {
+                    if (out.length() > 0) out.append(' ');
+                    out.append(singular(word));
+                }
+                if (out.length() == 0) return lower;
+            }
+            String name = out.toString();
+            String synonym = SYNONYMS.get(name);
+            return synonym != null ? synonym : name;
+        }
+
+        private static String cutNotes(String s) {
+            StringBuilder out = new StringBuilder(s.length());
+            int depth = 0;
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c == '(') {
+                    depth++;
+                } else if (c == ')') {
+                    if (depth > 0) depth--;
+                } else if (depth == 0) {
+                    if (c == ',' || c == ';') break;
+                    out.append(c);
+                }
+            }
+            return out.toString();
+        }
+
+        private static List<String> words(String s) {
+            List<String> words = new ArrayList<>();
+            int i = 0;
+            while (i < s.length()) {
+                while (i < s.length() && !isTokenChar(s.charAt(i))) i++;
+                int end = i;
+                while (end < s.length() && isTokenChar(s.charAt(end))) end++;
+                if (end > i) {
+                    int stop = end;
+                    while (stop > i && (s.charAt(stop - 1) == '.' || s.charAt(stop - 1) == '-')) stop--;
+                    if (stop > i) words.add(s.substring(i, stop));
+                }
+                i = end;
+            }
+            return words;
+        }
+
+        private static boolean isTokenChar(char c) {
+            return Character.isLetterOrDigit(c) || c == '-' || c == '/' || c == '.' || isVulgarFraction(c);
+        }
+
+        private static int skipQuantity(List<String> words) {
+            int i = 0;
+            boolean quantity = false;
+            while (i < words.size()) {
+                String word = words.get(i);
+                if (isNumber(word) || (i == 0 && (word.equals("a") || word.equals("an")))) {
+                    quantity = true;
+                    i++;
+                } else if (quantity && (word.equals("to") || word.equals("x")) && i + 1 < words.size()
+                        && isNumber(words.get(i + 1))) {
+                    i++;
+                } else {
+                    break;
+                }
+            }
+            if (!quantity) return 0;
+            if (i < words.size() && UNIT_WORDS.contains(words.get(i))) {
+                i++;
+                if (i < words.size() && words.get(i).equals("of")) i++;
+            }
+            return i;
+        }
+
+        private static boolean isNumber(String word) {
+            boolean digit = false;
+            for (int i = 0; i < word.length(); i++) {
+                char c = word.charAt(i);
+                if ((c >= '0' && c <= '9') || isVulgarFraction(c)) {
+                    digit = true;
+                } else if (c != '.' && c != '/' && c != '-') {
+                    return false;
+                }
+            }
+            return digit;
+        }
+
+        private static boolean isVulgarFraction(char c) {
+            return (c >= '\u00bc' && c <= '\u00be') || (c >= '\u2150' && c <= '\u215e');
+        }
+
+        private static String singular(String word) {
+            String irregular = IRREGULAR_PLURALS.get(word);
+            if (irregular != null) return irregular;
+            int n = word.length();
+            if (n <= 3 || word.charAt(n - 1) != 's' || NOT_PLURAL.contains(word)) return word;
+            if (word.endsWith("ss") || word.endsWith("us") || word.endsWith("is")) return word;
+            if (word.endsWith("ies") && n > 4) return word.substring(0, n - 3) + "y";
+            if (word.endsWith("oes") || word.endsWith("ches") || word.endsWith("shes") || word.endsWith("xes")
+                    || word.endsWith("sses")) {
+                return word.substring(0, n - 2);
+            }
+            return word.substring(0, n - 1);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.receipematcher.data.db;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import com.example.receipematcher.utils.RecipeBlobCodec;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Copies the recipes of the prebuilt database (AppDatabase#PREBUILT_ASSET)
+ * into an existing database. createFromAsset only applies to a new database,
+ * so an install upgraded from a build that imported the dataset on device, and
+ * stopped before finishing, completes its recipes from here: builds with the
+ * prebuilt database do not package the dataset.
+ *
+ * Rows are matched by recipeKey and inserted with OR IGNORE, like a resumed
+ * import, so rows already present are kept. The recipes_fts sync triggers
+ * index each new row; this path runs at most once per install.
+ */
+public class PrebuiltRecipeCopier {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private PrebuiltRecipeCopier() { }
+
+    /**
+     * @param db App database; each batch is committed in its own transaction
+     * @param prebuilt The prebuilt database, extracted from the assets
+     * @return Number of recipes added
+     */
+    public static int copy(AppDatabase db, File prebuilt) {
+        SupportSQLiteDatabase target = db.getOpenHelper().getWritableDatabase();
+        List<String> columns = recipeColumns(target);
+        int canonicalColumn = columns.indexOf("canonicalBlob");
+        StringBuilder placeholders = new StringBuilder();
+        for (int i = 0; i < columns.size(); i++) placeholders.append(i == 0 ? "?" : ",?");
+        String names = String.join(", ", columns);
+        String insertSql = "INSERT OR IGNORE INTO ai_recipes (" + names + ") VALUES (" + placeholders + ")";
+
+        int[] added = {0};
+        try (SQLiteDatabase source = SQLiteDatabase.openDatabase(prebuilt.getPath(), null,
+                SQLiteDatabase.OPEN_READONLY);
+             Cursor c = source.rawQuery("SELECT " + names + " FROM ai_recipes ORDER BY id", null)) {
+            boolean more = c.moveToFirst();
+            while (more) {
+                more = db.runInTransaction(() -> {
+                    SupportSQLiteStatement insert = target.compileStatement(insertSql);
+                    IngredientLinker linker = new IngredientLinker(target);
+                    boolean next = true;
+                    for (int n = 0; next && n < BATCH_SIZE; n++, next = c.moveToNext()) {
+                        insert.clearBindings();
+                        for (int i = 0; i < columns.size(); i++) bind(insert, i + 1, c, i);
+                        long id = insert.executeInsert();
+                        if (id == -1) continue; // already imported
+                        linker.link(id, distinct(RecipeBlobCodec.decode(c.getBlob(canonicalColumn))));
+                        added[0]++;
+                    }
+                    insert.close();
+                    linker.close();
+                    return next;
+                });
+            }
+        }
+        return added[0];
+    }
+
+    // Columns of the app's ai_recipes except the row id; the prebuilt file has the same schema
+    private static List<String> recipeColumns(SupportSQLiteDatabase db) {
+        List<String> columns = new ArrayList<>();
+        try (Cursor c = db.query("PRAGMA table_info(ai_recipes)")) {
+            while (c.moveToNext()) {
+                String name = c.getString(1);
+                if (!name.equals("id")) columns.add(name);
+            }
+        }
+        return columns;
+    }
+
+    private static void bind(SupportSQLiteStatement statement, int index, Cursor c, int column) {
+        switch (c.getType(column)) {
+            case Cursor.FIELD_TYPE_INTEGER:
+                statement.bindLong(index, c.getLong(column));
+                break;
+            case Cursor.FIELD_TYPE_FLOAT:
+                statement.bindDouble(index, c.getDouble(column));
+                break;
+            case Cursor.FIELD_TYPE_BLOB:
+                statement.bindBlob(index, c.getBlob(column));
+                break;
+            case Cursor.FIELD_TYPE_NULL:
+                statement.bindNull(index);
+                break;
+            default:
+                statement.bindString(index, c.getString(column));
+                break;
+        }
+    }
+
+    private static List<String> distinct(List<String> canonical) {
+        Set<String> names = new LinkedHashSet<>();
+        for (String name : canonical) {
+            if (!name.isEmpty()) names.add(name);
+        }
+        return new ArrayList<>(names);
+    }
+}
@@ -3,17 +3,21 @@ package com.example.receipematcher.data.db;
 import androidx.annotation.NonNull;
 import androidx.room.Entity;
 import androidx.room.Fts4;
+import androidx.room.FtsOptions;
 
-@Fts4(contentEntity = AiRecipeEntity.class)
+// Indexes canonical ingredient names rather than the JSON text. The porter
+// tokenizer stems both the index and MATCH terms, so recipe names ("Roasted
+// Tomatoes") meet canonical query terms ("tomato") too.
+@Fts4(contentEntity = AiRecipeEntity.class, tokenizer = FtsOptions.TOKENIZER_PORTER)
 @Entity(tableName = "recipes_fts")
 public class RecipeFtsEntity {
     @NonNull
     public String name;
     @NonNull
-    public String ingredientsJson;
+    public String ingredientTokens;
 
-    public RecipeFtsEntity(@NonNull String name, @NonNull String ingredientsJson) {
+    public RecipeFtsEntity(@NonNull String name, @NonNull String ingredientTokens) {
         this.name = name;
-        this.ingredientsJson = ingredientsJson;
+        this.ingredientTokens = ingredientTokens;
     }
 }
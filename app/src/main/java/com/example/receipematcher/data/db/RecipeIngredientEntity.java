@@ -0,0 +1,27 @@
+package com.example.receipematcher.data.db;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+
+/**
+ * Which dictionary ingredients a recipe uses. The (ingredient_id, recipe_id)
+ * index serves "recipes using X" lookups; the primary key serves the reverse.
+ * Rows go away with their recipe.
+ */
+@Entity(tableName = "recipe_ingredient",
+        primaryKeys = {"recipe_id", "ingredient_id"},
+        foreignKeys = {
+                @ForeignKey(entity = AiRecipeEntity.class, parentColumns = "id", childColumns = "recipe_id",
+                        onDelete = ForeignKey.CASCADE),
+                @ForeignKey(entity = IngredientDictEntity.class, parentColumns = "id", childColumns = "ingredient_id")
+        },
+        indices = {@Index(value = {"ingredient_id", "recipe_id"})})
+public class RecipeIngredientEntity {
+    @ColumnInfo(name = "recipe_id")
+    public long recipeId;
+
+    @ColumnInfo(name = "ingredient_id")
+    public long ingredientId;
+}
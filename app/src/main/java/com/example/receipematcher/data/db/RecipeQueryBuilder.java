@@ -0,0 +1,192 @@
+package com.example.receipematcher.data.db;
+
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteQuery;
+
+import com.example.receipematcher.utils.FilterManager;
+import com.example.receipematcher.utils.IngredientNormalizer;
+import com.example.receipematcher.utils.FilterManager.RecipeFilters;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns an FTS match expression plus {@link RecipeFilters} into a raw query on
+ * ai_recipes. Cuisine, diet, time, difficulty and avoided ingredients are
+ * evaluated by SQLite against the metadata columns, so LIMIT applies to the
+ * filtered rows. Pantry availability still depends on matching and is
+ * applied per item by {@link FilterManager#passesAvailability}.
+ *
+ * Only the {@link AiRecipeRow} columns are selected; steps are left on disk.
+ *
+ * Hits are ranked by pantry coverage: the number of canonical pantry terms
+ * equal to one of the recipe's canonical ingredient names, so the top-k rows
+ * are the most cookable ones rather than the alphabetically first.
+ *
+ * {@link #byIds} applies the same filters to recipes already ranked in memory
+ * (see com.example.receipematcher.utils.RecipeTopK).
+ */
+public class RecipeQueryBuilder {
+
+    // Keeps bound parameters well under SQLITE_MAX_VARIABLE_NUMBER (999 on older devices)
+    private static final int MAX_RANK_TERMS = 500;
+
+    private final StringBuilder where = new StringBuilder();
+    private final List<Object> args = new ArrayList<>();
+
+    private RecipeQueryBuilder() { }
+
+    /**
+     * Build the filtered, coverage-ranked FTS search query
+     * @param ftsMatch FTS MATCH expression over name and ingredients
+     * @param rankTerms Canonical pantry terms to rank by (may be null)
+     * @param filters Current recipe filters (may be null)
+     * @param searchText Free-text search over name and ingredients (may be empty)
+     * @param limit Maximum number of rows, or 0 for no limit (paged queries)
+     * @return Query for {@link com.example.receipematcher.data.db.dao.AiRecipeDao#searchPaged}
+     */
+    public static SupportSQLiteQuery search(String ftsMatch, List<String> rankTerms, RecipeFilters filters,
+                                            String searchText, int limit) {
+        RecipeQueryBuilder b = new RecipeQueryBuilder();
+        b.and("recipes_fts MATCH ?", ftsMatch);
+        b.text(searchText);
+        b.filters(filters);
+        String coverage = b.coverage(rankTerms);
+
+        String sql = "SELECT " + AiRecipeRow.COLUMNS + " FROM ai_recipes"
+                + " JOIN recipes_fts ON ai_recipes.rowid = recipes_fts.docid"
+                + " WHERE " + b.where
+                + " ORDER BY " + (coverage.isEmpty() ? "" : coverage + " DESC, ")
+                + "ai_recipes.name";
+        if (limit > 0) {
+            sql += " LIMIT ?";
+            b.args.add(limit);
+        }
+        return new SimpleSQLiteQuery(sql, b.args.toArray());
+    }
+
+    /**
+     * Load ranked recipes, dropping those the filters exclude
+     * @param ids Recipe ids (at most a few hundred); result order is unspecified
+     * @param filters Current recipe filters (may be null)
+     * @param searchText Free-text search over name and ingredients (may be empty)
+     * @return Query for {@link com.example.receipematcher.data.db.dao.AiRecipeDao#getRows}
+     */
+    public static SupportSQLiteQuery byIds(List<Long> ids, RecipeFilters filters, String searchText) {
+        RecipeQueryBuilder b = new RecipeQueryBuilder();
+        StringBuilder in = new StringBuilder("ai_recipes.id IN (");
+        for (int i = 0; i < ids.size(); i++) {
+            if (i > 0) in.append(',');
+            in.append('?');
+        }
+        b.and(in.append(')').toString(), ids.toArray());
+        b.text(searchText);
+        b.filters(filters);
+        String sql = "SELECT " + AiRecipeRow.COLUMNS + " FROM ai_recipes WHERE " + b.where;
+        return new SimpleSQLiteQuery(sql, b.args.toArray());
+    }
+
+    // Sum of 0/1 hits per canonical pantry term; evaluated only over the FTS candidates.
+    // ingredientTokens is the names joined by ", ", so wrapping both sides in the separator
+    // matches whole names only: "rice" does not hit "rice vinegar" or "licorice".
+    private String coverage(List<String> rankTerms) {
+        if (rankTerms == null || rankTerms.isEmpty()) return "";
+        StringBuilder sum = new StringBuilder("(");
+        int count = 0;
+        for (String term : rankTerms) {
+            if (term == null || term.isEmpty()) continue;
+            if (count == MAX_RANK_TERMS) break;
+            if (count++ > 0) sum.append(" + ");
+            sum.append("(instr(', ' || ai_recipes.ingredientTokens || ', ', ?) > 0)");
+            args.add(", " + term + ", ");
+        }
+        return count == 0 ? "" : sum.append(')').toString();
+    }
+
+    private void and(String clause, Object... clauseArgs) {
+        if (where.length() > 0) where.append(" AND ");
+        where.append(clause);
+        for (Object arg : clauseArgs) args.add(arg);
+    }
+
+    private void filters(RecipeFilters filters) {
+        if (filters == null) return;
+        cuisine(filters);
+        dietary(filters);
+        time(filters.timeFilter);
+        difficulty(filters.difficultyFilter);
+        avoid(filters);
+    }
+
+    private void text(String searchText) {
+        if (searchText == null || searchText.trim().isEmpty()) return;
+        String text = searchText.trim().toLowerCase();
+        and("(ai_recipes.name LIKE ? ESCAPE '\\' OR ai_recipes.ingredientTokens LIKE ? ESCAPE '\\')",
+                "%" + escapeLike(text) + "%", "%" + escapeLike(IngredientNormalizer.canonical(text)) + "%");
+    }
+
+    private void cuisine(RecipeFilters filters) {
+        if (filters.cuisineFilters.isEmpty()) return;
+        int mask = 0;
+        for (FilterManager.CuisineType cuisine : filters.cuisineFilters) {
+            mask |= cuisine.flag;
+        }
+        // Any of the selected cuisines
+        and("(ai_recipes.cuisineFlags & ?) != 0", mask);
+    }
+
+    private void dietary(RecipeFilters filters) {
+        if (filters.dietaryFilters.isEmpty()) return;
+        int mask = 0;
+        for (FilterManager.DietaryRestriction restriction : filters.dietaryFilters) {
+            mask |= restriction.flag;
+        }
+        and("(ai_recipes.dietaryFlags & ?) = ?", mask, mask);
+    }
+
+    private void time(FilterManager.TimeFilter timeFilter) {
+        switch (timeFilter) {
+            case QUICK:
+                and("ai_recipes.cookingTimeMinutes <= 30");
+                break;
+            case MEDIUM:
+                and("ai_recipes.cookingTimeMinutes > 30 AND ai_recipes.cookingTimeMinutes <= 60");
+                break;
+            case LONG:
+                and("ai_recipes.cookingTimeMinutes > 60");
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void difficulty(FilterManager.DifficultyFilter difficultyFilter) {
+        switch (difficultyFilter) {
+            case BEGINNER:
+                and("ai_recipes.difficulty = ?", "Easy");
+                break;
+            case INTERMEDIATE:
+                and("ai_recipes.difficulty = ?", "Medium");
+                break;
+            case ADVANCED:
+                and("ai_recipes.difficulty = ?", "Hard");
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void avoid(RecipeFilters filters) {
+        for (String avoidIngredient : filters.avoidIngredients) {
+            if (avoidIngredient == null || avoidIngredient.trim().isEmpty()) continue;
+            // Canonical names, as stored: avoiding "tomatoes" or "cheese" also avoids "cherry tomato"
+            // and "cream cheese"
+            and("ai_recipes.ingredientTokens NOT LIKE ? ESCAPE '\\'",
+                    "%" + escapeLike(IngredientNormalizer.canonical(avoidIngredient)) + "%");
+        }
+    }
+
+    private static String escapeLike(String s) {
+        return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -1,23 +1,38 @@
 package com.example.receipematcher.data.db.dao;
 
+import androidx.lifecycle.LiveData;
+import androidx.paging.PagingSource;
 import androidx.room.Dao;
-import androidx.room.Insert;
-import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.RawQuery;
+import androidx.sqlite.db.SupportSQLiteQuery;
 
 import com.example.receipematcher.data.db.AiRecipeEntity;
+import com.example.receipematcher.data.db.AiRecipeRow;
 
 import java.util.List;
 
 @Dao
 public interface AiRecipeDao {
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insertAll(List<AiRecipeEntity> items);
-
     @Query("SELECT COUNT(*) FROM ai_recipes")
     long count();
 
     // Full-text search across name and ingredients via FTS table
     @Query("SELECT ai_recipes.* FROM ai_recipes JOIN recipes_fts ON ai_recipes.rowid = recipes_fts.docid WHERE recipes_fts MATCH :match ORDER BY ai_recipes.name LIMIT :limit")
     List<AiRecipeEntity> searchByFts(String match, int limit);
+
+    // Paged FTS search with filters evaluated in SQL; built by RecipeQueryBuilder
+    @RawQuery(observedEntities = {AiRecipeEntity.class})
+    PagingSource<Integer, AiRecipeRow> searchPaged(SupportSQLiteQuery query);
+
+    // Rows for recipes ranked in memory; built by RecipeQueryBuilder#byIds
+    @RawQuery
+    List<AiRecipeRow> getRows(SupportSQLiteQuery query);
+
+    // Steps are not part of the list projection; read them for one recipe on demand (RecipeBlobCodec)
+    @Query("SELECT stepsBlob FROM ai_recipes WHERE id = :id")
+    LiveData<byte[]> observeStepsBlob(long id);
+
+    @Query("SELECT stepsBlob FROM ai_recipes WHERE id = :id")
+    byte[] getStepsBlob(long id);
 }
@@ -0,0 +1,18 @@
+package com.example.receipematcher.data.db.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import com.example.receipematcher.data.db.ImportStateEntity;
+
+@Dao
+public interface ImportStateDao {
+    // Null until the first import run (or on a database created before version 12)
+    @Query("SELECT * FROM import_state WHERE id = 1")
+    ImportStateEntity get();
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void save(ImportStateEntity state);
+}
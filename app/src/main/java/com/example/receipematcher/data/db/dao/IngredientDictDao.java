@@ -0,0 +1,16 @@
+package com.example.receipematcher.data.db.dao;
+
+import android.database.Cursor;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+
+@Dao
+public interface IngredientDictDao {
+    // Whole-table reads for building IngredientBitsetIndex; callers close the cursors
+    @Query("SELECT id, name FROM ingredients_dict")
+    Cursor getAllNames();
+
+    @Query("SELECT recipe_id, ingredient_id FROM recipe_ingredient ORDER BY recipe_id")
+    Cursor getAllLinks();
+}
@@ -5,8 +5,10 @@ import android.app.Application;
 import androidx.lifecycle.LiveData;
 
 import com.example.receipematcher.data.db.AppDatabase;
+import com.example.receipematcher.data.db.dao.AiRecipeDao;
 import com.example.receipematcher.data.db.dao.FavouriteDao;
 import com.example.receipematcher.data.entities.Favourite;
+import com.example.receipematcher.utils.RecipeBlobCodec;
 
 import java.util.List;
 import java.util.concurrent.ExecutorService;
@@ -14,10 +16,12 @@ import java.util.concurrent.Executors;
 
 public class FavouriteRepository {
     private final FavouriteDao dao;
+    private final AiRecipeDao aiRecipeDao;
     private final ExecutorService executor = Executors.newSingleThreadExecutor();
 
     public FavouriteRepository(Application app) {
         dao = AppDatabase.getDatabase(app).favouriteDao();
+        aiRecipeDao = AppDatabase.getDatabase(app).aiRecipeDao();
     }
 
     public LiveData<List<Favourite>> getAll() { return dao.getAll(); }
@@ -25,18 +29,37 @@ public class FavouriteRepository {
     public LiveData<Boolean> isFavourite(String recipeId) { return dao.isFavourite(recipeId); }
 
     public void add(String recipeId, java.util.List<String> ingredients, java.util.List<String> steps) {
+        Favourite f = build(recipeId, ingredients);
+        f.stepsJson = toJson(steps);
+        executor.execute(() -> dao.insert(f));
+    }
+
+    /**
+     * Favourite an imported recipe whose steps were not loaded with its list row
+     * @param recipeId Favourite key
+     * @param ingredients Recipe ingredients
+     * @param aiRecipeId ai_recipes row id to read the steps from
+     */
+    public void addAiRecipe(String recipeId, java.util.List<String> ingredients, long aiRecipeId) {
+        Favourite f = build(recipeId, ingredients);
+        executor.execute(() -> {
+            f.stepsJson = toJson(RecipeBlobCodec.decode(aiRecipeDao.getStepsBlob(aiRecipeId)));
+            dao.insert(f);
+        });
+    }
+
+    private Favourite build(String recipeId, java.util.List<String> ingredients) {
         Favourite f = new Favourite();
         f.recipeId = recipeId;
         f.addedAt = System.currentTimeMillis();
-        try {
-            org.json.JSONArray i = new org.json.JSONArray();
-            if (ingredients != null) for (String s : ingredients) i.put(s);
-            org.json.JSONArray st = new org.json.JSONArray();
-            if (steps != null) for (String s : steps) st.put(s);
-            f.ingredientsJson = i.toString();
-            f.stepsJson = st.toString();
-        } catch (Exception ignored) {}
-        executor.execute(() -> dao.insert(f));
+        f.ingredientsJson = toJson(ingredients);
+        return f;
+    }
+
+    private static String toJson(java.util.List<String> values) {
+        org.json.JSONArray arr = new org.json.JSONArray();
+        if (values != null) for (String s : values) arr.put(s);
+        return arr.toString();
     }
 
     public void remove(String recipeId) {
@@ -1,23 +1,69 @@
 package com.example.receipematcher.data.repository;
 
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingData;
+import androidx.paging.PagingDataTransforms;
+import androidx.paging.PagingLiveData;
+import androidx.room.InvalidationTracker;
+import androidx.sqlite.db.SupportSQLiteQuery;
 
 import com.example.receipematcher.App;
-import com.example.receipematcher.data.db.AiRecipeEntity;
+import com.example.receipematcher.data.db.AiRecipeRow;
 import com.example.receipematcher.data.db.AppDatabase;
+import com.example.receipematcher.data.db.RecipeQueryBuilder;
 import com.example.receipematcher.data.db.dao.AiRecipeDao;
+import com.example.receipematcher.data.db.dao.IngredientDictDao;
+import com.example.receipematcher.utils.AppExecutors;
+import com.example.receipematcher.utils.FilterManager;
+import com.example.receipematcher.utils.IngredientBitsetIndex;
+import com.example.receipematcher.utils.IngredientNormalizer;
+import com.example.receipematcher.utils.PantryScores;
+import com.example.receipematcher.utils.RecipeBlobCodec;
+import com.example.receipematcher.utils.RecipeMatchCache;
+import com.example.receipematcher.utils.RecipeMetadata;
+import com.example.receipematcher.utils.RecipeTopK;
 import com.example.receipematcher.workers.RecipeImportWorker;
 
-import org.json.JSONArray;
-
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class RecipeRepository {
 
     private static RecipeRepository instance;
 
+    // Rows are coverage-ranked in SQL and loaded a page at a time
+    private static final int PAGE_SIZE = 20;
+    // Whole-corpus ranking: recipes shown, and ranked ids loaded per query
+    private static final int TOP_K = 200;
+    private static final int TOP_K_CHUNK = 50;
+
+    // Parses and filters loaded pages on the shared query pool
+    private final Executor executor = AppExecutors.queryExecutor();
+
+    // The dataset check only needs to run once per process
+    private final AtomicBoolean importChecked = new AtomicBoolean();
+
+    // Ingredient sets of all recipes, reloaded when recipe_ingredient changes
+    // null until the first load finishes
+    private final MutableLiveData<IngredientBitsetIndex> bitsetIndex = new MutableLiveData<>(null);
+    private final AtomicBoolean bitsetIndexObserved = new AtomicBoolean();
+    private final AtomicBoolean bitsetReloadPending = new AtomicBoolean();
+    // Scores for the last searched pantry, against the current index
+    private PantryScores pantryScores;
+
     private RecipeRepository() { }
 
     public static synchronized RecipeRepository getInstance() {
@@ -28,9 +74,15 @@ public class RecipeRepository {
     }
 
     public static class AiRecipe {
+        public long id; // ai_recipes row id
         public String name;
         public List<String> ingredients;
+        // Not loaded for list rows; see getSteps(long)
         public List<String> steps;
+        // IngredientNormalizer#canonical of each ingredient, parallel to ingredients; stored at import
+        public List<String> canonicalIngredients;
+        // Pantry ingredients matched when the list was built; -1 if not computed
+        public int matchedCount = -1;
         
         // Enhanced metadata fields
         public String cuisine;
@@ -58,180 +110,279 @@ public class RecipeRepository {
         }
     }
 
-    public LiveData<List<AiRecipe>> getAiRecipes(List<String> pantry) {
-        MutableLiveData<List<AiRecipe>> live = new MutableLiveData<>();
+    /**
+     * Coverage-ranked recipes for the pantry. Once the ingredient index is loaded
+     * the whole corpus is ranked in memory and the best TOP_K are returned;
+     * before that, FTS candidates are paged so only the shown pages are parsed.
+     * @param pantry Pantry ingredient names
+     * @param filters Filters; SQL-side filters are captured now, availability is applied per item
+     * @param searchText Free-text search typed by the user
+     * @param matchCache Pantry match cache used by the availability filter
+     */
+    public LiveData<PagingData<AiRecipe>> getAiRecipes(List<String> pantry, FilterManager.RecipeFilters filters,
+                                                       String searchText, RecipeMatchCache matchCache) {
+        AiRecipeDao dao = AppDatabase.getDatabase(App.get()).aiRecipeDao();
 
-        new Thread(() -> {
-            AppDatabase db = AppDatabase.getDatabase(App.get());
-            AiRecipeDao dao = db.aiRecipeDao();
-            long count = 0;
-            try { count = dao.count(); } catch (Exception ignored) {}
-            if (count == 0) {
-                // Kick off import once, return empty for now; UI can retry shortly
-                RecipeImportWorker.enqueueIfNeeded(App.get());
-                live.postValue(new ArrayList<>());
-                return;
+        if (importChecked.compareAndSet(false, true)) {
+            // Starts the first import, or applies newer dataset deltas; the paged
+            // query refreshes as rows land
+            executor.execute(() -> RecipeImportWorker.enqueueIfNeeded(App.get()));
+        }
+
+        // Build FTS match query: join tokens with OR to widen matches.
+        // Done on the caller's thread since the UI may keep mutating filters.
+        String match = buildFtsMatch(pantry);
+        if (match.isEmpty()) {
+            return new MutableLiveData<>(PagingData.<AiRecipe>empty());
+        }
+        List<String> terms = normalizeTerms(pantry);
+        SupportSQLiteQuery query = RecipeQueryBuilder.search(match, IngredientNormalizer.canonicalSet(terms),
+                filters, searchText, 0);
+        FilterManager.AvailabilityFilter availability = filters == null
+                ? FilterManager.AvailabilityFilter.ALL : filters.availabilityFilter;
+
+        // Rank the whole corpus once the ingredient index is loaded; until then
+        // (and while it is empty) fall back to the FTS candidates
+        return Transformations.switchMap(getBitsetIndex(), index -> {
+            if (index == null || index.size() == 0) {
+                Pager<Integer, AiRecipeRow> pager = new Pager<>(
+                        new PagingConfig(PAGE_SIZE, PAGE_SIZE, false),
+                        () -> dao.searchPaged(query));
+                return Transformations.map(PagingLiveData.getLiveData(pager), page -> {
+                    PagingData<AiRecipe> recipes = PagingDataTransforms.map(page, executor, RecipeRepository::map);
+                    recipes = PagingDataTransforms.filter(recipes, executor,
+                            r -> FilterManager.passesAvailability(availability, r, matchCache));
+                    return PagingDataTransforms.map(recipes, executor, r -> withMatch(r, matchCache));
+                });
             }
-            // Build FTS match query: join tokens with OR to widen matches
-            String match = buildFtsMatch(pantry);
-            if (match.isEmpty()) {
-                live.postValue(new ArrayList<>());
-                return;
+            return getTopRecipes(dao, index, terms, filters, searchText, availability, matchCache);
+        });
+    }
+
+    /**
+     * Best TOP_K recipes over the whole corpus by pantry coverage (see RecipeTopK).
+     * Ranked ids are loaded in chunks with the SQL filters applied, until TOP_K rows pass.
+     * The ranking runs while the result is observed: a newer search detaches it
+     * (switchMap), which stops it at the next chunk.
+     */
+    private LiveData<PagingData<AiRecipe>> getTopRecipes(AiRecipeDao dao, IngredientBitsetIndex index,
+                                                         List<String> terms, FilterManager.RecipeFilters filters,
+                                                         String searchText,
+                                                         FilterManager.AvailabilityFilter availability,
+                                                         RecipeMatchCache matchCache) {
+        return new LiveData<PagingData<AiRecipe>>() {
+            // Set when the run in progress is no longer wanted
+            private AtomicBoolean cancelled;
+
+            @Override
+            protected void onActive() {
+                if (getValue() != null || cancelled != null) return;
+                AtomicBoolean run = new AtomicBoolean();
+                cancelled = run;
+                executor.execute(() -> {
+                    List<AiRecipe> recipes = rankTop(dao, index, terms, filters, searchText, availability,
+                            matchCache, run);
+                    if (recipes != null) postValue(PagingData.from(recipes));
+                });
             }
-            List<AiRecipeEntity> entities = dao.searchByFts(match, 200);
-            List<AiRecipe> out = new ArrayList<>();
-            for (AiRecipeEntity e : entities) out.add(map(e));
-            live.postValue(out);
-        }).start();
 
-        return live;
+            @Override
+            protected void onInactive() {
+                // Superseded or no longer observed; onActive ranks again if observed later
+                if (cancelled != null) cancelled.set(true);
+                cancelled = null;
+            }
+        };
     }
 
-    private static String buildFtsMatch(List<String> pantry) {
-        if (pantry == null || pantry.isEmpty()) return "";
-        List<String> terms = new ArrayList<>();
-        for (String p : pantry) {
-            if (p == null) continue;
-            String t = p.trim().toLowerCase();
-            if (t.isEmpty()) continue;
-            // Quote term for FTS MATCH; use prefix search
-            terms.add('"' + t + '"' + "*");
+    // @return Ranked recipes, or null if cancelled first
+    private List<AiRecipe> rankTop(AiRecipeDao dao, IngredientBitsetIndex index, List<String> terms,
+                                   FilterManager.RecipeFilters filters, String searchText,
+                                   FilterManager.AvailabilityFilter availability, RecipeMatchCache matchCache,
+                                   AtomicBoolean cancelled) {
+        if (cancelled.get()) return null;
+        // Only the pantry items added or removed since the last search are rescored
+        RecipeTopK.Ranking ranking = pantryScores(index).rank(terms, RecipeTopK.Order.COVERAGE,
+                FilterManager.minMatchFraction(availability));
+        List<AiRecipe> recipes = new ArrayList<>(TOP_K);
+        long[] chunk = new long[TOP_K_CHUNK];
+        int n;
+        while (recipes.size() < TOP_K && (n = ranking.next(chunk)) > 0) {
+            if (cancelled.get()) return null;
+            List<Long> ids = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) ids.add(chunk[i]);
+            Map<Long, AiRecipeRow> rows = new HashMap<>();
+            for (AiRecipeRow row : dao.getRows(RecipeQueryBuilder.byIds(ids, filters, searchText))) {
+                rows.put(row.id, row);
+            }
+            // Keep rank order; rows the SQL filters dropped are missing
+            for (Long id : ids) {
+                AiRecipeRow row = rows.get(id);
+                if (row == null) continue;
+                AiRecipe recipe = map(row);
+                if (!FilterManager.passesAvailability(availability, recipe, matchCache)) continue;
+                recipes.add(withMatch(recipe, matchCache));
+                if (recipes.size() == TOP_K) break;
+            }
         }
-        if (terms.isEmpty()) return "";
-        // name and ingredientsJson are both indexed in FTS content
-        return String.join(" OR ", terms);
+        return cancelled.get() ? null : recipes;
     }
 
-    private static RecipeRepository.AiRecipe map(AiRecipeEntity e) {
-        RecipeRepository.AiRecipe r = new RecipeRepository.AiRecipe();
-        r.name = e.name;
-        r.ingredients = jsonToList(e.ingredientsJson);
-        r.steps = jsonToList(e.stepsJson);
-        
-        // Generate metadata based on recipe content (mock implementation)
-        generateRecipeMetadata(r);
-        
-        return r;
+    private synchronized PantryScores pantryScores(IngredientBitsetIndex index) {
+        if (pantryScores == null || pantryScores.index() != index) {
+            // The pantry carries over unless the dictionary changed
+            pantryScores = new PantryScores(index, pantryScores);
+        }
+        return pantryScores;
     }
-    
-    private static void generateRecipeMetadata(RecipeRepository.AiRecipe recipe) {
-        if (recipe.name == null || recipe.ingredients == null) return;
-        
-        String recipeName = recipe.name.toLowerCase();
-        String ingredientsText = String.join(" ", recipe.ingredients).toLowerCase();
-        
-        // Determine cuisine based on ingredients and name
-        recipe.cuisine = determineCuisine(recipeName, ingredientsText);
-        
-        // Generate dietary tags
-        recipe.dietaryTags = generateDietaryTags(ingredientsText);
-        
-        // Estimate cooking time based on steps count
-        int stepCount = recipe.steps != null ? recipe.steps.size() : 5;
-        recipe.cookingTimeMinutes = Math.max(15, stepCount * 5 + new java.util.Random(recipe.name.hashCode()).nextInt(20));
-        
-        // Determine difficulty based on steps and ingredients
-        recipe.difficulty = determineDifficulty(stepCount, recipe.ingredients.size());
-        
-        // Generate rating (mock)
-        java.util.Random random = new java.util.Random(recipe.name.hashCode());
-        recipe.rating = 3.5f + random.nextFloat() * 1.5f; // 3.5 - 5.0
-        recipe.reviewCount = random.nextInt(500) + 10;
-        
-        // Set flags
-        recipe.isQuick = recipe.cookingTimeMinutes <= 30;
-        recipe.isHealthy = isHealthyRecipe(ingredientsText);
-        recipe.isPopular = recipe.rating >= 4.3f && recipe.reviewCount >= 100;
-        recipe.isTrending = random.nextFloat() < 0.15f; // 15% chance
-        
-        // Generate nutrition info (mock)
-        recipe.nutritionInfo = generateNutritionInfo(recipe.ingredients.size());
+
+    // Record the shown match so the list rebinds only rows whose match changed
+    private static AiRecipe withMatch(AiRecipe recipe, RecipeMatchCache matchCache) {
+        recipe.matchedCount = matchCache.get(recipe).matchedCount;
+        return recipe;
+    }
+
+    /**
+     * Load a recipe's steps, which the paged list rows leave out
+     * @param recipeId ai_recipes row id
+     * @return Steps in order, empty if the recipe has none
+     */
+    public LiveData<List<String>> getSteps(long recipeId) {
+        AiRecipeDao dao = AppDatabase.getDatabase(App.get()).aiRecipeDao();
+        return Transformations.map(dao.observeStepsBlob(recipeId), RecipeBlobCodec::decode);
     }
-    
-    private static String determineCuisine(String recipeName, String ingredientsText) {
-        if (recipeName.contains("pasta") || recipeName.contains("pizza") || 
-            ingredientsText.contains("parmesan") || ingredientsText.contains("basil")) {
-            return "Italian";
-        } else if (recipeName.contains("stir") || recipeName.contains("asian") ||
-                   ingredientsText.contains("soy sauce") || ingredientsText.contains("ginger")) {
-            return "Asian";
-        } else if (recipeName.contains("taco") || recipeName.contains("burrito") ||
-                   ingredientsText.contains("cumin") || ingredientsText.contains("cilantro")) {
-            return "Mexican";
-        } else if (recipeName.contains("curry") || ingredientsText.contains("turmeric")) {
-            return "Indian";
-        } else if (ingredientsText.contains("olive oil") || ingredientsText.contains("feta")) {
-            return "Mediterranean";
-        } else {
-            return "American";
+
+    /**
+     * In-memory ingredient sets of every recipe for bitset coverage scoring.
+     * Loaded on first call and reloaded whenever recipe_ingredient changes.
+     * @return Current index; null until the first load finishes
+     */
+    public LiveData<IngredientBitsetIndex> getBitsetIndex() {
+        if (bitsetIndexObserved.compareAndSet(false, true)) {
+            AppDatabase db = AppDatabase.getDatabase(App.get());
+            db.getInvalidationTracker().addObserver(new InvalidationTracker.Observer("recipe_ingredient") {
+                @Override
+                public void onInvalidated(@NonNull Set<String> tables) {
+                    reloadBitsetIndex();
+                }
+            });
+            reloadBitsetIndex();
         }
+        return bitsetIndex;
     }
-    
-    private static List<String> generateDietaryTags(String ingredientsText) {
-        List<String> tags = new ArrayList<>();
-        
-        if (!ingredientsText.contains("meat") && !ingredientsText.contains("chicken") &&
-            !ingredientsText.contains("beef") && !ingredientsText.contains("pork")) {
-            tags.add("Vegetarian");
-            
-            if (!ingredientsText.contains("dairy") && !ingredientsText.contains("cheese") &&
-                !ingredientsText.contains("milk") && !ingredientsText.contains("egg")) {
-                tags.add("Vegan");
+
+    private void reloadBitsetIndex() {
+        // Invalidations that arrive before the queued load runs (one per import batch) share it
+        if (!bitsetReloadPending.compareAndSet(false, true)) return;
+        executor.execute(() -> {
+            bitsetReloadPending.set(false);
+            IngredientDictDao dao = AppDatabase.getDatabase(App.get()).ingredientDictDao();
+            bitsetIndex.postValue(loadBitsetIndex(dao));
+        });
+    }
+
+    private static IngredientBitsetIndex loadBitsetIndex(IngredientDictDao dao) {
+        String[] names;
+        try (Cursor c = dao.getAllNames()) {
+            List<String> byId = new ArrayList<>();
+            while (c.moveToNext()) {
+                int id = c.getInt(0);
+                while (byId.size() <= id) byId.add(null);
+                byId.set(id, c.getString(1));
             }
+            names = byId.toArray(new String[0]);
         }
-        
-        if (!ingredientsText.contains("wheat") && !ingredientsText.contains("flour") &&
-            !ingredientsText.contains("bread")) {
-            tags.add("Gluten-Free");
-        }
-        
-        if (!ingredientsText.contains("milk") && !ingredientsText.contains("cheese") &&
-            !ingredientsText.contains("butter")) {
-            tags.add("Dairy-Free");
-        }
-        
-        if (!ingredientsText.contains("pasta") && !ingredientsText.contains("rice") &&
-            !ingredientsText.contains("bread") && !ingredientsText.contains("potato")) {
-            tags.add("Low-Carb");
+
+        // recipe_ingredient rows arrive grouped by recipe
+        long[] recipeIds = new long[1024];
+        int[] offsets = new int[1025];
+        int[] ingredientIds = new int[8192];
+        int recipes = 0;
+        int links = 0;
+        try (Cursor c = dao.getAllLinks()) {
+            long current = Long.MIN_VALUE;
+            while (c.moveToNext()) {
+                long recipeId = c.getLong(0);
+                int ingredientId = c.getInt(1);
+                if (ingredientId >= names.length) continue; // name added after the dictionary read
+                if (recipeId != current) {
+                    if (recipes == recipeIds.length) {
+                        recipeIds = Arrays.copyOf(recipeIds, recipes * 2);
+                        offsets = Arrays.copyOf(offsets, recipes * 2 + 1);
+                    }
+                    recipeIds[recipes] = recipeId;
+                    offsets[recipes] = links;
+                    recipes++;
+                    current = recipeId;
+                }
+                if (links == ingredientIds.length) {
+                    ingredientIds = Arrays.copyOf(ingredientIds, links * 2);
+                }
+                ingredientIds[links++] = ingredientId;
+            }
         }
-        
-        return tags;
+        offsets[recipes] = links;
+        return new IngredientBitsetIndex(names, Arrays.copyOf(recipeIds, recipes),
+                Arrays.copyOf(offsets, recipes + 1), Arrays.copyOf(ingredientIds, links));
     }
-    
-    private static String determineDifficulty(int stepCount, int ingredientCount) {
-        int complexity = stepCount + (ingredientCount / 2);
-        
-        if (complexity <= 6) {
-            return "Easy";
-        } else if (complexity <= 10) {
-            return "Medium";
-        } else {
-            return "Hard";
+
+    private static List<String> normalizeTerms(List<String> pantry) {
+        List<String> terms = new ArrayList<>();
+        if (pantry == null) return terms;
+        for (String p : pantry) {
+            if (p == null) continue;
+            String t = p.trim().toLowerCase();
+            if (!t.isEmpty() && !terms.contains(t)) terms.add(t);
         }
+        return terms;
     }
-    
-    private static boolean isHealthyRecipe(String ingredientsText) {
-        return ingredientsText.contains("vegetable") || ingredientsText.contains("fruit") ||
-               ingredientsText.contains("spinach") || ingredientsText.contains("broccoli") ||
-               ingredientsText.contains("carrot") || ingredientsText.contains("lean") ||
-               ingredientsText.contains("quinoa") || ingredientsText.contains("salmon");
-    }
-    
-    private static String generateNutritionInfo(int ingredientCount) {
-        // Mock nutrition info based on ingredient count
-        int calories = 200 + (ingredientCount * 50) + new java.util.Random().nextInt(200);
-        return calories + " cal";
+
+    /**
+     * @param pantry Pantry ingredient names
+     * @return recipes_fts MATCH expression for the pantry, or "" if it has no terms
+     */
+    public static String buildFtsMatch(List<String> pantry) {
+        if (pantry == null || pantry.isEmpty()) return "";
+        List<String> terms = new ArrayList<>();
+        for (String canonical : IngredientNormalizer.canonicalSet(pantry)) {
+            // recipes_fts indexes canonical names, so each term is matched as a
+            // whole-token phrase; no prefix, which let "egg" match "eggplant".
+            // A name with no words falls back to its raw text and can hold '"'.
+            // FTS4 phrases have no escape for it, but the tokenizer splits on it,
+            // so a space matches the same tokens
+            String phrase = canonical.replace('"', ' ').trim();
+            if (phrase.isEmpty()) continue;
+            terms.add('"' + phrase + '"');
+        }
+        if (terms.isEmpty()) return "";
+        // name and ingredientTokens are both indexed in FTS content
+        return String.join(" OR ", terms);
     }
 
-    private static List<String> jsonToList(String json) {
-        List<String> list = new ArrayList<>();
-        try {
-            JSONArray arr = new JSONArray(json);
-            for (int i = 0; i < arr.length(); i++) {
-                String s = arr.optString(i, "");
-                if (s != null && !s.isEmpty()) list.add(s);
-            }
-        } catch (Exception ignored) {}
-        return list;
+    private static RecipeRepository.AiRecipe map(AiRecipeRow e) {
+        RecipeRepository.AiRecipe r = new RecipeRepository.AiRecipe();
+        r.id = e.id;
+        r.name = e.name;
+        r.ingredients = RecipeBlobCodec.decode(e.ingredientsBlob);
+        r.canonicalIngredients = RecipeBlobCodec.decode(e.canonicalBlob);
+        if (r.canonicalIngredients.size() != r.ingredients.size()) {
+            // Row written before canonical names were stored
+            r.canonicalIngredients = IngredientNormalizer.canonicalList(r.ingredients);
+        }
+
+        // Metadata was generated once at import time
+        r.cuisine = e.cuisine;
+        r.dietaryTags = RecipeMetadata.dietaryTags(e.dietaryFlags);
+        r.cookingTimeMinutes = e.cookingTimeMinutes;
+        r.difficulty = e.difficulty;
+        r.rating = e.rating;
+        r.reviewCount = e.reviewCount;
+        r.nutritionInfo = e.nutritionInfo;
+        r.isTrending = e.isTrending;
+        r.isPopular = e.isPopular;
+        r.isQuick = e.isQuick;
+        r.isHealthy = e.isHealthy;
+        
+        return r;
     }
 }
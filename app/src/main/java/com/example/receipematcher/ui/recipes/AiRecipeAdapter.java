@@ -8,20 +8,22 @@ import android.widget.LinearLayout;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.paging.PagingDataAdapter;
 import androidx.recyclerview.widget.DiffUtil;
-import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.receipematcher.R;
 import com.example.receipematcher.data.repository.RecipeRepository.AiRecipe;
 import com.example.receipematcher.ui.components.CircularProgressIndicator;
-import com.example.receipematcher.utils.RecipeMatchCalculator;
+import com.example.receipematcher.utils.PantryMatcher;
+import com.example.receipematcher.utils.RecipeMatchCache;
 import com.google.android.material.button.MaterialButton;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Random;
 
-public class AiRecipeAdapter extends ListAdapter<AiRecipe, AiRecipeAdapter.AiVH> {
+public class AiRecipeAdapter extends PagingDataAdapter<AiRecipe, AiRecipeAdapter.AiVH> {
 
     public AiRecipeAdapter() {
         super(DIFF);
@@ -34,8 +36,17 @@ public class AiRecipeAdapter extends ListAdapter<AiRecipe, AiRecipeAdapter.AiVH>
     private OnItemClickListener listener;
     public void setOnItemClickListener(OnItemClickListener l) { this.listener = l; }
 
-    private List<String> pantryTerms;
-    public void setPantryTerms(List<String> terms) { this.pantryTerms = terms; }
+    private RecipeMatchCache matchCache = new RecipeMatchCache();
+    public void setMatchCache(RecipeMatchCache cache) { this.matchCache = cache; }
+
+    // Payload for rebinding only the match views of a row
+    private static final Object PAYLOAD_MATCH = new Object();
+
+    // Rebind the match views of visible rows after the cache switched matching method.
+    // Pantry edits need no call: rows whose match changed differ in the new list.
+    public void notifyPantryChanged() {
+        notifyItemRangeChanged(0, getItemCount(), PAYLOAD_MATCH);
+    }
 
     public interface OnFavoriteToggleListener {
         void onToggle(com.example.receipematcher.data.repository.RecipeRepository.AiRecipe recipe, boolean toFavorite);
@@ -52,19 +63,21 @@ public class AiRecipeAdapter extends ListAdapter<AiRecipe, AiRecipeAdapter.AiVH>
     private static final DiffUtil.ItemCallback<AiRecipe> DIFF = new DiffUtil.ItemCallback<AiRecipe>() {
         @Override
         public boolean areItemsTheSame(@NonNull AiRecipe oldItem, @NonNull AiRecipe newItem) {
-            // Use title as identity proxy (Gemini results don't have IDs)
-            return safe(oldItem.name).equalsIgnoreCase(safe(newItem.name));
+            return oldItem.id == newItem.id;
         }
 
         @Override
         public boolean areContentsTheSame(@NonNull AiRecipe oldItem, @NonNull AiRecipe newItem) {
+            // Steps are not shown in the list and are not loaded for rows
             return safe(oldItem.name).equals(newItem.name)
-                    && join(oldItem.ingredients).equals(join(newItem.ingredients))
-                    && join(oldItem.steps).equals(join(newItem.steps));
+                    && Objects.equals(oldItem.ingredients, newItem.ingredients)
+                    && oldItem.matchedCount == newItem.matchedCount;
         }
 
-        private String join(List<String> list) {
-            return list == null ? "" : TextUtils.join("|", list);
+        @Override
+        public Object getChangePayload(@NonNull AiRecipe oldItem, @NonNull AiRecipe newItem) {
+            // Same recipe, new pantry: only the match views change
+            return oldItem.matchedCount != newItem.matchedCount ? PAYLOAD_MATCH : null;
         }
 
         private String safe(String s) { return s == null ? "" : s; }
@@ -77,25 +90,23 @@ public class AiRecipeAdapter extends ListAdapter<AiRecipe, AiRecipeAdapter.AiVH>
         return new AiVH(v);
     }
 
+    @Override
+    public void onBindViewHolder(@NonNull AiVH holder, int position, @NonNull List<Object> payloads) {
+        AiRecipe r = getItem(position);
+        if (r != null && onlyMatchChanged(payloads)) {
+            bindMatch(holder, r);
+            return;
+        }
+        super.onBindViewHolder(holder, position, payloads);
+    }
+
     @Override
     public void onBindViewHolder(@NonNull AiVH holder, int position) {
         AiRecipe r = getItem(position);
+        if (r == null) return; // placeholders are disabled, but the API is nullable
         holder.title.setText(r.name == null ? "Recipe" : r.name);
 
-        // Calculate match score using RecipeMatchCalculator
-        float matchPercentage = RecipeMatchCalculator.calculateMatchPercentage(r, pantryTerms);
-        holder.matchScoreIndicator.setProgress(matchPercentage);
-
-        // Show missing ingredients count
-        List<String> missingIngredients = RecipeMatchCalculator.getMissingIngredients(r, pantryTerms);
-        if (missingIngredients.size() > 0) {
-            holder.missingIngredientsContainer.setVisibility(View.VISIBLE);
-            String missingText = "Need " + missingIngredients.size() + " ingredient" + 
-                (missingIngredients.size() == 1 ? "" : "s");
-            holder.textMissingIngredients.setText(missingText);
-        } else {
-            holder.missingIngredientsContainer.setVisibility(View.GONE);
-        }
+        bindMatch(holder, r);
 
         // Set recipe metadata from enhanced data model
         holder.textCookingTime.setText(r.cookingTimeMinutes + " min");
@@ -130,18 +141,33 @@ public class AiRecipeAdapter extends ListAdapter<AiRecipe, AiRecipeAdapter.AiVH>
         });
     }
 
-    private int matchCount(AiRecipe r) {
-        if (r == null || r.ingredients == null || pantryTerms == null) return 0;
-        int c = 0;
-        for (String ing : r.ingredients) {
-            String s = ing == null ? "" : ing.toLowerCase();
-            boolean found = false;
-            for (String p : pantryTerms) {
-                if (p != null && !p.isEmpty() && s.contains(p)) { found = true; break; }
-            }
-            if (found) c++;
+    private static boolean onlyMatchChanged(List<Object> payloads) {
+        if (payloads.isEmpty()) return false;
+        for (Object payload : payloads) {
+            if (payload != PAYLOAD_MATCH) return false;
         }
-        return c;
+        return true;
+    }
+
+    private void bindMatch(AiVH holder, AiRecipe r) {
+        // Match result is computed once per pantry version and reused across binds
+        PantryMatcher.MatchResult match = matchCache.get(r);
+        holder.matchScoreIndicator.setProgress(match.matchPercentage);
+
+        // Show missing ingredients count
+        List<String> missingIngredients = match.missingIngredients;
+        if (missingIngredients.size() > 0) {
+            holder.missingIngredientsContainer.setVisibility(View.VISIBLE);
+            String missingText = "Need " + missingIngredients.size() + " ingredient" + 
+                (missingIngredients.size() == 1 ? "" : "s");
+            holder.textMissingIngredients.setText(missingText);
+        } else {
+            holder.missingIngredientsContainer.setVisibility(View.GONE);
+        }
+    }
+
+    private int matchCount(AiRecipe r) {
+        return matchCache.get(r).matchedCount;
     }
 
     private void showCategoryBadges(AiVH holder, AiRecipe recipe) {
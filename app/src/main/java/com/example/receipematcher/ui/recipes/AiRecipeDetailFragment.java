@@ -12,12 +12,17 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.navigation.fragment.NavHostFragment;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.receipematcher.data.repository.RecipeRepository.AiRecipe;
 import com.example.receipematcher.ui.components.CircularProgressIndicator;
+import com.example.receipematcher.utils.PantryMatcher;
+import com.example.receipematcher.utils.RecipeMatchCache;
 import com.example.receipematcher.utils.RecipeMatchCalculator;
+import com.example.receipematcher.viewmodel.RecipeViewModel;
 
 import com.example.receipematcher.R;
 import com.google.android.material.appbar.CollapsingToolbarLayout;
@@ -31,7 +36,6 @@ import androidx.appcompat.app.AlertDialog;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 
 public class AiRecipeDetailFragment extends Fragment implements 
         IngredientMissingAdapter.OnSubstitutionListener,
@@ -65,11 +69,15 @@ public class AiRecipeDetailFragment extends Fragment implements
     
     // Data
     private String recipeTitle;
+    private long recipeId;
     private List<String> originalIngredients;
+    private List<String> canonicalIngredients;
     private List<String> originalSteps;
     private List<String> pantryIngredients;
     private List<String> presentIngredients;
     private List<String> missingIngredients;
+    // Matches the same way as the recipe list, by ingredient id once the index is loaded
+    private final RecipeMatchCache matchCache = new RecipeMatchCache();
 
     @Override
     public void onCreate(@Nullable Bundle savedInstanceState) {
@@ -93,6 +101,18 @@ public class AiRecipeDetailFragment extends Fragment implements
 
         return v;
     }
+
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+        RecipeViewModel recipeViewModel = new ViewModelProvider(this).get(RecipeViewModel.class);
+        recipeViewModel.getBitsetIndex().observe(getViewLifecycleOwner(), index -> {
+            if (matchCache.setIndex(index)) {
+                processIngredients();
+                updateMetadata();
+            }
+        });
+    }
     
     private void setupClickListeners() {
         // Start cooking mode button
@@ -178,9 +198,12 @@ public class AiRecipeDetailFragment extends Fragment implements
     private void loadRecipeData() {
         Bundle args = getArguments();
         recipeTitle = args != null ? args.getString("title") : "Recipe";
+        recipeId = args != null ? args.getLong("recipeId", -1) : -1;
         originalIngredients = args != null ? args.getStringArrayList("ingredients") : new ArrayList<>();
-        originalSteps = args != null ? args.getStringArrayList("steps") : new ArrayList<>();
+        canonicalIngredients = args != null ? args.getStringArrayList("canonical") : null;
+        originalSteps = args != null ? args.getStringArrayList("steps") : null;
         pantryIngredients = args != null ? args.getStringArrayList("pantry") : new ArrayList<>();
+        matchCache.updatePantry(pantryIngredients);
         
         // Set recipe title
         if (collapsingToolbar != null) {
@@ -193,8 +216,12 @@ public class AiRecipeDetailFragment extends Fragment implements
         // Process ingredients
         processIngredients();
         
-        // Setup steps
-        setupSteps();
+        // Setup steps; recipes opened from the list pass only their id
+        if (originalSteps == null && args != null && args.containsKey("recipeId")) {
+            loadSteps(args.getLong("recipeId"));
+        } else {
+            setupSteps();
+        }
         
         // Update UI
         updateMetadata();
@@ -205,22 +232,13 @@ public class AiRecipeDetailFragment extends Fragment implements
         missingIngredients = new ArrayList<>();
         
         List<String> currentIngredients = originalIngredients;
+        PantryMatcher.MatchResult match = matchCache.get(recipe());
         
-        for (String ingredient : currentIngredients) {
+        for (int i = 0; i < currentIngredients.size(); i++) {
+            String ingredient = currentIngredients.get(i);
             if (ingredient == null || ingredient.trim().isEmpty()) continue;
             
-            String ingredientLower = ingredient.toLowerCase(Locale.ROOT);
-            boolean matched = false;
-            
-            for (String pantryItem : pantryIngredients) {
-                if (pantryItem != null && !pantryItem.isEmpty() && 
-                    ingredientLower.contains(pantryItem.toLowerCase(Locale.ROOT))) {
-                    matched = true;
-                    break;
-                }
-            }
-            
-            if (matched) {
+            if (match.matchedMask.get(i)) {
                 presentIngredients.add(ingredient);
             } else {
                 missingIngredients.add(ingredient);
@@ -236,6 +254,24 @@ public class AiRecipeDetailFragment extends Fragment implements
         ingredientsMissingCount.setText(String.valueOf(missingIngredients.size()));
     }
     
+    // The recipe as far as matching needs it
+    private AiRecipe recipe() {
+        AiRecipe recipe = new AiRecipe();
+        recipe.id = recipeId;
+        recipe.ingredients = originalIngredients;
+        recipe.canonicalIngredients = canonicalIngredients;
+        return recipe;
+    }
+    
+    private void loadSteps(long recipeId) {
+        stepsText.setText("Loading instructions...");
+        RecipeViewModel recipeViewModel = new ViewModelProvider(this).get(RecipeViewModel.class);
+        recipeViewModel.getSteps(recipeId).observe(getViewLifecycleOwner(), steps -> {
+            originalSteps = steps;
+            setupSteps();
+        });
+    }
+
     private void setupSteps() {
         if (originalSteps != null && !originalSteps.isEmpty()) {
             StringBuilder sb = new StringBuilder();
@@ -250,9 +286,9 @@ public class AiRecipeDetailFragment extends Fragment implements
     
     private void updateMetadata() {
         // Update match score
-        double matchScore = RecipeMatchCalculator.calculateMatchScore(presentIngredients, missingIngredients);
+        float matchPercentage = RecipeMatchCalculator.calculateMatchPercentage(recipe(), matchCache);
         if (matchScoreIndicator != null) {
-            matchScoreIndicator.setProgress((int) (matchScore * 100));
+            matchScoreIndicator.setProgress(matchPercentage);
         }
         
         // Update serving size display
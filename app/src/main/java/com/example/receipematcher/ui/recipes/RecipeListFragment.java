@@ -1,6 +1,8 @@
 package com.example.receipematcher.ui.recipes;
 
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -38,12 +40,13 @@ import java.util.List;
 
 public class RecipeListFragment extends Fragment {
 
+    // Typing pause before the search text is applied
+    private static final long SEARCH_DEBOUNCE_MS = 300;
+
     private RecipeViewModel recipeViewModel;
     private PantryViewModel pantryViewModel;
     private FavouriteViewModel favouriteViewModel;
     private AiRecipeAdapter adapter;
-    private final List<AiRecipe> aiRecipes = new ArrayList<>();
-    private final List<AiRecipe> filtered = new ArrayList<>();
     private String currentQuery = "";
     private Snackbar importSnackbar;
     private List<String> pantryTerms = new ArrayList<>();
@@ -52,6 +55,8 @@ public class RecipeListFragment extends Fragment {
     private MaterialButton btnFilter;
     private HorizontalScrollView scrollViewActiveFilters;
     private ChipGroup chipGroupActiveFilters;
+    private final Handler searchHandler = new Handler(Looper.getMainLooper());
+    private final Runnable pendingSearch = this::loadRecipes;
 
     @Override
     public void onCreate(@Nullable Bundle savedInstanceState) {
@@ -81,7 +86,8 @@ public class RecipeListFragment extends Fragment {
         adapter.setOnFavoriteToggleListener((recipe, toFavorite) -> {
             String rid = recipe == null || recipe.name == null ? "" : recipe.name.trim().toLowerCase();
             if (toFavorite) {
-                favouriteViewModel.add(rid, recipe.ingredients, recipe.steps);
+                // List rows carry no steps; the repository reads them from ai_recipes
+                favouriteViewModel.addAiRecipe(rid, recipe.ingredients, recipe.id);
             } else {
                 favouriteViewModel.remove(rid);
             }
@@ -100,14 +106,17 @@ public class RecipeListFragment extends Fragment {
                 @Override
                 public boolean onQueryTextSubmit(String query) {
                     currentQuery = query == null ? "" : query.trim();
-                    applyFilter();
+                    searchHandler.removeCallbacks(pendingSearch);
+                    loadRecipes();
                     return true;
                 }
 
                 @Override
                 public boolean onQueryTextChange(String newText) {
                     currentQuery = newText == null ? "" : newText.trim();
-                    applyFilter();
+                    // Each keystroke restarts the wait, so only the settled text is searched
+                    searchHandler.removeCallbacks(pendingSearch);
+                    searchHandler.postDelayed(pendingSearch, SEARCH_DEBOUNCE_MS);
                     return true;
                 }
             });
@@ -116,6 +125,13 @@ public class RecipeListFragment extends Fragment {
         recipeViewModel = new ViewModelProvider(this).get(RecipeViewModel.class);
         pantryViewModel = new ViewModelProvider(this).get(PantryViewModel.class);
         favouriteViewModel = new ViewModelProvider(this).get(FavouriteViewModel.class);
+        adapter.setMatchCache(recipeViewModel.getMatchCache());
+        // Match by ingredient id once the index is loaded (and after each dataset change)
+        recipeViewModel.getBitsetIndex().observe(getViewLifecycleOwner(), index -> {
+            if (recipeViewModel.getMatchCache().setIndex(index)) {
+                adapter.notifyPantryChanged();
+            }
+        });
 
         favouriteViewModel.getAll().observe(getViewLifecycleOwner(), favs -> {
             java.util.HashSet<String> set = new java.util.HashSet<>();
@@ -127,12 +143,24 @@ public class RecipeListFragment extends Fragment {
             adapter.setFavoriteIds(set);
         });
 
+        // Single observer; each new search swaps the paged stream behind it
+        recipeViewModel.getAiRecipes().observe(getViewLifecycleOwner(), pagingData -> {
+            // Pages arrive ranked by pantry coverage
+            adapter.submitData(getViewLifecycleOwner().getLifecycle(), pagingData);
+        });
+
         fetchAiRecipes();
         observeImportProgress(view);
 
         return view;
     }
 
+    @Override
+    public void onDestroyView() {
+        searchHandler.removeCallbacks(pendingSearch);
+        super.onDestroyView();
+    }
+
     private void fetchAiRecipes() {
         pantryViewModel.getAllIngredients().observe(getViewLifecycleOwner(), ingredients -> {
             if (ingredients == null || ingredients.isEmpty()) return;
@@ -145,22 +173,22 @@ public class RecipeListFragment extends Fragment {
             }
             if (pantryList.isEmpty()) return;
             pantryTerms = pantryList;
-            if (adapter != null) adapter.setPantryTerms(pantryTerms);
+            // Rows are rebound from the re-ranked list, and only where their match changed
+            recipeViewModel.getMatchCache().updatePantry(pantryTerms);
 
             android.util.Log.d("AI_RECIPES", "Pantry -> " + pantryList);
 
-            recipeViewModel.getAiRecipes(pantryList).observe(getViewLifecycleOwner(), recipes -> {
-                aiRecipes.clear();
-                android.util.Log.d("AI_RECIPES", "AI returned: " + (recipes == null ? "null" : recipes.size()));
-                if (recipes != null) {
-                    // Simple recipe list (smart prioritization removed)
-                    aiRecipes.addAll(recipes);
-                }
-                applyFilter();
-            });
+            loadRecipes();
         });
     }
 
+    // Query recipes for the current pantry; search text and most filters run in SQL.
+    // Repeated calls with an unchanged query are coalesced by the ViewModel.
+    private void loadRecipes() {
+        if (pantryTerms == null || pantryTerms.isEmpty()) return;
+        recipeViewModel.search(pantryTerms, filterManager.getCurrentFilters(), currentQuery);
+    }
+
     private void observeImportProgress(View root) {
         WorkManager.getInstance(requireContext())
                 .getWorkInfosForUniqueWorkLiveData(RecipeImportWorker.UNIQUE_NAME)
@@ -169,8 +197,9 @@ public class RecipeListFragment extends Fragment {
                     WorkInfo info = workInfos.get(0);
                     WorkInfo.State state = info.getState();
                     if (state == WorkInfo.State.ENQUEUED || state == WorkInfo.State.RUNNING) {
-                        int imported = info.getProgress().getInt("imported", 0);
-                        String msg = imported > 0 ? ("Preparing recipes... " + imported) : "Preparing recipes...";
+                        float fraction = info.getProgress().getFloat(RecipeImportWorker.PROGRESS_FRACTION, 0f);
+                        int percent = Math.round(fraction * 100);
+                        String msg = percent > 0 ? ("Preparing recipes... " + percent + "%") : "Preparing recipes...";
                         if (importSnackbar == null) {
                             importSnackbar = Snackbar.make(root, msg, Snackbar.LENGTH_INDEFINITE);
                             importSnackbar.show();
@@ -179,8 +208,9 @@ public class RecipeListFragment extends Fragment {
                         }
                     } else if (state == WorkInfo.State.SUCCEEDED) {
                         if (importSnackbar != null) { importSnackbar.dismiss(); importSnackbar = null; }
-                        // Auto-retry loading after import completes
-                        fetchAiRecipes();
+                        // Room invalidates the paged query as rows land; this only
+                        // starts a search if none has run yet
+                        loadRecipes();
                     } else if (state == WorkInfo.State.FAILED || state == WorkInfo.State.CANCELLED) {
                         if (importSnackbar != null) { importSnackbar.dismiss(); importSnackbar = null; }
                         Snackbar.make(root, "Recipe import failed. Retry from app restart.", Snackbar.LENGTH_LONG).show();
@@ -188,58 +218,16 @@ public class RecipeListFragment extends Fragment {
                 });
     }
 
-    private void applyFilter() {
-        filtered.clear();
-        
-        // First apply search query filter
-        List<AiRecipe> searchFiltered = new ArrayList<>();
-        if (currentQuery == null || currentQuery.isEmpty()) {
-            searchFiltered.addAll(aiRecipes);
-        } else {
-            String q = currentQuery.toLowerCase();
-            for (AiRecipe r : aiRecipes) {
-                String name = r.name == null ? "" : r.name.toLowerCase();
-                boolean match = name.contains(q);
-                if (!match && r.ingredients != null) {
-                    for (String ing : r.ingredients) {
-                        if (ing != null && ing.toLowerCase().contains(q)) { match = true; break; }
-                    }
-                }
-                if (match) searchFiltered.add(r);
-            }
-        }
-        
-        // Then apply advanced filters
-        List<AiRecipe> advancedFiltered = filterManager.applyFilters(searchFiltered, pantryTerms);
-        
-        // Simple filtering (smart prioritization removed)
-        filtered.addAll(advancedFiltered);
-        
-        adapter.submitList(new ArrayList<>(filtered));
-    }
-
-    private void sortByCoverage(List<AiRecipe> list) {
-        if (list == null || list.isEmpty() || pantryTerms == null) return;
-        list.sort((a, b) -> Integer.compare(matchCount(b), matchCount(a)));
-    }
-
-    private int matchCount(AiRecipe r) {
-        if (r == null || r.ingredients == null || pantryTerms == null) return 0;
-        int c = 0;
-        for (String ing : r.ingredients) {
-            String s = ing == null ? "" : ing.toLowerCase();
-            for (String p : pantryTerms) {
-                if (p != null && !p.isEmpty() && s.contains(p)) { c++; break; }
-            }
-        }
-        return c;
-    }
-
     private void navigateToDetail(AiRecipe recipe) {
         Bundle args = new Bundle();
         args.putString("title", recipe.name);
         args.putStringArrayList("ingredients", recipe.ingredients == null ? new ArrayList<>() : new ArrayList<>(recipe.ingredients));
-        args.putStringArrayList("steps", recipe.steps == null ? new ArrayList<>() : new ArrayList<>(recipe.steps));
+        // Canonical names let the detail screen match by ingredient id, as the list does
+        if (recipe.canonicalIngredients != null) {
+            args.putStringArrayList("canonical", new ArrayList<>(recipe.canonicalIngredients));
+        }
+        // Steps are loaded by the detail screen from the recipe id
+        args.putLong("recipeId", recipe.id);
         if (pantryTerms != null) {
             args.putStringArrayList("pantry", new ArrayList<>(pantryTerms));
         }
@@ -250,8 +238,10 @@ public class RecipeListFragment extends Fragment {
     private void showFilterDialog() {
         RecipeFilterDialog dialog = RecipeFilterDialog.newInstance();
         dialog.setOnFiltersAppliedListener(filters -> {
+            // The dialog saved through its own FilterManager; pick up the applied filters
+            filterManager.updateFilters(filters);
             updateActiveFiltersDisplay();
-            applyFilter();
+            loadRecipes();
         });
         dialog.show(getParentFragmentManager(), "filter_dialog");
     }
@@ -273,7 +263,7 @@ public class RecipeListFragment extends Fragment {
                 filters.availabilityFilter = FilterManager.AvailabilityFilter.ALL;
                 filterManager.updateFilters(filters);
                 updateActiveFiltersDisplay();
-                applyFilter();
+                loadRecipes();
             });
         }
         
@@ -283,7 +273,7 @@ public class RecipeListFragment extends Fragment {
                 filters.cuisineFilters.remove(cuisine);
                 filterManager.updateFilters(filters);
                 updateActiveFiltersDisplay();
-                applyFilter();
+                loadRecipes();
             });
         }
         
@@ -293,7 +283,7 @@ public class RecipeListFragment extends Fragment {
                 filters.dietaryFilters.remove(dietary);
                 filterManager.updateFilters(filters);
                 updateActiveFiltersDisplay();
-                applyFilter();
+                loadRecipes();
             });
         }
         
@@ -303,7 +293,7 @@ public class RecipeListFragment extends Fragment {
                 filters.timeFilter = FilterManager.TimeFilter.ANY;
                 filterManager.updateFilters(filters);
                 updateActiveFiltersDisplay();
-                applyFilter();
+                loadRecipes();
             });
         }
         
@@ -313,7 +303,7 @@ public class RecipeListFragment extends Fragment {
                 filters.difficultyFilter = FilterManager.DifficultyFilter.ANY;
                 filterManager.updateFilters(filters);
                 updateActiveFiltersDisplay();
-                applyFilter();
+                loadRecipes();
             });
         }
         
@@ -323,7 +313,7 @@ public class RecipeListFragment extends Fragment {
                 filters.useExpiringFirst = false;
                 filterManager.updateFilters(filters);
                 updateActiveFiltersDisplay();
-                applyFilter();
+                loadRecipes();
             });
         }
     }
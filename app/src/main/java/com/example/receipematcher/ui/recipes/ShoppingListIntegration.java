@@ -9,6 +9,7 @@ import androidx.fragment.app.FragmentManager;
 import com.example.receipematcher.data.entities.Recipe;
 import com.example.receipematcher.data.entities.ShoppingItem;
 import com.example.receipematcher.data.repository.ShoppingRepository;
+import com.example.receipematcher.utils.IngredientNormalizer;
 
 
 import java.util.ArrayList;
@@ -121,17 +122,8 @@ public class ShoppingListIntegration {
      * Extract ingredient name from full ingredient string
      */
     private String extractIngredientName(String ingredient) {
-        if (ingredient == null || ingredient.trim().isEmpty()) {
-            return "";
-        }
-        
-        // Remove quantities and units to get just the ingredient name
-        String cleaned = ingredient.trim()
-                .replaceAll("^\\d+(?:\\.\\d+)?(?:/\\d+)?\\s*", "") // Remove leading numbers
-                .replaceAll("^(?:cup|cups|tbsp|tsp|oz|lb|lbs|g|kg|ml|l)s?\\s+", "") // Remove units
-                .trim();
-        
-        return cleaned.isEmpty() ? ingredient.trim() : cleaned;
+        // Same quantity and unit rules as IngredientNormalizer#canonical, keeping the name as written
+        return IngredientNormalizer.stripQuantity(ingredient);
     }
     
     /**
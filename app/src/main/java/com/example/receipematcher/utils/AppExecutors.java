@@ -0,0 +1,44 @@
+package com.example.receipematcher.utils;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * App-wide executors. Recipe queries (Room reads, paging loads and the
+ * per-page parse/filter work) share one bounded pool instead of spawning a
+ * thread per request.
+ */
+public final class AppExecutors {
+
+    // Enough to overlap a page load with parsing without flooding small devices
+    private static final int QUERY_THREADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    private static final ThreadPoolExecutor QUERY_EXECUTOR = newPool("recipe-query", QUERY_THREADS);
+
+    private AppExecutors() { }
+
+    /**
+     * @return Shared executor for database reads and query post-processing
+     */
+    public static Executor queryExecutor() {
+        return QUERY_EXECUTOR;
+    }
+
+    private static ThreadPoolExecutor newPool(String name, int threads) {
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread t = new Thread(r, name + "-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), factory);
+        // Idle threads are released while the list is not in use
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.receipematcher.utils;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Versioned description of the bundled recipe dataset (assets/recipes_manifest.json):
+ *
+ * <pre>
+ * {
+ *   "base": {"version": 1, "file": "recipes.jsonl.gz"},
+ *   "deltas": [
+ *     {"version": 2, "file": "recipes_delta_2.jsonl.gz"},
+ *     {"version": 3, "file": "recipes_delta_3.jsonl.gz"}
+ *   ]
+ * }
+ * </pre>
+ *
+ * The base file is a full import; each delta holds the adds, updates and
+ * deletes since the previous version (see RecipeJsonlParser#parseDelta).
+ */
+public class DatasetManifest {
+
+    public static class Entry {
+        public final int version;
+        public final String file;
+
+        Entry(int version, String file) {
+            this.version = version;
+            this.file = file;
+        }
+    }
+
+    public final Entry base;
+    public final List<Entry> deltas; // ascending by version
+
+    DatasetManifest(Entry base, List<Entry> deltas) {
+        this.base = base;
+        this.deltas = deltas;
+    }
+
+    /**
+     * @param reader Manifest JSON
+     * @return Parsed manifest
+     * @throws IllegalStateException If the manifest is malformed
+     */
+    public static DatasetManifest parse(Reader reader) {
+        try {
+            JsonObject root = JsonParser.parseReader(reader).getAsJsonObject();
+            Entry base = entry(root.getAsJsonObject("base"));
+            List<Entry> deltas = new ArrayList<>();
+            if (root.has("deltas")) {
+                for (JsonElement e : root.getAsJsonArray("deltas")) {
+                    deltas.add(entry(e.getAsJsonObject()));
+                }
+            }
+            Collections.sort(deltas, (a, b) -> Integer.compare(a.version, b.version));
+            return new DatasetManifest(base, deltas);
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Malformed dataset manifest", e);
+        }
+    }
+
+    private static Entry entry(JsonObject o) {
+        return new Entry(o.get("version").getAsInt(), o.get("file").getAsString());
+    }
+
+    /**
+     * @return Version after applying every delta
+     */
+    public int latestVersion() {
+        return deltas.isEmpty() ? base.version : Math.max(base.version, deltas.get(deltas.size() - 1).version);
+    }
+
+    /**
+     * @param version Dataset version currently in the database
+     * @return Deltas still to apply, in order
+     */
+    public List<Entry> deltasAfter(int version) {
+        List<Entry> pending = new ArrayList<>();
+        for (Entry delta : deltas) {
+            if (delta.version > version) pending.add(delta);
+        }
+        return pending;
+    }
+}
@@ -6,9 +6,9 @@ import android.content.SharedPreferences;
 import com.example.receipematcher.data.repository.RecipeRepository.AiRecipe;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 
 /**
@@ -37,38 +37,42 @@ public class FilterManager {
     }
     
     public enum CuisineType {
-        ITALIAN("Italian"),
-        ASIAN("Asian"),
-        MEXICAN("Mexican"),
-        AMERICAN("American"),
-        MEDITERRANEAN("Mediterranean"),
-        INDIAN("Indian"),
-        FRENCH("French"),
-        THAI("Thai"),
-        CHINESE("Chinese"),
-        JAPANESE("Japanese");
+        ITALIAN("Italian", RecipeMetadata.CUISINE_ITALIAN),
+        ASIAN("Asian", RecipeMetadata.CUISINE_ASIAN),
+        MEXICAN("Mexican", RecipeMetadata.CUISINE_MEXICAN),
+        AMERICAN("American", RecipeMetadata.CUISINE_AMERICAN),
+        MEDITERRANEAN("Mediterranean", RecipeMetadata.CUISINE_MEDITERRANEAN),
+        INDIAN("Indian", RecipeMetadata.CUISINE_INDIAN),
+        FRENCH("French", RecipeMetadata.CUISINE_FRENCH),
+        THAI("Thai", RecipeMetadata.CUISINE_THAI),
+        CHINESE("Chinese", RecipeMetadata.CUISINE_CHINESE),
+        JAPANESE("Japanese", RecipeMetadata.CUISINE_JAPANESE);
         
         public final String displayName;
+        public final int flag; // bit in ai_recipes.cuisineFlags
         
-        CuisineType(String displayName) {
+        CuisineType(String displayName, int flag) {
             this.displayName = displayName;
+            this.flag = flag;
         }
     }
     
     public enum DietaryRestriction {
-        VEGETARIAN("Vegetarian"),
-        VEGAN("Vegan"),
-        GLUTEN_FREE("Gluten-Free"),
-        DAIRY_FREE("Dairy-Free"),
-        LOW_CARB("Low Carb"),
-        KETO("Keto"),
-        PALEO("Paleo"),
-        HEALTHY("Healthy");
+        VEGETARIAN("Vegetarian", RecipeMetadata.FLAG_VEGETARIAN),
+        VEGAN("Vegan", RecipeMetadata.FLAG_VEGAN),
+        GLUTEN_FREE("Gluten-Free", RecipeMetadata.FLAG_GLUTEN_FREE),
+        DAIRY_FREE("Dairy-Free", RecipeMetadata.FLAG_DAIRY_FREE),
+        LOW_CARB("Low Carb", RecipeMetadata.FLAG_LOW_CARB),
+        KETO("Keto", RecipeMetadata.FLAG_KETO),
+        PALEO("Paleo", RecipeMetadata.FLAG_PALEO),
+        HEALTHY("Healthy", RecipeMetadata.FLAG_HEALTHY);
         
         public final String displayName;
+        public final int flag; // bit in ai_recipes.dietaryFlags
         
-        DietaryRestriction(String displayName) {
+        DietaryRestriction(String displayName, int flag) {
             this.displayName = displayName;
+            this.flag = flag;
         }
     }
     
@@ -128,6 +132,41 @@ public class FilterManager {
             count += avoidIngredients.size();
             return count;
         }
+
+        /**
+         * @return Independent copy, safe to keep as a query key while the UI edits this one
+         */
+        public RecipeFilters copy() {
+            RecipeFilters c = new RecipeFilters();
+            c.availabilityFilter = availabilityFilter;
+            c.cuisineFilters = new HashSet<>(cuisineFilters);
+            c.dietaryFilters = new HashSet<>(dietaryFilters);
+            c.timeFilter = timeFilter;
+            c.difficultyFilter = difficultyFilter;
+            c.useExpiringFirst = useExpiringFirst;
+            c.avoidIngredients = new HashSet<>(avoidIngredients);
+            return c;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof RecipeFilters)) return false;
+            RecipeFilters f = (RecipeFilters) o;
+            return availabilityFilter == f.availabilityFilter &&
+                   cuisineFilters.equals(f.cuisineFilters) &&
+                   dietaryFilters.equals(f.dietaryFilters) &&
+                   timeFilter == f.timeFilter &&
+                   difficultyFilter == f.difficultyFilter &&
+                   useExpiringFirst == f.useExpiringFirst &&
+                   avoidIngredients.equals(f.avoidIngredients);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(availabilityFilter, cuisineFilters, dietaryFilters, timeFilter,
+                    difficultyFilter, useExpiringFirst, avoidIngredients);
+        }
     }
     
     private final SharedPreferences prefs;
@@ -138,6 +177,15 @@ public class FilterManager {
         currentFilters = loadFilters();
     }
     
+    /**
+     * Filters held in memory only, never persisted (benchmarks)
+     * @param filters Initial filters
+     */
+    public FilterManager(RecipeFilters filters) {
+        prefs = null;
+        currentFilters = filters;
+    }
+    
     public RecipeFilters getCurrentFilters() {
         return currentFilters;
     }
@@ -153,9 +201,11 @@ public class FilterManager {
     }
     
     /**
-     * Apply filters to a list of recipes
+     * Apply the filters that depend on the pantry to a list of recipes.
+     * Cuisine, dietary, time, difficulty and avoided-ingredient filters are
+     * evaluated in SQL by {@link com.example.receipematcher.data.db.RecipeQueryBuilder}.
      */
-    public List<AiRecipe> applyFilters(List<AiRecipe> recipes, List<String> pantryIngredients) {
+    public List<AiRecipe> applyFilters(List<AiRecipe> recipes, RecipeMatchCache matchCache) {
         if (recipes == null || recipes.isEmpty()) {
             return new ArrayList<>();
         }
@@ -163,7 +213,7 @@ public class FilterManager {
         List<AiRecipe> filteredRecipes = new ArrayList<>();
         
         for (AiRecipe recipe : recipes) {
-            if (passesFilters(recipe, pantryIngredients)) {
+            if (passesFilters(recipe, matchCache)) {
                 filteredRecipes.add(recipe);
             }
         }
@@ -177,196 +227,49 @@ public class FilterManager {
         return filteredRecipes;
     }
     
-    private boolean passesFilters(AiRecipe recipe, List<String> pantryIngredients) {
-        // Availability filter
-        if (currentFilters.availabilityFilter != AvailabilityFilter.ALL) {
-            float matchPercentage = RecipeMatchCalculator.calculateMatchPercentage(recipe, pantryIngredients);
-            
-            switch (currentFilters.availabilityFilter) {
-                case CAN_MAKE_NOW:
-                    if (matchPercentage < 100f) return false;
-                    break;
-                case ALMOST_READY:
-                    if (matchPercentage < 80f) return false;
-                    break;
-                case NEED_SHOPPING:
-                    if (matchPercentage < 50f) return false;
-                    break;
-            }
-        }
-        
-        // Cuisine filter
-        if (!currentFilters.cuisineFilters.isEmpty()) {
-            if (!matchesCuisineFilter(recipe)) return false;
-        }
-        
-        // Dietary restrictions filter
-        if (!currentFilters.dietaryFilters.isEmpty()) {
-            if (!matchesDietaryFilter(recipe)) return false;
-        }
-        
-        // Time filter
-        if (currentFilters.timeFilter != TimeFilter.ANY) {
-            if (!matchesTimeFilter(recipe)) return false;
-        }
-        
-        // Difficulty filter
-        if (currentFilters.difficultyFilter != DifficultyFilter.ANY) {
-            if (!matchesDifficultyFilter(recipe)) return false;
-        }
-        
-        // Avoid ingredients filter
-        if (!currentFilters.avoidIngredients.isEmpty()) {
-            if (containsAvoidedIngredients(recipe)) return false;
-        }
-        
-        return true;
-    }
-    
-    private boolean matchesCuisineFilter(AiRecipe recipe) {
-        if (recipe.name == null) return false;
-        
-        String recipeName = recipe.name.toLowerCase();
-        String ingredientsText = "";
-        if (recipe.ingredients != null) {
-            ingredientsText = String.join(" ", recipe.ingredients).toLowerCase();
-        }
-        
-        for (CuisineType cuisine : currentFilters.cuisineFilters) {
-            if (matchesCuisine(recipeName, ingredientsText, cuisine)) {
-                return true;
-            }
-        }
-        return false;
-    }
-    
-    private boolean matchesCuisine(String recipeName, String ingredientsText, CuisineType cuisine) {
-        switch (cuisine) {
-            case ITALIAN:
-                return recipeName.contains("pasta") || recipeName.contains("pizza") || 
-                       ingredientsText.contains("parmesan") || ingredientsText.contains("basil");
-            case ASIAN:
-                return recipeName.contains("stir") || recipeName.contains("asian") ||
-                       ingredientsText.contains("soy sauce") || ingredientsText.contains("ginger");
-            case MEXICAN:
-                return recipeName.contains("taco") || recipeName.contains("burrito") ||
-                       ingredientsText.contains("cumin") || ingredientsText.contains("cilantro");
-            case AMERICAN:
-                return recipeName.contains("burger") || recipeName.contains("bbq") ||
-                       recipeName.contains("american");
-            case MEDITERRANEAN:
-                return ingredientsText.contains("olive oil") || ingredientsText.contains("feta") ||
-                       ingredientsText.contains("olives");
-            case INDIAN:
-                return recipeName.contains("curry") || ingredientsText.contains("turmeric") ||
-                       ingredientsText.contains("garam masala");
-            case FRENCH:
-                return recipeName.contains("french") || ingredientsText.contains("butter") ||
-                       recipeName.contains("croissant");
-            case THAI:
-                return recipeName.contains("thai") || ingredientsText.contains("coconut milk") ||
-                       ingredientsText.contains("lemongrass");
-            case CHINESE:
-                return recipeName.contains("chinese") || ingredientsText.contains("sesame oil") ||
-                       recipeName.contains("fried rice");
-            case JAPANESE:
-                return recipeName.contains("sushi") || recipeName.contains("teriyaki") ||
-                       ingredientsText.contains("miso");
-            default:
-                return false;
-        }
+    private boolean passesFilters(AiRecipe recipe, RecipeMatchCache matchCache) {
+        return passesAvailability(currentFilters.availabilityFilter, recipe, matchCache);
     }
     
-    private boolean matchesDietaryFilter(AiRecipe recipe) {
-        if (recipe.ingredients == null) return false;
-        
-        String ingredientsText = String.join(" ", recipe.ingredients).toLowerCase();
-        
-        for (DietaryRestriction restriction : currentFilters.dietaryFilters) {
-            if (!matchesDietaryRestriction(ingredientsText, restriction)) {
-                return false;
-            }
-        }
-        return true;
-    }
-    
-    private boolean matchesDietaryRestriction(String ingredientsText, DietaryRestriction restriction) {
-        switch (restriction) {
-            case VEGETARIAN:
-                return !ingredientsText.contains("meat") && !ingredientsText.contains("chicken") &&
-                       !ingredientsText.contains("beef") && !ingredientsText.contains("pork");
-            case VEGAN:
-                return !ingredientsText.contains("meat") && !ingredientsText.contains("chicken") &&
-                       !ingredientsText.contains("dairy") && !ingredientsText.contains("cheese") &&
-                       !ingredientsText.contains("milk") && !ingredientsText.contains("egg");
-            case GLUTEN_FREE:
-                return !ingredientsText.contains("wheat") && !ingredientsText.contains("flour") &&
-                       !ingredientsText.contains("bread");
-            case DAIRY_FREE:
-                return !ingredientsText.contains("milk") && !ingredientsText.contains("cheese") &&
-                       !ingredientsText.contains("butter") && !ingredientsText.contains("cream");
-            case LOW_CARB:
-                return !ingredientsText.contains("pasta") && !ingredientsText.contains("rice") &&
-                       !ingredientsText.contains("bread") && !ingredientsText.contains("potato");
-            case KETO:
-                return !ingredientsText.contains("sugar") && !ingredientsText.contains("pasta") &&
-                       !ingredientsText.contains("rice") && !ingredientsText.contains("bread");
-            case PALEO:
-                return !ingredientsText.contains("grain") && !ingredientsText.contains("dairy") &&
-                       !ingredientsText.contains("legume");
-            case HEALTHY:
-                return ingredientsText.contains("vegetable") || ingredientsText.contains("fruit") ||
-                       ingredientsText.contains("lean");
+    /**
+     * @return Lowest matched/total fraction the availability filter lets through
+     */
+    public static float minMatchFraction(AvailabilityFilter availabilityFilter) {
+        switch (availabilityFilter) {
+            case CAN_MAKE_NOW:
+                return 1f;
+            case ALMOST_READY:
+                return 0.8f;
+            case NEED_SHOPPING:
+                return 0.5f;
             default:
-                return true;
+                return 0f;
         }
     }
     
-    private boolean matchesTimeFilter(AiRecipe recipe) {
-        // Mock implementation - in real app, this would use actual cooking time data
-        int stepCount = recipe.steps != null ? recipe.steps.size() : 5;
-        
-        switch (currentFilters.timeFilter) {
-            case QUICK:
-                return stepCount <= 5;
-            case MEDIUM:
-                return stepCount > 5 && stepCount <= 10;
-            case LONG:
-                return stepCount > 10;
-            default:
-                return true;
+    /**
+     * Check a recipe against an availability filter.
+     * Safe to call off the main thread; used by the paged recipe list.
+     */
+    public static boolean passesAvailability(AvailabilityFilter availabilityFilter, AiRecipe recipe,
+                                             RecipeMatchCache matchCache) {
+        if (availabilityFilter == AvailabilityFilter.ALL) {
+            return true;
         }
-    }
-    
-    private boolean matchesDifficultyFilter(AiRecipe recipe) {
-        // Mock implementation - in real app, this would use actual difficulty data
-        int stepCount = recipe.steps != null ? recipe.steps.size() : 5;
         
-        switch (currentFilters.difficultyFilter) {
-            case BEGINNER:
-                return stepCount <= 5;
-            case INTERMEDIATE:
-                return stepCount > 5 && stepCount <= 8;
-            case ADVANCED:
-                return stepCount > 8;
+        float matchPercentage = matchCache.get(recipe).matchPercentage;
+        switch (availabilityFilter) {
+            case CAN_MAKE_NOW:
+                return matchPercentage >= 100f;
+            case ALMOST_READY:
+                return matchPercentage >= 80f;
+            case NEED_SHOPPING:
+                return matchPercentage >= 50f;
             default:
                 return true;
         }
     }
     
-    private boolean containsAvoidedIngredients(AiRecipe recipe) {
-        if (recipe.ingredients == null) return false;
-        
-        String ingredientsText = String.join(" ", recipe.ingredients).toLowerCase();
-        
-        for (String avoidIngredient : currentFilters.avoidIngredients) {
-            if (ingredientsText.contains(avoidIngredient.toLowerCase())) {
-                return true;
-            }
-        }
-        return false;
-    }
-    
     private RecipeFilters loadFilters() {
         RecipeFilters filters = new RecipeFilters();
         
@@ -414,6 +317,7 @@ public class FilterManager {
     }
     
     private void saveFilters(RecipeFilters filters) {
+        if (prefs == null) return;
         SharedPreferences.Editor editor = prefs.edit();
         
         editor.putString(KEY_AVAILABILITY_FILTER, filters.availabilityFilter.name());
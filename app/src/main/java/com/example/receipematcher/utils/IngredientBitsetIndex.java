@@ -0,0 +1,233 @@
+package com.example.receipematcher.utils;
+
+import com.example.receipematcher.data.repository.RecipeRepository.AiRecipe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory ingredient sets of every recipe, keyed by ingredients_dict id, for
+ * scoring pantry coverage without string matching.
+ *
+ * A dense bitset over the whole dictionary per recipe would cost kilobytes
+ * each, while a recipe uses about ten ingredients. So the {@link #HEAD_BITS}
+ * most frequent ingredients (salt, butter, eggs, ...) get a fixed bit in a
+ * two-word mask per recipe, scored by popcount of an AND with the pantry's
+ * mask, and the remaining "tail" ingredients are kept as sorted ids and tested
+ * against the pantry's full bitset. The pantry bitset is computed once per
+ * pantry from the dictionary names, using {@link PantryMatcher}'s rules.
+ */
+public class IngredientBitsetIndex {
+
+    static final int HEAD_WORDS = 2;
+    public static final int HEAD_BITS = HEAD_WORDS * 64;
+
+    private final String[] names; // by dictionary id; null where no id
+    private final Map<String, Integer> idsByName;
+    private final int[] headBit; // by dictionary id: head bit, or -1 for tail ingredients
+    private final long[] recipeIds; // ascending
+    private final long[] heads; // HEAD_WORDS per recipe
+    private final int[] tailOffsets; // recipe i's tail ids are tailIds[tailOffsets[i] .. tailOffsets[i + 1])
+    private final int[] tailIds;
+    private final int[] totals; // distinct ingredients per recipe
+    // Inverted index: recipes using dictionary id d are postings[postingOffsets[d] .. postingOffsets[d + 1]),
+    // as ascending recipe indexes
+    final int[] postingOffsets;
+    final int[] postings;
+
+    /**
+     * @param names Canonical name by dictionary id (null where no id)
+     * @param recipeIds Recipe ids, ascending
+     * @param offsets recipe i's ingredient ids are ingredientIds[offsets[i] .. offsets[i + 1])
+     * @param ingredientIds Dictionary ids, distinct within a recipe
+     */
+    public IngredientBitsetIndex(String[] names, long[] recipeIds, int[] offsets, int[] ingredientIds) {
+        this.names = names;
+        this.recipeIds = recipeIds;
+        this.idsByName = new HashMap<>(names.length * 2);
+        for (int id = 0; id < names.length; id++) {
+            if (names[id] != null) idsByName.put(names[id], id);
+        }
+
+        // The most used ingredients get head bits
+        int[] frequency = new int[names.length];
+        for (int id : ingredientIds) frequency[id]++;
+        Integer[] byFrequency = new Integer[names.length];
+        for (int id = 0; id < names.length; id++) byFrequency[id] = id;
+        Arrays.sort(byFrequency, (a, b) -> Integer.compare(frequency[b], frequency[a]));
+        this.headBit = new int[names.length];
+        Arrays.fill(headBit, -1);
+        for (int bit = 0; bit < HEAD_BITS && bit < names.length && frequency[byFrequency[bit]] > 0; bit++) {
+            headBit[byFrequency[bit]] = bit;
+        }
+
+        int n = recipeIds.length;
+        this.heads = new long[n * HEAD_WORDS];
+        this.tailOffsets = new int[n + 1];
+        this.totals = new int[n];
+        int[] tail = new int[ingredientIds.length];
+        int tailSize = 0;
+        for (int r = 0; r < n; r++) {
+            tailOffsets[r] = tailSize;
+            int start = tailSize;
+            for (int k = offsets[r]; k < offsets[r + 1]; k++) {
+                int id = ingredientIds[k];
+                int bit = headBit[id];
+                if (bit >= 0) {
+                    heads[r * HEAD_WORDS + (bit >>> 6)] |= 1L << bit;
+                } else {
+                    tail[tailSize++] = id;
+                }
+            }
+            Arrays.sort(tail, start, tailSize);
+            totals[r] = offsets[r + 1] - offsets[r];
+        }
+        tailOffsets[n] = tailSize;
+        this.tailIds = Arrays.copyOf(tail, tailSize);
+
+        this.postingOffsets = new int[names.length + 1];
+        for (int id = 0; id < names.length; id++) {
+            postingOffsets[id + 1] = postingOffsets[id] + frequency[id];
+        }
+        this.postings = new int[ingredientIds.length];
+        int[] fill = Arrays.copyOf(postingOffsets, names.length);
+        for (int r = 0; r < n; r++) {
+            for (int k = offsets[r]; k < offsets[r + 1]; k++) {
+                postings[fill[ingredientIds[k]]++] = r;
+            }
+        }
+    }
+
+    /**
+     * @return Number of recipes in the index
+     */
+    public int size() {
+        return recipeIds.length;
+    }
+
+    public long recipeId(int recipeIndex) {
+        return recipeIds[recipeIndex];
+    }
+
+    /**
+     * @return Position of the recipe in this index, or -1 if it was added after the index was built
+     */
+    public int indexOf(long recipeId) {
+        int i = Arrays.binarySearch(recipeIds, recipeId);
+        return i < 0 ? -1 : i;
+    }
+
+    /**
+     * @return Distinct ingredient count of the recipe at recipeIndex
+     */
+    public int totalCount(int recipeIndex) {
+        return totals[recipeIndex];
+    }
+
+    /**
+     * @param canonicalName IngredientNormalizer#canonical output
+     * @return Dictionary id, or -1 if the name is not in the index
+     */
+    public int idOf(String canonicalName) {
+        Integer id = idsByName.get(canonicalName);
+        return id == null ? -1 : id;
+    }
+
+    // Dictionary size, including unused ids
+    int dictionarySize() {
+        return names.length;
+    }
+
+    // Canonical name of a dictionary id, or null where there is none
+    String name(int id) {
+        return names[id];
+    }
+
+    /**
+     * Resolve a pantry against the dictionary
+     * @param matcher Pantry snapshot
+     * @return Pantry as bitsets over this index's dictionary
+     */
+    public PantrySet pantrySet(PantryMatcher matcher) {
+        return new PantrySet(matcher);
+    }
+
+    /**
+     * Score the whole corpus
+     * @param pantry Pantry resolved by {@link #pantrySet(PantryMatcher)}
+     * @param matchedOut Receives the matched ingredient count per recipe index; length at least {@link #size()}
+     */
+    public void scoreAll(PantrySet pantry, int[] matchedOut) {
+        for (int r = 0; r < recipeIds.length; r++) {
+            matchedOut[r] = pantry.matchedCount(r);
+        }
+    }
+
+    /**
+     * A pantry as bitsets over the dictionary of one index
+     */
+    public final class PantrySet {
+        private final PantryMatcher matcher;
+        private final long[] head = new long[HEAD_WORDS];
+        final BitSet bits; // dictionary ids available in the pantry
+
+        PantrySet(PantryMatcher matcher) {
+            this.matcher = matcher;
+            this.bits = new BitSet(names.length);
+            if (matcher.isEmpty()) return;
+            for (int id = 0; id < names.length; id++) {
+                if (names[id] == null || !matcher.matches(names[id])) continue;
+                bits.set(id);
+                int bit = headBit[id];
+                if (bit >= 0) head[bit >>> 6] |= 1L << bit;
+            }
+        }
+
+        /**
+         * @return Ingredients of the recipe at recipeIndex available in the pantry
+         */
+        public int matchedCount(int recipeIndex) {
+            int base = recipeIndex * HEAD_WORDS;
+            int matched = Long.bitCount(heads[base] & head[0]) + Long.bitCount(heads[base + 1] & head[1]);
+            for (int k = tailOffsets[recipeIndex]; k < tailOffsets[recipeIndex + 1]; k++) {
+                if (bits.get(tailIds[k])) matched++;
+            }
+            return matched;
+        }
+
+        /**
+         * Per-ingredient match of a loaded recipe, same result shape as {@link PantryMatcher#match(AiRecipe)}.
+         * Ingredients missing from the dictionary fall back to string matching.
+         */
+        public PantryMatcher.MatchResult match(AiRecipe recipe) {
+            if (recipe == null || recipe.ingredients == null || matcher.isEmpty()) {
+                return matcher.match(recipe);
+            }
+            int total = recipe.ingredients.size();
+            List<String> canonical = recipe.canonicalIngredients;
+            boolean hasCanonical = canonical != null && canonical.size() == total;
+
+            int matched = 0;
+            List<String> missing = new ArrayList<>();
+            BitSet mask = new BitSet(total);
+            for (int i = 0; i < total; i++) {
+                String ingredient = recipe.ingredients.get(i);
+                if (ingredient == null) continue;
+                String name = hasCanonical ? canonical.get(i) : IngredientNormalizer.canonical(ingredient);
+                int id = idOf(name);
+                boolean found = id >= 0 ? bits.get(id) : matcher.matches(ingredient);
+                if (found) {
+                    matched++;
+                    mask.set(i);
+                } else {
+                    missing.add(ingredient);
+                }
+            }
+            return new PantryMatcher.MatchResult(matched, total, missing, mask);
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.example.receipematcher.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Canonical ingredient names, as interned in ingredients_dict. Recipe
+ * ingredients (at import) and pantry items (on insert) go through the same
+ * function, so equal canonical names mean the same dictionary id.
+ *
+ * {@link #canonical} runs these stages in order:
+ * <ol>
+ * <li>lowercase, drop "(...)" notes, everything after the first comma and
+ * trailing notes like "to taste"</li>
+ * <li>strip a leading quantity and unit: "2 1/2 cups of", "a pinch of"</li>
+ * <li>drop descriptor words ("fresh", "chopped", "large", ...)</li>
+ * <li>fold plurals word by word ("tomatoes" -> "tomato", "berries" -> "berry")</li>
+ * <li>map synonyms to one name ("scallion" -> "green onion")</li>
+ * </ol>
+ * The result is idempotent: canonical(canonical(x)) equals canonical(x).
+ */
+public class IngredientNormalizer {
+
+    private static final Set<String> DESCRIPTOR_WORDS = new HashSet<>(Arrays.asList(
+            "fresh", "dried", "ground", "whole", "chopped", "sliced", "diced", "minced",
+            "finely", "thinly", "roughly", "coarsely", "freshly", "grated", "shredded", "peeled",
+            "crushed", "softened", "melted", "large", "medium", "small", "boneless", "skinless"));
+
+    private static final Set<String> UNIT_WORDS = new HashSet<>(Arrays.asList(
+            "cup", "cups", "c", "tablespoon", "tablespoons", "tbsp", "tbs", "tbsps", "teaspoon", "teaspoons",
+            "tsp", "tsps", "g", "gram", "grams", "kg", "kilogram", "kilograms", "mg", "ml", "milliliter",
+            "milliliters", "millilitre", "millilitres", "l", "liter", "liters", "litre", "litres", "oz", "ounce",
+            "ounces", "lb", "lbs", "pound", "pounds", "pinch", "pinches", "dash", "dashes", "clove", "cloves",
+            "can", "cans", "package", "packages", "pkg", "slice", "slices", "piece", "pieces", "stick", "sticks",
+            "bunch", "bunches", "handful", "handfuls", "sprig", "sprigs", "head", "heads", "quart", "quarts",
+            "qt", "pint", "pints", "pt", "gallon", "gallons", "inch", "inches", "jar", "jars", "bottle", "bottles"));
+
+    // Words that end in "s" but are not plurals
+    private static final Set<String> NOT_PLURAL = new HashSet<>(Arrays.asList(
+            "molasses", "hummus", "couscous", "asparagus", "citrus", "swiss", "grits", "harissa", "bitters",
+            "schnapps"));
+
+    // Trailing serving notes: "salt to taste", "parsley for garnish"
+    private static final List<List<String>> TRAILING_NOTES = Arrays.asList(
+            Arrays.asList("to", "taste"), Arrays.asList("for", "garnish"), Arrays.asList("for", "serving"),
+            Collections.singletonList("optional"));
+
+    private static final Map<String, String> IRREGULAR_PLURALS = new HashMap<>();
+    private static final Map<String, String> SYNONYMS = new HashMap<>();
+
+    static {
+        IRREGULAR_PLURALS.put("leaves", "leaf");
+        IRREGULAR_PLURALS.put("loaves", "loaf");
+        IRREGULAR_PLURALS.put("halves", "half");
+        IRREGULAR_PLURALS.put("cookies", "cookie");
+        IRREGULAR_PLURALS.put("brownies", "brownie");
+
+        // Regional and alternative names, keyed by their folded form
+        SYNONYMS.put("scallion", "green onion");
+        SYNONYMS.put("spring onion", "green onion");
+        SYNONYMS.put("garbanzo bean", "chickpea");
+        SYNONYMS.put("courgette", "zucchini");
+        SYNONYMS.put("aubergine", "eggplant");
+        SYNONYMS.put("capsicum", "bell pepper");
+        SYNONYMS.put("icing sugar", "powdered sugar");
+        SYNONYMS.put("confectioner sugar", "powdered sugar");
+        SYNONYMS.put("bicarbonate of soda", "baking soda");
+        SYNONYMS.put("coriander leaf", "cilantro");
+        SYNONYMS.put("prawn", "shrimp");
+        SYNONYMS.put("plain flour", "all-purpose flour");
+        SYNONYMS.put("all purpose flour", "all-purpose flour");
+        SYNONYMS.put("cornflour", "cornstarch");
+        SYNONYMS.put("corn starch", "cornstarch");
+        SYNONYMS.put("rocket", "arugula");
+        SYNONYMS.put("beetroot", "beet");
+    }
+
+    private IngredientNormalizer() { }
+
+    /**
+     * @param raw Ingredient as written in a recipe or the pantry
+     * @return Canonical name; "" only if raw is null or blank
+     */
+    public static String canonical(String raw) {
+        if (raw == null) return "";
+        String lower = raw.toLowerCase().trim();
+        if (lower.isEmpty()) return "";
+
+        List<String> words = words(cutNotes(lower));
+        int start = skipQuantity(words);
+        int end = words.size();
+        for (List<String> note : TRAILING_NOTES) {
+            if (end - note.size() > start && words.subList(end - note.size(), end).equals(note)) {
+                end -= note.size();
+                break;
+            }
+        }
+        StringBuilder out = new StringBuilder(lower.length());
+        for (int i = start; i < end; i++) {
+            String word = words.get(i);
+            if (DESCRIPTOR_WORDS.contains(word)) continue;
+            if (out.length() > 0) out.append(' ');
+            out.append(singular(word));
+        }
+        if (out.length() == 0) {
+            // "fresh", "2 cups": nothing but quantity and descriptors; keep the words themselves
+            for (String word : words) {
+                if (out.length() > 0) out.append(' ');
+                out.append(singular(word));
+            }
+            if (out.length() == 0) return lower;
+        }
+        String name = out.toString();
+        String synonym = SYNONYMS.get(name);
+        return synonym != null ? synonym : name;
+    }
+
+    /**
+     * @param raw Ingredients in recipe order
+     * @return Canonical name of each ingredient, parallel to raw (null elements give "")
+     */
+    public static List<String> canonicalList(List<String> raw) {
+        List<String> names = new ArrayList<>(raw == null ? 0 : raw.size());
+        if (raw != null) {
+            for (String ingredient : raw) names.add(canonical(ingredient));
+        }
+        return names;
+    }
+
+    /**
+     * @param raw Ingredients in recipe order
+     * @return Distinct non-empty canonical names, in first-seen order
+     */
+    public static List<String> canonicalSet(List<String> raw) {
+        Set<String> names = new LinkedHashSet<>();
+        if (raw != null) {
+            for (String ingredient : raw) {
+                String name = canonical(ingredient);
+                if (!name.isEmpty()) names.add(name);
+            }
+        }
+        return new ArrayList<>(names);
+    }
+
+    /**
+     * @param canonicalNames Output of {@link #canonicalSet}
+     * @return Text indexed by recipes_fts: the names separated by ", "
+     */
+    public static String searchText(List<String> canonicalNames) {
+        return String.join(", ", canonicalNames);
+    }
+
+    /**
+     * Remove a leading quantity and unit only ("2 cups Flour, sifted" -> "Flour, sifted"),
+     * for names shown to the user. Case and the rest of the text are kept.
+     * @param raw Ingredient as written in a recipe
+     * @return Ingredient without its quantity, or the trimmed input if nothing else is left
+     */
+    public static String stripQuantity(String raw) {
+        if (raw == null) return "";
+        String trimmed = raw.trim();
+        int pos = 0;
+        List<String> words = new ArrayList<>();
+        List<Integer> ends = new ArrayList<>();
+        while (pos < trimmed.length()) {
+            while (pos < trimmed.length() && Character.isWhitespace(trimmed.charAt(pos))) pos++;
+            int end = pos;
+            while (end < trimmed.length() && !Character.isWhitespace(trimmed.charAt(end))) end++;
+            if (end > pos) {
+                // "tbsp." and "cups," are still units
+                int stop = end;
+                while (stop > pos + 1 && (trimmed.charAt(stop - 1) == '.' || trimmed.charAt(stop - 1) == ',')) stop--;
+                words.add(trimmed.substring(pos, stop).toLowerCase());
+                ends.add(end);
+            }
+            pos = end;
+        }
+        int skipped = skipQuantity(words);
+        if (skipped == 0 || skipped == words.size()) return trimmed;
+        return trimmed.substring(ends.get(skipped - 1)).trim();
+    }
+
+    // "tomatoes (about 2), diced" -> "tomatoes "
+    private static String cutNotes(String s) {
+        StringBuilder out = new StringBuilder(s.length());
+        int depth = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                if (depth > 0) depth--;
+            } else if (depth == 0) {
+                if (c == ',' || c == ';') break;
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    // Split on anything but letters, digits and the characters quantities and names use inside a word
+    private static List<String> words(String s) {
+        List<String> words = new ArrayList<>();
+        int i = 0;
+        while (i < s.length()) {
+            while (i < s.length() && !isTokenChar(s.charAt(i))) i++;
+            int end = i;
+            while (end < s.length() && isTokenChar(s.charAt(end))) end++;
+            if (end > i) {
+                // Trailing dots and hyphens are punctuation: "tbsp." , "salt-"
+                int stop = end;
+                while (stop > i && (s.charAt(stop - 1) == '.' || s.charAt(stop - 1) == '-')) stop--;
+                if (stop > i) words.add(s.substring(i, stop));
+            }
+            i = end;
+        }
+        return words;
+    }
+
+    private static boolean isTokenChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '-' || c == '/' || c == '.' || isVulgarFraction(c);
+    }
+
+    // Index of the first word after "2 1/2 cups of", "a pinch of", "1-2 tbsp"
+    private static int skipQuantity(List<String> words) {
+        int i = 0;
+        boolean quantity = false;
+        while (i < words.size()) {
+            String word = words.get(i);
+            if (isNumber(word) || (i == 0 && (word.equals("a") || word.equals("an")))) {
+                quantity = true;
+                i++;
+            } else if (quantity && (word.equals("to") || word.equals("x")) && i + 1 < words.size()
+                    && isNumber(words.get(i + 1))) {
+                i++;
+            } else {
+                break;
+            }
+        }
+        if (!quantity) return 0;
+        if (i < words.size() && UNIT_WORDS.contains(words.get(i))) {
+            i++;
+            if (i < words.size() && words.get(i).equals("of")) i++;
+        }
+        return i;
+    }
+
+    // "2", "1.5", "1/2", "1-2", "\u00bd", "1\u00bd"
+    private static boolean isNumber(String word) {
+        boolean digit = false;
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if ((c >= '0' && c <= '9') || isVulgarFraction(c)) {
+                digit = true;
+            } else if (c != '.' && c != '/' && c != '-') {
+                return false;
+            }
+        }
+        return digit;
+    }
+
+    private static boolean isVulgarFraction(char c) {
+        return (c >= '\u00bc' && c <= '\u00be') || (c >= '\u2150' && c <= '\u215e');
+    }
+
+    private static String singular(String word) {
+        String irregular = IRREGULAR_PLURALS.get(word);
+        if (irregular != null) return irregular;
+        int n = word.length();
+        if (n <= 3 || word.charAt(n - 1) != 's' || NOT_PLURAL.contains(word)) return word;
+        if (word.endsWith("ss") || word.endsWith("us") || word.endsWith("is")) return word;
+        if (word.endsWith("ies") && n > 4) return word.substring(0, n - 3) + "y";
+        if (word.endsWith("oes") || word.endsWith("ches") || word.endsWith("shes") || word.endsWith("xes")
+                || word.endsWith("sses")) {
+            return word.substring(0, n - 2);
+        }
+        return word.substring(0, n - 1);
+    }
+}
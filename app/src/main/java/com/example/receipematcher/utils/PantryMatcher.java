@@ -0,0 +1,138 @@
+package com.example.receipematcher.utils;
+
+import com.example.receipematcher.data.repository.RecipeRepository.AiRecipe;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Pantry snapshot prepared once for matching against many recipes.
+ * Pantry terms are reduced to {@link IngredientNormalizer#canonical} names and
+ * compiled into a {@link PantryTermAutomaton} up front, so each recipe
+ * ingredient is scanned once regardless of pantry size.
+ *
+ * Recipe ingredients are compared by their canonical names, which are stored
+ * at import (AiRecipe#canonicalIngredients). An ingredient matches when its
+ * canonical name equals a pantry term's, or contains one or is contained in
+ * one ("chicken" and "chicken breast").
+ */
+public class PantryMatcher {
+
+    // Separates terms in the joined haystacks; never produced by trim()
+    private static final char TERM_SEPARATOR = '\u0000';
+
+    private final Set<String> terms;
+    // recipe ingredient contains a pantry term
+    private final PantryTermAutomaton termAutomaton;
+    // pantry term contains the recipe ingredient
+    private final String joinedTerms;
+
+    /**
+     * Result of matching one recipe against the pantry
+     */
+    public static class MatchResult {
+        public final int matchedCount;
+        public final int totalCount;
+        public final float matchPercentage;
+        public final List<String> missingIngredients;
+        // Bit i is set when recipe ingredient i is available in the pantry
+        public final BitSet matchedMask;
+
+        MatchResult(int matchedCount, int totalCount, List<String> missingIngredients, BitSet matchedMask) {
+            this.matchedCount = matchedCount;
+            this.totalCount = totalCount;
+            this.matchPercentage = totalCount == 0 ? 0f : (float) matchedCount / totalCount * 100f;
+            this.missingIngredients = missingIngredients;
+            this.matchedMask = matchedMask;
+        }
+    }
+
+    /**
+     * @param pantryIngredients Raw pantry ingredient names (may contain nulls)
+     */
+    public PantryMatcher(List<String> pantryIngredients) {
+        this.terms = new LinkedHashSet<>(IngredientNormalizer.canonicalSet(pantryIngredients));
+        StringBuilder joined = new StringBuilder();
+        for (String term : terms) {
+            joined.append(TERM_SEPARATOR).append(term);
+        }
+        this.termAutomaton = new PantryTermAutomaton(new ArrayList<>(terms));
+        this.joinedTerms = joined.append(TERM_SEPARATOR).toString();
+    }
+
+    public boolean isEmpty() {
+        return terms.isEmpty();
+    }
+
+    /**
+     * Check a single recipe ingredient against every pantry term
+     * @param recipeIngredient Raw recipe ingredient
+     * @return true if any pantry item satisfies the ingredient
+     */
+    public boolean matches(String recipeIngredient) {
+        if (recipeIngredient == null) return false;
+        return matchesCanonical(IngredientNormalizer.canonical(recipeIngredient));
+    }
+
+    private boolean matchesCanonical(String canonicalIngredient) {
+        if (isEmpty() || canonicalIngredient.isEmpty()) return false;
+        if (terms.contains(canonicalIngredient)) return true;
+        // Substring matches in either direction
+        return termAutomaton.containsAny(canonicalIngredient) || joinedTerms.contains(canonicalIngredient);
+    }
+
+    /**
+     * The rule {@link #matches} applies per pantry term, for one term alone
+     * @param canonicalIngredient Canonical recipe ingredient
+     * @param term Canonical pantry term
+     * @return true if either name equals or contains the other
+     */
+    static boolean matchesTerm(String canonicalIngredient, String term) {
+        if (canonicalIngredient.isEmpty() || term.isEmpty()) return false;
+        return canonicalIngredient.contains(term) || term.contains(canonicalIngredient);
+    }
+
+    /**
+     * Compute matched count, percentage and missing ingredients in one pass
+     * @param recipe The recipe to match
+     * @return Match result, never null
+     */
+    public MatchResult match(AiRecipe recipe) {
+        if (recipe == null || recipe.ingredients == null) {
+            return new MatchResult(0, 0, Collections.emptyList(), new BitSet());
+        }
+
+        int totalIngredients = recipe.ingredients.size();
+        if (isEmpty()) {
+            return new MatchResult(0, totalIngredients, new ArrayList<>(recipe.ingredients), new BitSet());
+        }
+
+        // Canonical names were stored at import
+        List<String> canonical = recipe.canonicalIngredients;
+        boolean hasCanonical = canonical != null && canonical.size() == totalIngredients;
+
+        int matchedIngredients = 0;
+        List<String> missingIngredients = new ArrayList<>();
+        BitSet matchedMask = new BitSet(totalIngredients);
+        for (int i = 0; i < totalIngredients; i++) {
+            String recipeIngredient = recipe.ingredients.get(i);
+            if (recipeIngredient == null) continue;
+
+            boolean found = hasCanonical
+                    ? matchesCanonical(canonical.get(i))
+                    : matches(recipeIngredient);
+            if (found) {
+                matchedIngredients++;
+                matchedMask.set(i);
+            } else {
+                missingIngredients.add(recipeIngredient);
+            }
+        }
+
+        return new MatchResult(matchedIngredients, totalIngredients, missingIngredients, matchedMask);
+    }
+}
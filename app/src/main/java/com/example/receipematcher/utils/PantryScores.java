@@ -0,0 +1,244 @@
+package com.example.receipematcher.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Matched ingredient counts of every recipe in an {@link IngredientBitsetIndex},
+ * kept up to date as pantry items come and go.
+ *
+ * Each pantry term is resolved against the dictionary once, when it is added:
+ * names the term contains are looked up by name, and names containing the
+ * term are found through a trigram index of the dictionary. A dictionary id
+ * counts as available while at least one term matches it, and only when it
+ * becomes available (or stops being) are the counts of the recipes in its
+ * posting list adjusted. Adding or removing one pantry item therefore touches
+ * the recipes that use it, not the corpus.
+ *
+ * Dictionary ids are never renamed, so when the index is reloaded with the
+ * same names, or more, the resolved terms and the trigram index carry over
+ * and only the new names are matched against the pantry.
+ *
+ * Methods are synchronized: searches for successive pantries may overlap on
+ * the query executor.
+ */
+public class PantryScores {
+
+    private final IngredientBitsetIndex index;
+    private final int[] termHits; // by dictionary id: pantry terms matching it
+    private final int[] matched; // by recipe index
+    // Recipe indexes with matched > 0; position[r] is r's slot, or -1
+    private int[] candidates = new int[64];
+    private int candidateCount;
+    private final int[] position;
+    private final Map<String, int[]> termIds = new HashMap<>();
+    private final NameTrigrams trigrams;
+
+    public PantryScores(IngredientBitsetIndex index) {
+        this(index, null);
+    }
+
+    /**
+     * @param index Index to score
+     * @param previous Scores of the index this one replaces, or null; its pantry carries over
+     *                 if index has the same dictionary names for its ids
+     */
+    public PantryScores(IngredientBitsetIndex index, PantryScores previous) {
+        this.index = index;
+        this.termHits = new int[index.dictionarySize()];
+        this.matched = new int[index.size()];
+        this.position = new int[index.size()];
+        Arrays.fill(position, -1);
+        if (previous == null) {
+            this.trigrams = new NameTrigrams();
+            return;
+        }
+        synchronized (previous) {
+            if (!extendsDictionary(previous.index)) {
+                this.trigrams = new NameTrigrams();
+                return;
+            }
+            this.trigrams = previous.trigrams;
+            int known = previous.index.dictionarySize();
+            for (Map.Entry<String, int[]> entry : previous.termIds.entrySet()) {
+                int[] ids = withNewNames(entry.getKey(), entry.getValue(), known);
+                termIds.put(entry.getKey(), ids);
+                for (int id : ids) {
+                    if (termHits[id]++ == 0) adjust(id, 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Index the counts refer to
+     */
+    public IngredientBitsetIndex index() {
+        return index;
+    }
+
+    /**
+     * Move to a new pantry and rank against it
+     * @param pantryTerms Normalized pantry terms; only those added or removed since the last call are applied
+     * @param order Ranking order
+     * @param minCoverage See {@link RecipeTopK#rank}
+     * @return Best-first ranking for the new pantry
+     */
+    public synchronized RecipeTopK.Ranking rank(List<String> pantryTerms, RecipeTopK.Order order,
+                                                float minCoverage) {
+        update(pantryTerms);
+        int[] ranked = Arrays.copyOf(candidates, candidateCount);
+        return RecipeTopK.rank(index, matched, ranked, ranked.length, order, minCoverage);
+    }
+
+    private void update(List<String> pantryTerms) {
+        List<String> terms = pantryTerms == null ? Collections.emptyList() : pantryTerms;
+        Set<String> kept = new HashSet<>(terms);
+        for (String term : new ArrayList<>(termIds.keySet())) {
+            if (!kept.contains(term)) {
+                for (int id : termIds.remove(term)) {
+                    if (--termHits[id] == 0) adjust(id, -1);
+                }
+            }
+        }
+        for (String term : terms) {
+            if (term == null || term.isEmpty() || termIds.containsKey(term)) continue;
+            int[] ids = resolve(term);
+            termIds.put(term, ids);
+            for (int id : ids) {
+                if (termHits[id]++ == 0) adjust(id, 1);
+            }
+        }
+    }
+
+    // Dictionary ids this term alone makes available, by PantryMatcher's rules
+    private int[] resolve(String term) {
+        String canonical = IngredientNormalizer.canonical(term);
+        BitSet ids = new BitSet();
+        // Names the term contains, itself included
+        for (int start = 0; start < canonical.length(); start++) {
+            for (int end = start + 1; end <= canonical.length(); end++) {
+                int id = index.idOf(canonical.substring(start, end));
+                if (id >= 0) ids.set(id);
+            }
+        }
+        // Names that contain the term
+        for (int id : trigrams.candidates(index, canonical)) {
+            if (index.name(id).contains(canonical)) ids.set(id);
+        }
+        return ids.stream().toArray();
+    }
+
+    // Resolved ids of a term plus the dictionary names added from id known on
+    private int[] withNewNames(String term, int[] ids, int known) {
+        String canonical = IngredientNormalizer.canonical(term);
+        int[] out = Arrays.copyOf(ids, ids.length + 8);
+        int count = ids.length;
+        for (int id = known; id < termHits.length; id++) {
+            String name = index.name(id);
+            if (name == null || !PantryMatcher.matchesTerm(name, canonical)) continue;
+            if (count == out.length) out = Arrays.copyOf(out, count * 2);
+            out[count++] = id;
+        }
+        return Arrays.copyOf(out, count);
+    }
+
+    // true if every dictionary id of older has the same name in this index
+    private boolean extendsDictionary(IngredientBitsetIndex older) {
+        if (older.dictionarySize() > index.dictionarySize()) return false;
+        for (int id = 0; id < older.dictionarySize(); id++) {
+            if (!Objects.equals(older.name(id), index.name(id))) return false;
+        }
+        return true;
+    }
+
+    private void adjust(int id, int delta) {
+        for (int p = index.postingOffsets[id]; p < index.postingOffsets[id + 1]; p++) {
+            int r = index.postings[p];
+            matched[r] += delta;
+            if (delta > 0 && matched[r] == 1) {
+                if (candidateCount == candidates.length) {
+                    candidates = Arrays.copyOf(candidates, candidateCount * 2);
+                }
+                position[r] = candidateCount;
+                candidates[candidateCount++] = r;
+            } else if (delta < 0 && matched[r] == 0) {
+                // Swap-remove
+                int last = candidates[--candidateCount];
+                candidates[position[r]] = last;
+                position[last] = position[r];
+                position[r] = -1;
+            }
+        }
+    }
+
+    /**
+     * Dictionary ids by the trigrams of their names, shared by the scores of
+     * successive indexes over a growing dictionary; ids are added in order.
+     */
+    private static final class NameTrigrams {
+        private static final int N = 3;
+
+        // Ascending ids; element 0 holds the count
+        private final Map<Long, int[]> ids = new HashMap<>();
+        private int size; // ids below this are indexed
+
+        /**
+         * @return Ids of index whose names may contain term, ascending; every id for terms shorter than N
+         */
+        synchronized int[] candidates(IngredientBitsetIndex index, String term) {
+            int dictionarySize = index.dictionarySize();
+            for (; size < dictionarySize; size++) {
+                String name = index.name(size);
+                if (name != null) add(size, name);
+            }
+            if (term.length() < N) {
+                int[] all = new int[dictionarySize];
+                int count = 0;
+                for (int id = 0; id < dictionarySize; id++) {
+                    if (index.name(id) != null) all[count++] = id;
+                }
+                return Arrays.copyOf(all, count);
+            }
+            // The rarest trigram of the term bounds the names to check
+            int[] rarest = null;
+            for (int i = 0; i + N <= term.length(); i++) {
+                int[] list = ids.get(key(term, i));
+                if (list == null) return new int[0];
+                if (rarest == null || list[0] < rarest[0]) rarest = list;
+            }
+            // Ids added for a larger index sharing this one's dictionary are past its end
+            int end = 1;
+            while (end <= rarest[0] && rarest[end] < dictionarySize) end++;
+            return Arrays.copyOfRange(rarest, 1, end);
+        }
+
+        private void add(int id, String name) {
+            for (int i = 0; i + N <= name.length(); i++) {
+                long key = key(name, i);
+                int[] list = ids.get(key);
+                if (list == null) {
+                    list = new int[4];
+                } else if (list[list[0]] == id) {
+                    continue; // trigram repeated in this name
+                } else if (list[0] + 1 == list.length) {
+                    list = Arrays.copyOf(list, list.length * 2);
+                }
+                list[++list[0]] = id;
+                ids.put(key, list);
+            }
+        }
+
+        private static long key(String s, int i) {
+            return (long) s.charAt(i) << 32 | (long) s.charAt(i + 1) << 16 | s.charAt(i + 2);
+        }
+    }
+}
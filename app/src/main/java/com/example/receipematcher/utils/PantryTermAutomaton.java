@@ -0,0 +1,143 @@
+package com.example.receipematcher.utils;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Aho-Corasick automaton over a fixed set of pantry terms.
+ * Answers "does this text contain any of the terms?" in a single scan of the
+ * text, independent of how many terms the pantry holds.
+ */
+public class PantryTermAutomaton {
+
+    private static final int ROOT = 0;
+
+    // Per-node sparse transitions; ingredient text uses a small alphabet so
+    // linear probing of a short char array beats hashing
+    private char[][] edgeChars = new char[16][];
+    private int[][] edgeTargets = new int[16][];
+    private int[] edgeCounts = new int[16];
+    private int[] fail = new int[16];
+    private boolean[] terminal = new boolean[16];
+    private int nodeCount = 1;
+
+    /**
+     * @param terms Already normalized terms; null and empty entries are ignored
+     */
+    public PantryTermAutomaton(List<String> terms) {
+        edgeChars[ROOT] = new char[0];
+        edgeTargets[ROOT] = new int[0];
+        if (terms != null) {
+            for (String term : terms) {
+                if (term != null && !term.isEmpty()) addTerm(term);
+            }
+        }
+        buildFailureLinks();
+    }
+
+    /**
+     * @return true if no terms were added
+     */
+    public boolean isEmpty() {
+        return nodeCount == 1;
+    }
+
+    /**
+     * Check whether any term occurs as a substring of the text
+     * @param text Text to scan (same normalization as the terms)
+     * @return true on the first term occurrence
+     */
+    public boolean containsAny(String text) {
+        if (text == null || isEmpty()) return false;
+
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int next = transition(state, c);
+            while (next < 0 && state != ROOT) {
+                state = fail[state];
+                next = transition(state, c);
+            }
+            state = next < 0 ? ROOT : next;
+            if (terminal[state]) return true;
+        }
+        return false;
+    }
+
+    private void addTerm(String term) {
+        int state = ROOT;
+        for (int i = 0; i < term.length(); i++) {
+            char c = term.charAt(i);
+            int next = transition(state, c);
+            if (next < 0) {
+                next = newNode();
+                addEdge(state, c, next);
+            }
+            state = next;
+        }
+        terminal[state] = true;
+    }
+
+    private void buildFailureLinks() {
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int i = 0; i < edgeCounts[ROOT]; i++) {
+            int child = edgeTargets[ROOT][i];
+            fail[child] = ROOT;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int i = 0; i < edgeCounts[state]; i++) {
+                char c = edgeChars[state][i];
+                int child = edgeTargets[state][i];
+
+                int f = fail[state];
+                int target = transition(f, c);
+                while (target < 0 && f != ROOT) {
+                    f = fail[f];
+                    target = transition(f, c);
+                }
+                fail[child] = target < 0 ? ROOT : target;
+                // A term ending anywhere on the failure chain also ends here
+                terminal[child] |= terminal[fail[child]];
+                queue.add(child);
+            }
+        }
+    }
+
+    private int transition(int state, char c) {
+        char[] chars = edgeChars[state];
+        for (int i = 0; i < edgeCounts[state]; i++) {
+            if (chars[i] == c) return edgeTargets[state][i];
+        }
+        return -1;
+    }
+
+    private int newNode() {
+        if (nodeCount == fail.length) {
+            int capacity = nodeCount * 2;
+            edgeChars = Arrays.copyOf(edgeChars, capacity);
+            edgeTargets = Arrays.copyOf(edgeTargets, capacity);
+            edgeCounts = Arrays.copyOf(edgeCounts, capacity);
+            fail = Arrays.copyOf(fail, capacity);
+            terminal = Arrays.copyOf(terminal, capacity);
+        }
+        int node = nodeCount++;
+        edgeChars[node] = new char[0];
+        edgeTargets[node] = new int[0];
+        return node;
+    }
+
+    private void addEdge(int state, char c, int target) {
+        int count = edgeCounts[state];
+        if (count == edgeChars[state].length) {
+            int capacity = Math.max(2, count * 2);
+            edgeChars[state] = Arrays.copyOf(edgeChars[state], capacity);
+            edgeTargets[state] = Arrays.copyOf(edgeTargets[state], capacity);
+        }
+        edgeChars[state][count] = c;
+        edgeTargets[state][count] = target;
+        edgeCounts[state] = count + 1;
+    }
+}
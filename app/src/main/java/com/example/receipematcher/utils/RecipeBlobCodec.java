@@ -0,0 +1,136 @@
+package com.example.receipematcher.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Compact binary encoding for the string lists stored in ai_recipes
+ * (ingredientsBlob, stepsBlob), replacing JSON text for reads:
+ *
+ * <pre>
+ * varint count, then per string: varint byteLength, UTF-8 bytes
+ * </pre>
+ *
+ * Varints are unsigned LEB128. Decoding does not copy or tokenize the blob:
+ * it records each string's offset once and builds the String straight from
+ * the blob bytes when the element is first read. An empty or null blob
+ * decodes to an empty list.
+ */
+public class RecipeBlobCodec {
+
+    private RecipeBlobCodec() { }
+
+    /**
+     * @param values Strings to encode; null and empty elements are dropped, as the JSON columns' reader did
+     * @return Encoded blob
+     */
+    public static byte[] encode(List<String> values) {
+        List<byte[]> encoded = new ArrayList<>(values.size());
+        int size = 5;
+        for (String v : values) {
+            if (v == null || v.isEmpty()) continue;
+            byte[] bytes = v.getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            size += 5 + bytes.length;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size);
+        writeVarint(out, encoded.size());
+        for (byte[] bytes : encoded) {
+            writeVarint(out, bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @param blob Encoded blob, may be null
+     * @return Read-only list view over blob; blob must not be modified afterwards
+     * @throws IllegalArgumentException If the blob is truncated or malformed
+     */
+    public static List<String> decode(byte[] blob) {
+        if (blob == null || blob.length == 0) return Collections.emptyList();
+        return new BlobList(blob);
+    }
+
+    /**
+     * @param blob Encoded blob, may be null
+     * @return Number of strings, without decoding any of them
+     */
+    public static int count(byte[] blob) {
+        if (blob == null || blob.length == 0) return 0;
+        return (int) readVarint(blob, new int[] {0});
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7f) != 0) {
+            out.write((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    // pos[0] is advanced past the varint
+    private static long readVarint(byte[] blob, int[] pos) {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            if (pos[0] >= blob.length || shift > 28) {
+                throw new IllegalArgumentException("Malformed recipe blob");
+            }
+            byte b = blob[pos[0]++];
+            value |= (long) (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) return value;
+            shift += 7;
+        }
+    }
+
+    private static final class BlobList extends AbstractList<String> implements RandomAccess {
+        private final byte[] blob;
+        private final int[] offsets;
+        private final int[] lengths;
+        private final String[] decoded;
+
+        BlobList(byte[] blob) {
+            this.blob = blob;
+            int[] pos = {0};
+            long count = readVarint(blob, pos);
+            // Every element takes at least one byte, which bounds a corrupt count
+            if (count > blob.length - pos[0]) {
+                throw new IllegalArgumentException("Malformed recipe blob");
+            }
+            int n = (int) count;
+            offsets = new int[n];
+            lengths = new int[n];
+            decoded = new String[n];
+            for (int i = 0; i < n; i++) {
+                long length = readVarint(blob, pos);
+                if (length > blob.length - pos[0]) {
+                    throw new IllegalArgumentException("Malformed recipe blob");
+                }
+                offsets[i] = pos[0];
+                lengths[i] = (int) length;
+                pos[0] += (int) length;
+            }
+        }
+
+        @Override
+        public String get(int index) {
+            String s = decoded[index];
+            if (s == null) {
+                s = new String(blob, offsets[index], lengths[index], StandardCharsets.UTF_8);
+                decoded[index] = s;
+            }
+            return s;
+        }
+
+        @Override
+        public int size() {
+            return offsets.length;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.receipematcher.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parallel parse / single-writer pipeline for the recipes JSONL dataset.
+ *
+ * A reader thread cuts the input into chunks of lines and hands each chunk to
+ * a pool of parser threads (JSON decoding plus {@link RecipeMetadata}). The
+ * pending results are queued in input order on a bounded queue, which the
+ * calling thread drains into the {@link Sink}. The reader blocks when the
+ * queue is full, so parsing never runs more than a few chunks ahead of the
+ * writer.
+ *
+ * The sink always runs on the calling thread, so it can use a database
+ * transaction opened by the caller. Each batch carries the byte offset just
+ * past its last line, which callers can persist as a resume checkpoint.
+ */
+public class RecipeImportPipeline {
+
+    /**
+     * Parsed rows of one chunk, in input order
+     */
+    public static class Batch {
+        public final List<RecipeJsonlParser.ParsedRecipe> recipes;
+        public final List<RecipeMetadata> metadata; // parallel to recipes
+        public final int lineCount; // input lines in the chunk, including skipped ones
+        public final long endOffset; // input byte offset after the chunk's last line
+
+        Batch(List<RecipeJsonlParser.ParsedRecipe> recipes, List<RecipeMetadata> metadata, int lineCount,
+              long endOffset) {
+            this.recipes = recipes;
+            this.metadata = metadata;
+            this.lineCount = lineCount;
+            this.endOffset = endOffset;
+        }
+    }
+
+    /**
+     * Receives batches on the calling thread, in input order
+     */
+    public interface Sink {
+        void accept(Batch batch) throws Exception;
+    }
+
+    private static final Future<Batch> END = CompletableFuture.completedFuture(null);
+
+    private final int parserThreads;
+    private final int chunkLines;
+    private final int queueCapacity;
+
+    /**
+     * @param parserThreads Number of parser threads (at least 1)
+     * @param chunkLines Lines per parse task
+     * @param queueCapacity Chunks allowed to wait for the writer
+     */
+    public RecipeImportPipeline(int parserThreads, int chunkLines, int queueCapacity) {
+        this.parserThreads = Math.max(1, parserThreads);
+        this.chunkLines = Math.max(1, chunkLines);
+        this.queueCapacity = Math.max(1, queueCapacity);
+    }
+
+    /**
+     * @return Pipeline sized for this device: one core is left to the writer
+     */
+    public static RecipeImportPipeline forDevice() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int parsers = Math.max(1, cores - 1);
+        return new RecipeImportPipeline(parsers, 500, parsers * 2);
+    }
+
+    /**
+     * Read, parse and write the whole input
+     * @param in UTF-8 JSONL input; read on a separate thread until EOF
+     * @param startOffset Byte offset of in's first byte within the dataset (0 unless resuming)
+     * @param sink Writer, called on this thread
+     * @return Number of recipes passed to the sink
+     * @throws Exception The first read, parse or sink failure
+     */
+    public int run(InputStream in, long startOffset, Sink sink) throws Exception {
+        BlockingQueue<Future<Batch>> pending = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService parsers = Executors.newFixedThreadPool(parserThreads, r -> {
+            Thread t = new Thread(r, "recipe-parse-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        Thread readerThread = new Thread(() -> readChunks(in, startOffset, parsers, pending), "recipe-read");
+        readerThread.setDaemon(true);
+        readerThread.start();
+
+        int total = 0;
+        try {
+            while (true) {
+                Future<Batch> next = pending.take();
+                if (next == END) break;
+                Batch batch;
+                try {
+                    batch = next.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    throw cause instanceof Exception ? (Exception) cause : e;
+                }
+                sink.accept(batch);
+                total += batch.recipes.size();
+            }
+        } finally {
+            // Stops the reader (blocked on the queue or on I/O) and any queued parses
+            readerThread.interrupt();
+            parsers.shutdownNow();
+        }
+        return total;
+    }
+
+    private void readChunks(InputStream in, long startOffset, ExecutorService parsers,
+                            BlockingQueue<Future<Batch>> pending) {
+        try {
+            LineReader reader = new LineReader(in, startOffset);
+            List<String> chunk = new ArrayList<>(chunkLines);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                chunk.add(line);
+                if (chunk.size() == chunkLines) {
+                    submit(chunk, reader.offset, parsers, pending);
+                    chunk = new ArrayList<>(chunkLines);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                submit(chunk, reader.offset, parsers, pending);
+            }
+            pending.put(END);
+        } catch (InterruptedException e) {
+            // Writer gave up; nothing is waiting for us
+        } catch (Exception e) {
+            // Surface the read error to the writer in order
+            CompletableFuture<Batch> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            try {
+                pending.put(failed);
+            } catch (InterruptedException ignored) {
+            }
+        }
+    }
+
+    private static void submit(List<String> lines, long endOffset, ExecutorService parsers,
+                               BlockingQueue<Future<Batch>> pending) throws InterruptedException {
+        pending.put(parsers.submit(() -> parse(lines, endOffset)));
+    }
+
+    private static Batch parse(List<String> lines, long endOffset) {
+        List<RecipeJsonlParser.ParsedRecipe> recipes = new ArrayList<>(lines.size());
+        List<RecipeMetadata> metadata = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            RecipeJsonlParser.ParsedRecipe recipe = RecipeJsonlParser.parse(line);
+            if (recipe == null) continue;
+            recipes.add(recipe);
+            // Derive metadata once here instead of on every query
+            metadata.add(RecipeMetadata.generate(recipe.name, recipe.ingredients, recipe.steps));
+        }
+        return new Batch(recipes, metadata, lines.size(), endOffset);
+    }
+
+    /**
+     * Splits a UTF-8 stream on '\n' while tracking the byte offset, which a
+     * Reader cannot report. A trailing '\r' is dropped like BufferedReader does.
+     */
+    static final class LineReader {
+        private final InputStream in;
+        private final byte[] buf = new byte[1 << 16];
+        private int pos;
+        private int limit;
+        private byte[] line = new byte[1024];
+        long offset; // bytes consumed up to the end of the last returned line
+
+        LineReader(InputStream in, long startOffset) {
+            this.in = in;
+            this.offset = startOffset;
+        }
+
+        String readLine() throws IOException {
+            int length = 0;
+            while (true) {
+                if (pos == limit) {
+                    limit = in.read(buf, 0, buf.length);
+                    pos = 0;
+                    if (limit <= 0) {
+                        limit = 0;
+                        return length == 0 ? null : decode(length);
+                    }
+                }
+                int start = pos;
+                while (pos < limit && buf[pos] != '\n') pos++;
+                int n = pos - start;
+                if (length + n > line.length) {
+                    line = Arrays.copyOf(line, Math.max(line.length * 2, length + n));
+                }
+                System.arraycopy(buf, start, line, length, n);
+                length += n;
+                offset += n;
+                if (pos < limit) {
+                    // Consume the '\n'
+                    pos++;
+                    offset++;
+                    return decode(length);
+                }
+            }
+        }
+
+        private String decode(int length) {
+            if (length > 0 && line[length - 1] == '\r') length--;
+            return new String(line, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.receipematcher.utils;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Parses one line of the recipes JSONL dataset with a streaming reader, so no
+ * object tree is built per line. Only "name", "ingredients" and "steps" (plus
+ * "op" and "key" in delta files) are read; any other field is skipped.
+ */
+public class RecipeJsonlParser {
+
+    /**
+     * A dataset row, ready to be written to ai_recipes
+     */
+    public static class ParsedRecipe {
+        public final String name;
+        // Natural key: stable hash of the name and ingredients, unique in ai_recipes
+        public final String key;
+        // Lowercased and trimmed, as stored in ingredientsBlob
+        public final List<String> ingredients;
+        public final List<String> steps;
+        // Distinct IngredientNormalizer#canonical names, linked through ingredients_dict
+        public final List<String> canonicalIngredients;
+        // Canonical names, indexed by recipes_fts and used for SQL ranking and filters
+        public final String ingredientTokens;
+        // RecipeBlobCodec encodings, read back by the app
+        public final byte[] ingredientsBlob;
+        public final byte[] stepsBlob;
+        // Canonical name of each ingredient, parallel to ingredientsBlob
+        public final byte[] canonicalBlob;
+
+        ParsedRecipe(String name, List<String> ingredients, List<String> steps) {
+            this.name = name;
+            this.ingredients = ingredients;
+            this.steps = steps;
+            List<String> canonical = IngredientNormalizer.canonicalList(ingredients);
+            this.canonicalIngredients = distinct(canonical);
+            this.ingredientTokens = IngredientNormalizer.searchText(canonicalIngredients);
+            this.ingredientsBlob = RecipeBlobCodec.encode(ingredients);
+            this.stepsBlob = RecipeBlobCodec.encode(steps);
+            this.canonicalBlob = RecipeBlobCodec.encode(canonical);
+            this.key = recipeKey(name, toJson(ingredients));
+        }
+    }
+
+    /**
+     * One line of a delta file. "op" is "add" (the default), "update" or "delete":
+     * <pre>
+     * {"op": "add", "name": ..., "ingredients": [...], "steps": [...]}
+     * {"op": "update", "key": "&lt;old recipeKey&gt;", "name": ..., "ingredients": [...], "steps": [...]}
+     * {"op": "delete", "key": "&lt;recipeKey&gt;"}
+     * </pre>
+     */
+    public static class DeltaEntry {
+        public static final String OP_ADD = "add";
+        public static final String OP_UPDATE = "update";
+        public static final String OP_DELETE = "delete";
+
+        public final String op;
+        public final String key; // row to update or delete; null for adds
+        public final ParsedRecipe recipe; // new content; null for deletes
+
+        DeltaEntry(String op, String key, ParsedRecipe recipe) {
+            this.op = op;
+            this.key = key;
+            this.recipe = recipe;
+        }
+    }
+
+    private RecipeJsonlParser() { }
+
+    /**
+     * @param line One JSONL line
+     * @return Parsed recipe, or null if the line is blank, malformed or has no name
+     */
+    public static ParsedRecipe parse(String line) {
+        Fields f = read(line);
+        return f == null ? null : f.recipe();
+    }
+
+    /**
+     * @param line One line of a delta file
+     * @return Parsed entry, or null if the line is blank, malformed or incomplete for its op
+     */
+    public static DeltaEntry parseDelta(String line) {
+        Fields f = read(line);
+        if (f == null) return null;
+        String op = f.op == null ? DeltaEntry.OP_ADD : f.op;
+        switch (op) {
+            case DeltaEntry.OP_ADD:
+                return f.recipe() == null ? null : new DeltaEntry(op, null, f.recipe());
+            case DeltaEntry.OP_UPDATE:
+                return f.key == null || f.recipe() == null ? null : new DeltaEntry(op, f.key, f.recipe());
+            case DeltaEntry.OP_DELETE:
+                return f.key == null ? null : new DeltaEntry(op, f.key, null);
+            default:
+                return null;
+        }
+    }
+
+    private static final class Fields {
+        String op;
+        String key;
+        String name = "";
+        final List<String> ingredients = new ArrayList<>();
+        final List<String> steps = new ArrayList<>();
+
+        ParsedRecipe recipe() {
+            return name.isEmpty() ? null : new ParsedRecipe(name, ingredients, steps);
+        }
+    }
+
+    private static Fields read(String line) {
+        if (line == null || line.trim().isEmpty()) return null;
+        Fields f = new Fields();
+        try (JsonReader reader = new JsonReader(new StringReader(line))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "name":
+                        String n = readString(reader);
+                        f.name = n == null ? "" : n.trim();
+                        break;
+                    case "ingredients":
+                        readStrings(reader, f.ingredients, true);
+                        break;
+                    case "steps":
+                        readStrings(reader, f.steps, false);
+                        break;
+                    case "op":
+                        f.op = readString(reader);
+                        break;
+                    case "key":
+                        f.key = readString(reader);
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+            reader.endObject();
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            return null;
+        }
+        return f;
+    }
+
+    // Strings and numbers are taken as text; anything else is skipped
+    private static String readString(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.STRING || token == JsonToken.NUMBER) {
+            return reader.nextString();
+        }
+        reader.skipValue();
+        return null;
+    }
+
+    private static void readStrings(JsonReader reader, List<String> out, boolean normalize) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return;
+        }
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String s = readString(reader);
+            if (s == null) continue;
+            out.add(normalize ? s.trim().toLowerCase() : s);
+        }
+        reader.endArray();
+    }
+
+    /**
+     * Content-derived recipe key, so re-importing the same line finds the same row
+     * @param name Recipe name
+     * @param ingredientsJson Normalized ingredients as a JSON array
+     * @return 64-bit FNV-1a hash in hex
+     */
+    public static String recipeKey(String name, String ingredientsJson) {
+        long hash = 0xcbf29ce484222325L;
+        hash = fnv1a(hash, name.toLowerCase());
+        hash = fnv1a(hash, "\n");
+        hash = fnv1a(hash, ingredientsJson);
+        return Long.toHexString(hash);
+    }
+
+    private static long fnv1a(long hash, String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            hash = (hash ^ (c & 0xff)) * 0x100000001b3L;
+            hash = (hash ^ (c >>> 8)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // Same as IngredientNormalizer#canonicalSet, without normalizing twice
+    private static List<String> distinct(List<String> canonical) {
+        Set<String> names = new LinkedHashSet<>();
+        for (String name : canonical) {
+            if (!name.isEmpty()) names.add(name);
+        }
+        return new ArrayList<>(names);
+    }
+
+    private static String toJson(List<String> values) {
+        StringWriter out = new StringWriter();
+        try (JsonWriter writer = new JsonWriter(out)) {
+            writer.beginArray();
+            for (String v : values) writer.value(v);
+            writer.endArray();
+        } catch (IOException e) {
+            // StringWriter does not throw
+            throw new IllegalStateException(e);
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.receipematcher.utils;
+
+import com.example.receipematcher.data.repository.RecipeRepository.AiRecipe;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches {@link PantryMatcher.MatchResult}s per recipe id for one pantry version.
+ * The adapter, filters and sorting all read from here, so a recipe is matched
+ * at most once until the pantry actually changes.
+ *
+ * Once an {@link IngredientBitsetIndex} is installed, recipes are matched by
+ * dictionary id against the pantry's bitset instead of by string scanning.
+ */
+public class RecipeMatchCache {
+
+    private static class Snapshot {
+        final int version;
+        final List<String> pantryTerms;
+        final PantryMatcher matcher;
+        final IngredientBitsetIndex index;
+        // Resolved on first use, off the thread that installed the pantry
+        private IngredientBitsetIndex.PantrySet pantrySet;
+        final ConcurrentHashMap<Long, PantryMatcher.MatchResult> results = new ConcurrentHashMap<>();
+
+        Snapshot(int version, List<String> pantryTerms, IngredientBitsetIndex index) {
+            this.version = version;
+            this.pantryTerms = pantryTerms;
+            this.matcher = new PantryMatcher(pantryTerms);
+            this.index = index;
+        }
+
+        synchronized IngredientBitsetIndex.PantrySet pantrySet() {
+            if (pantrySet == null && index != null) {
+                pantrySet = index.pantrySet(matcher);
+            }
+            return pantrySet;
+        }
+
+        PantryMatcher.MatchResult match(AiRecipe recipe) {
+            IngredientBitsetIndex.PantrySet set = pantrySet();
+            return set != null ? set.match(recipe) : matcher.match(recipe);
+        }
+    }
+
+    private volatile Snapshot snapshot = new Snapshot(0, new ArrayList<>(), null);
+
+    /**
+     * Install a new pantry snapshot; cached results are dropped only if the
+     * terms differ from the current ones
+     * @param pantryTerms Pantry ingredient names from the latest pantry emission
+     * @return true if the pantry changed and cached results were invalidated
+     */
+    public synchronized boolean updatePantry(List<String> pantryTerms) {
+        List<String> terms = pantryTerms == null ? new ArrayList<>() : new ArrayList<>(pantryTerms);
+        Snapshot current = snapshot;
+        if (current.pantryTerms.equals(terms)) {
+            return false;
+        }
+        snapshot = new Snapshot(current.version + 1, terms, current.index);
+        return true;
+    }
+
+    /**
+     * Switch matching to a (re)loaded ingredient index; cached results are dropped
+     * @param index Index over the current recipes, or null for string matching
+     * @return true if the index changed
+     */
+    public synchronized boolean setIndex(IngredientBitsetIndex index) {
+        Snapshot current = snapshot;
+        if (current.index == index) {
+            return false;
+        }
+        snapshot = new Snapshot(current.version + 1, current.pantryTerms, index);
+        return true;
+    }
+
+    /**
+     * @return Version counter bumped on every pantry change
+     */
+    public int getPantryVersion() {
+        return snapshot.version;
+    }
+
+    /**
+     * @return Pantry terms the cached results were computed against
+     */
+    public List<String> getPantryTerms() {
+        return snapshot.pantryTerms;
+    }
+
+    /**
+     * Get the match result for a recipe, computing it on first access
+     * @param recipe Recipe loaded from the database (keyed by its id)
+     * @return Match result for the current pantry version
+     */
+    public PantryMatcher.MatchResult get(AiRecipe recipe) {
+        Snapshot current = snapshot;
+        if (recipe == null) {
+            return current.matcher.match(null);
+        }
+        PantryMatcher.MatchResult cached = current.results.get(recipe.id);
+        if (cached == null) {
+            cached = current.match(recipe);
+            current.results.put(recipe.id, cached);
+        }
+        return cached;
+    }
+}
@@ -20,38 +20,23 @@ public class RecipeMatchCalculator {
         if (recipe == null || recipe.ingredients == null || recipe.ingredients.isEmpty()) {
             return 0f;
         }
-        
-        if (pantryIngredients == null || pantryIngredients.isEmpty()) {
-            return 0f;
-        }
-        
-        int totalIngredients = recipe.ingredients.size();
-        int matchedIngredients = 0;
-        
-        // Convert pantry ingredients to lowercase for case-insensitive matching
-        List<String> normalizedPantry = new ArrayList<>();
-        for (String ingredient : pantryIngredients) {
-            if (ingredient != null) {
-                normalizedPantry.add(ingredient.toLowerCase().trim());
-            }
+        return new PantryMatcher(pantryIngredients).match(recipe).matchPercentage;
+    }
+
+    /**
+     * Calculate match percentage the way the recipe list shows it
+     * @param recipe The recipe to calculate match for
+     * @param matchCache Pantry match cache, matching by ingredient id once its index is set; null for an empty pantry
+     * @return Match percentage (0-100)
+     */
+    public static float calculateMatchPercentage(AiRecipe recipe, RecipeMatchCache matchCache) {
+        if (matchCache == null) {
+            return calculateMatchPercentage(recipe, (List<String>) null);
         }
-        
-        // Check each recipe ingredient against pantry
-        for (String recipeIngredient : recipe.ingredients) {
-            if (recipeIngredient == null) continue;
-            
-            String normalizedRecipeIngredient = recipeIngredient.toLowerCase().trim();
-            
-            // Check for exact matches or partial matches
-            for (String pantryItem : normalizedPantry) {
-                if (isIngredientMatch(normalizedRecipeIngredient, pantryItem)) {
-                    matchedIngredients++;
-                    break; // Found a match, move to next recipe ingredient
-                }
-            }
+        if (recipe == null || recipe.ingredients == null || recipe.ingredients.isEmpty()) {
+            return 0f;
         }
-        
-        return (float) matchedIngredients / totalIngredients * 100f;
+        return matchCache.get(recipe).matchPercentage;
     }
     
     /**
@@ -61,45 +46,26 @@ public class RecipeMatchCalculator {
      * @return List of missing ingredients
      */
     public static List<String> getMissingIngredients(AiRecipe recipe, List<String> pantryIngredients) {
-        List<String> missingIngredients = new ArrayList<>();
-        
         if (recipe == null || recipe.ingredients == null) {
-            return missingIngredients;
-        }
-        
-        if (pantryIngredients == null || pantryIngredients.isEmpty()) {
-            return new ArrayList<>(recipe.ingredients);
+            return new ArrayList<>();
         }
-        
-        // Convert pantry ingredients to lowercase for case-insensitive matching
-        List<String> normalizedPantry = new ArrayList<>();
-        for (String ingredient : pantryIngredients) {
-            if (ingredient != null) {
-                normalizedPantry.add(ingredient.toLowerCase().trim());
-            }
+        return new PantryMatcher(pantryIngredients).match(recipe).missingIngredients;
+    }
+
+    /**
+     * Get list of missing ingredients the way the recipe list shows them
+     * @param recipe The recipe to check
+     * @param matchCache Pantry match cache, matching by ingredient id once its index is set; null for an empty pantry
+     * @return List of missing ingredients
+     */
+    public static List<String> getMissingIngredients(AiRecipe recipe, RecipeMatchCache matchCache) {
+        if (matchCache == null) {
+            return getMissingIngredients(recipe, (List<String>) null);
         }
-        
-        // Check each recipe ingredient
-        for (String recipeIngredient : recipe.ingredients) {
-            if (recipeIngredient == null) continue;
-            
-            String normalizedRecipeIngredient = recipeIngredient.toLowerCase().trim();
-            boolean found = false;
-            
-            // Check if ingredient is available in pantry
-            for (String pantryItem : normalizedPantry) {
-                if (isIngredientMatch(normalizedRecipeIngredient, pantryItem)) {
-                    found = true;
-                    break;
-                }
-            }
-            
-            if (!found) {
-                missingIngredients.add(recipeIngredient);
-            }
+        if (recipe == null || recipe.ingredients == null) {
+            return new ArrayList<>();
         }
-        
-        return missingIngredients;
+        return matchCache.get(recipe).missingIngredients;
     }
     
     /**
@@ -112,84 +78,23 @@ public class RecipeMatchCalculator {
         if (recipe == null || recipe.ingredients == null || recipe.ingredients.isEmpty()) {
             return 0;
         }
-        
-        if (pantryIngredients == null || pantryIngredients.isEmpty()) {
-            return 0;
-        }
-        
-        int matchedCount = 0;
-        
-        // Convert pantry ingredients to lowercase for case-insensitive matching
-        List<String> normalizedPantry = new ArrayList<>();
-        for (String ingredient : pantryIngredients) {
-            if (ingredient != null) {
-                normalizedPantry.add(ingredient.toLowerCase().trim());
-            }
-        }
-        
-        // Check each recipe ingredient against pantry
-        for (String recipeIngredient : recipe.ingredients) {
-            if (recipeIngredient == null) continue;
-            
-            String normalizedRecipeIngredient = recipeIngredient.toLowerCase().trim();
-            
-            // Check for matches
-            for (String pantryItem : normalizedPantry) {
-                if (isIngredientMatch(normalizedRecipeIngredient, pantryItem)) {
-                    matchedCount++;
-                    break; // Found a match, move to next recipe ingredient
-                }
-            }
-        }
-        
-        return matchedCount;
-    }
-    
-    /**
-     * Determine if a recipe ingredient matches a pantry ingredient
-     * Uses fuzzy matching to handle variations in ingredient names
-     */
-    private static boolean isIngredientMatch(String recipeIngredient, String pantryIngredient) {
-        if (recipeIngredient == null || pantryIngredient == null) {
-            return false;
-        }
-        
-        // Exact match
-        if (recipeIngredient.equals(pantryIngredient)) {
-            return true;
-        }
-        
-        // Check if pantry ingredient is contained in recipe ingredient or vice versa
-        if (recipeIngredient.contains(pantryIngredient) || pantryIngredient.contains(recipeIngredient)) {
-            return true;
-        }
-        
-        // Check for common ingredient variations
-        return checkIngredientVariations(recipeIngredient, pantryIngredient);
+        return new PantryMatcher(pantryIngredients).match(recipe).matchedCount;
     }
-    
+
     /**
-     * Check for common ingredient name variations
+     * Get count of matched ingredients the way the recipe list counts them
+     * @param recipe The recipe to check
+     * @param matchCache Pantry match cache, matching by ingredient id once its index is set; null for an empty pantry
+     * @return Number of matched ingredients
      */
-    private static boolean checkIngredientVariations(String ingredient1, String ingredient2) {
-        // Remove common words that don't affect matching
-        String[] commonWords = {"fresh", "dried", "ground", "whole", "chopped", "sliced", "diced", "minced"};
-        
-        String cleaned1 = ingredient1;
-        String cleaned2 = ingredient2;
-        
-        for (String word : commonWords) {
-            cleaned1 = cleaned1.replaceAll("\\b" + word + "\\b", "").trim();
-            cleaned2 = cleaned2.replaceAll("\\b" + word + "\\b", "").trim();
+    public static int getMatchedIngredientsCount(AiRecipe recipe, RecipeMatchCache matchCache) {
+        if (matchCache == null) {
+            return getMatchedIngredientsCount(recipe, (List<String>) null);
         }
-        
-        // Check if cleaned versions match
-        if (cleaned1.equals(cleaned2)) {
-            return true;
+        if (recipe == null || recipe.ingredients == null || recipe.ingredients.isEmpty()) {
+            return 0;
         }
-        
-        // Check if one contains the other after cleaning
-        return cleaned1.contains(cleaned2) || cleaned2.contains(cleaned1);
+        return matchCache.get(recipe).matchedCount;
     }
     
     /**
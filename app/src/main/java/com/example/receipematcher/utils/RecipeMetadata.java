@@ -0,0 +1,237 @@
+package com.example.receipematcher.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Derived recipe metadata (cuisine, dietary flags, time, difficulty, rating...).
+ * Generated once per recipe at import time and persisted on ai_recipes, so
+ * queries read it instead of recomputing it.
+ */
+public class RecipeMetadata {
+
+    // Dietary flag bits stored in ai_recipes.dietaryFlags
+    public static final int FLAG_VEGETARIAN = 1;
+    public static final int FLAG_VEGAN = 1 << 1;
+    public static final int FLAG_GLUTEN_FREE = 1 << 2;
+    public static final int FLAG_DAIRY_FREE = 1 << 3;
+    public static final int FLAG_LOW_CARB = 1 << 4;
+    public static final int FLAG_KETO = 1 << 5;
+    public static final int FLAG_PALEO = 1 << 6;
+    public static final int FLAG_HEALTHY = 1 << 7;
+
+    // Cuisine bits stored in ai_recipes.cuisineFlags; a recipe can have several
+    public static final int CUISINE_ITALIAN = 1;
+    public static final int CUISINE_ASIAN = 1 << 1;
+    public static final int CUISINE_MEXICAN = 1 << 2;
+    public static final int CUISINE_AMERICAN = 1 << 3;
+    public static final int CUISINE_MEDITERRANEAN = 1 << 4;
+    public static final int CUISINE_INDIAN = 1 << 5;
+    public static final int CUISINE_FRENCH = 1 << 6;
+    public static final int CUISINE_THAI = 1 << 7;
+    public static final int CUISINE_CHINESE = 1 << 8;
+    public static final int CUISINE_JAPANESE = 1 << 9;
+
+    public String cuisine = "American"; // primary cuisine, for display
+    public int cuisineFlags;
+    public int dietaryFlags;
+    public int cookingTimeMinutes = 30;
+    public String difficulty = "Easy"; // "Easy", "Medium", "Hard"
+    public float rating = 4.0f; // 0.0 - 5.0
+    public int reviewCount;
+    public String nutritionInfo = "";
+    public boolean isTrending;
+    public boolean isPopular;
+    public boolean isQuick; // Under 30 minutes
+    public boolean isHealthy;
+
+    /**
+     * Generate metadata based on recipe content (mock heuristics)
+     * @param name Recipe name
+     * @param ingredients Recipe ingredients
+     * @param steps Recipe steps (may be null)
+     * @return Generated metadata, defaults if name or ingredients are missing
+     */
+    public static RecipeMetadata generate(String name, List<String> ingredients, List<String> steps) {
+        RecipeMetadata meta = new RecipeMetadata();
+        if (name == null || ingredients == null) return meta;
+
+        String recipeName = name.toLowerCase();
+        String ingredientsText = String.join(" ", ingredients).toLowerCase();
+
+        // Determine cuisine based on ingredients and name
+        meta.cuisine = determineCuisine(recipeName, ingredientsText);
+        meta.cuisineFlags = determineCuisineFlags(recipeName, ingredientsText);
+
+        // Generate dietary flags
+        meta.dietaryFlags = determineDietaryFlags(ingredientsText);
+
+        // Estimate cooking time based on steps count
+        int stepCount = steps != null ? steps.size() : 5;
+        meta.cookingTimeMinutes = Math.max(15, stepCount * 5 + new Random(name.hashCode()).nextInt(20));
+
+        // Determine difficulty based on steps and ingredients
+        meta.difficulty = determineDifficulty(stepCount, ingredients.size());
+
+        // Generate rating (mock)
+        Random random = new Random(name.hashCode());
+        meta.rating = 3.5f + random.nextFloat() * 1.5f; // 3.5 - 5.0
+        meta.reviewCount = random.nextInt(500) + 10;
+
+        // Set flags
+        meta.isQuick = meta.cookingTimeMinutes <= 30;
+        meta.isHealthy = (meta.dietaryFlags & FLAG_HEALTHY) != 0;
+        meta.isPopular = meta.rating >= 4.3f && meta.reviewCount >= 100;
+        meta.isTrending = random.nextFloat() < 0.15f; // 15% chance
+
+        // Generate nutrition info (mock), seeded so re-imports are stable
+        int calories = 200 + (ingredients.size() * 50) + random.nextInt(200);
+        meta.nutritionInfo = calories + " cal";
+
+        return meta;
+    }
+
+    /**
+     * Expand stored dietary flags into display tags
+     * @param dietaryFlags Bitmask of FLAG_* values
+     * @return Tags in display order
+     */
+    public static List<String> dietaryTags(int dietaryFlags) {
+        List<String> tags = new ArrayList<>();
+        if ((dietaryFlags & FLAG_VEGETARIAN) != 0) tags.add("Vegetarian");
+        if ((dietaryFlags & FLAG_VEGAN) != 0) tags.add("Vegan");
+        if ((dietaryFlags & FLAG_GLUTEN_FREE) != 0) tags.add("Gluten-Free");
+        if ((dietaryFlags & FLAG_DAIRY_FREE) != 0) tags.add("Dairy-Free");
+        if ((dietaryFlags & FLAG_LOW_CARB) != 0) tags.add("Low-Carb");
+        return tags;
+    }
+
+    private static String determineCuisine(String recipeName, String ingredientsText) {
+        if (recipeName.contains("pasta") || recipeName.contains("pizza") ||
+            ingredientsText.contains("parmesan") || ingredientsText.contains("basil")) {
+            return "Italian";
+        } else if (recipeName.contains("stir") || recipeName.contains("asian") ||
+                   ingredientsText.contains("soy sauce") || ingredientsText.contains("ginger")) {
+            return "Asian";
+        } else if (recipeName.contains("taco") || recipeName.contains("burrito") ||
+                   ingredientsText.contains("cumin") || ingredientsText.contains("cilantro")) {
+            return "Mexican";
+        } else if (recipeName.contains("curry") || ingredientsText.contains("turmeric")) {
+            return "Indian";
+        } else if (ingredientsText.contains("olive oil") || ingredientsText.contains("feta")) {
+            return "Mediterranean";
+        } else {
+            return "American";
+        }
+    }
+
+    // Every cuisine whose keywords appear, for the cuisine filter
+    private static int determineCuisineFlags(String recipeName, String ingredientsText) {
+        int flags = 0;
+        if (recipeName.contains("pasta") || recipeName.contains("pizza") ||
+            ingredientsText.contains("parmesan") || ingredientsText.contains("basil")) {
+            flags |= CUISINE_ITALIAN;
+        }
+        if (recipeName.contains("stir") || recipeName.contains("asian") ||
+            ingredientsText.contains("soy sauce") || ingredientsText.contains("ginger")) {
+            flags |= CUISINE_ASIAN;
+        }
+        if (recipeName.contains("taco") || recipeName.contains("burrito") ||
+            ingredientsText.contains("cumin") || ingredientsText.contains("cilantro")) {
+            flags |= CUISINE_MEXICAN;
+        }
+        if (recipeName.contains("burger") || recipeName.contains("bbq") || recipeName.contains("american")) {
+            flags |= CUISINE_AMERICAN;
+        }
+        if (ingredientsText.contains("olive oil") || ingredientsText.contains("feta") ||
+            ingredientsText.contains("olives")) {
+            flags |= CUISINE_MEDITERRANEAN;
+        }
+        if (recipeName.contains("curry") || ingredientsText.contains("turmeric") ||
+            ingredientsText.contains("garam masala")) {
+            flags |= CUISINE_INDIAN;
+        }
+        if (recipeName.contains("french") || recipeName.contains("croissant") ||
+            ingredientsText.contains("butter")) {
+            flags |= CUISINE_FRENCH;
+        }
+        if (recipeName.contains("thai") || ingredientsText.contains("coconut milk") ||
+            ingredientsText.contains("lemongrass")) {
+            flags |= CUISINE_THAI;
+        }
+        if (recipeName.contains("chinese") || recipeName.contains("fried rice") ||
+            ingredientsText.contains("sesame oil")) {
+            flags |= CUISINE_CHINESE;
+        }
+        if (recipeName.contains("sushi") || recipeName.contains("teriyaki") ||
+            ingredientsText.contains("miso")) {
+            flags |= CUISINE_JAPANESE;
+        }
+        return flags;
+    }
+
+    private static int determineDietaryFlags(String ingredientsText) {
+        int flags = 0;
+
+        if (!ingredientsText.contains("meat") && !ingredientsText.contains("chicken") &&
+            !ingredientsText.contains("beef") && !ingredientsText.contains("pork")) {
+            flags |= FLAG_VEGETARIAN;
+
+            if (!ingredientsText.contains("dairy") && !ingredientsText.contains("cheese") &&
+                !ingredientsText.contains("milk") && !ingredientsText.contains("egg")) {
+                flags |= FLAG_VEGAN;
+            }
+        }
+
+        if (!ingredientsText.contains("wheat") && !ingredientsText.contains("flour") &&
+            !ingredientsText.contains("bread")) {
+            flags |= FLAG_GLUTEN_FREE;
+        }
+
+        if (!ingredientsText.contains("milk") && !ingredientsText.contains("cheese") &&
+            !ingredientsText.contains("butter") && !ingredientsText.contains("cream")) {
+            flags |= FLAG_DAIRY_FREE;
+        }
+
+        if (!ingredientsText.contains("pasta") && !ingredientsText.contains("rice") &&
+            !ingredientsText.contains("bread") && !ingredientsText.contains("potato")) {
+            flags |= FLAG_LOW_CARB;
+        }
+
+        if (!ingredientsText.contains("sugar") && !ingredientsText.contains("pasta") &&
+            !ingredientsText.contains("rice") && !ingredientsText.contains("bread")) {
+            flags |= FLAG_KETO;
+        }
+
+        if (!ingredientsText.contains("grain") && !ingredientsText.contains("dairy") &&
+            !ingredientsText.contains("legume")) {
+            flags |= FLAG_PALEO;
+        }
+
+        if (isHealthyRecipe(ingredientsText)) {
+            flags |= FLAG_HEALTHY;
+        }
+
+        return flags;
+    }
+
+    private static String determineDifficulty(int stepCount, int ingredientCount) {
+        int complexity = stepCount + (ingredientCount / 2);
+
+        if (complexity <= 6) {
+            return "Easy";
+        } else if (complexity <= 10) {
+            return "Medium";
+        } else {
+            return "Hard";
+        }
+    }
+
+    private static boolean isHealthyRecipe(String ingredientsText) {
+        return ingredientsText.contains("vegetable") || ingredientsText.contains("fruit") ||
+               ingredientsText.contains("spinach") || ingredientsText.contains("broccoli") ||
+               ingredientsText.contains("carrot") || ingredientsText.contains("lean") ||
+               ingredientsText.contains("quinoa") || ingredientsText.contains("salmon");
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.receipematcher.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * "Cook with what I have": ranks every recipe in an {@link IngredientBitsetIndex}
+ * by pantry coverage.
+ *
+ * Matched counts are accumulated from the postings of the pantry's dictionary
+ * ids only, so the work is proportional to the recipes that use at least one
+ * pantry ingredient rather than to the corpus. Candidates are then grouped by
+ * (ingredients, matched), which fixes their score; only the groups that occur
+ * are built, by sorting the candidates' keys. The groups are walked
+ * best-first: the ranking stops as soon as the caller has enough rows or the
+ * next group falls below the minimum coverage, since nothing after it can
+ * beat what was already returned. Only the groups are sorted by score; ties
+ * keep recipe id order.
+ */
+public class RecipeTopK {
+
+    public enum Order {
+        // Highest matched/total first, then fewest missing, then most matched
+        COVERAGE,
+        // Fewest missing ingredients first, then highest coverage, then most matched
+        FEWEST_MISSING
+    }
+
+    private RecipeTopK() { }
+
+    /**
+     * @param k Maximum number of recipes
+     * @return Ids of the k best recipes, best first
+     */
+    public static long[] top(IngredientBitsetIndex index, IngredientBitsetIndex.PantrySet pantry, int k,
+                             Order order) {
+        Ranking ranking = rank(index, pantry, order, 0f);
+        long[] ids = new long[k];
+        int n = ranking.next(ids);
+        return n == k ? ids : Arrays.copyOf(ids, n);
+    }
+
+    /**
+     * @param pantry Pantry resolved against the same index
+     * @param minCoverage Recipes below this matched/total fraction are never returned (0 for all)
+     * @return Lazy best-first ranking of recipes using at least one pantry ingredient
+     */
+    public static Ranking rank(IngredientBitsetIndex index, IngredientBitsetIndex.PantrySet pantry, Order order,
+                               float minCoverage) {
+        int[] matched = new int[index.size()];
+        int[] candidates = new int[64];
+        int candidateCount = 0;
+        for (int id = pantry.bits.nextSetBit(0); id >= 0 && id < index.postingOffsets.length - 1;
+             id = pantry.bits.nextSetBit(id + 1)) {
+            for (int p = index.postingOffsets[id]; p < index.postingOffsets[id + 1]; p++) {
+                int r = index.postings[p];
+                if (matched[r]++ == 0) {
+                    if (candidateCount == candidates.length) {
+                        candidates = Arrays.copyOf(candidates, candidateCount * 2);
+                    }
+                    candidates[candidateCount++] = r;
+                }
+            }
+        }
+        return rank(index, matched, candidates, candidateCount, order, minCoverage);
+    }
+
+    /**
+     * Rank from matched counts that are already known (see {@link PantryScores})
+     * @param matched Matched ingredient count by recipe index
+     * @param candidates Recipe indexes with a non-zero count, in any order; sorted in place
+     */
+    static Ranking rank(IngredientBitsetIndex index, int[] matched, int[] candidates, int candidateCount,
+                        Order order, float minCoverage) {
+        Arrays.sort(candidates, 0, candidateCount);
+        // (total, matched) of each candidate, and the distinct ones: only groups that occur
+        long[] keys = new long[candidateCount];
+        for (int c = 0; c < candidateCount; c++) {
+            int r = candidates[c];
+            keys[c] = (long) index.totalCount(r) << 32 | matched[r];
+        }
+        long[] groupKeys = keys.clone();
+        Arrays.sort(groupKeys);
+        int groupCount = 0;
+        for (int c = 0; c < candidateCount; c++) {
+            if (groupCount == 0 || groupKeys[c] != groupKeys[groupCount - 1]) groupKeys[groupCount++] = groupKeys[c];
+        }
+
+        // Counting sort by group; stable, so each group keeps ascending recipe order
+        int[] groupOf = new int[candidateCount];
+        int[] starts = new int[groupCount + 1];
+        for (int c = 0; c < candidateCount; c++) {
+            groupOf[c] = Arrays.binarySearch(groupKeys, 0, groupCount, keys[c]);
+            starts[groupOf[c] + 1]++;
+        }
+        for (int g = 0; g < groupCount; g++) starts[g + 1] += starts[g];
+        int[] grouped = new int[candidateCount];
+        int[] fill = Arrays.copyOf(starts, groupCount);
+        for (int c = 0; c < candidateCount; c++) grouped[fill[groupOf[c]]++] = candidates[c];
+
+        List<Integer> groups = new ArrayList<>(groupCount);
+        for (int g = 0; g < groupCount; g++) groups.add(g);
+        groups.sort(comparator(order, groupKeys));
+        return new Ranking(index, grouped, starts, groupKeys, groups, minCoverage, order == Order.COVERAGE);
+    }
+
+    private static int total(long groupKey) {
+        return (int) (groupKey >>> 32);
+    }
+
+    private static int matched(long groupKey) {
+        return (int) groupKey;
+    }
+
+    private static Comparator<Integer> comparator(Order order, long[] groupKeys) {
+        Comparator<Integer> coverage = (a, b) -> {
+            // m1/t1 vs m2/t2 without division, descending
+            long left = (long) matched(groupKeys[a]) * total(groupKeys[b]);
+            long right = (long) matched(groupKeys[b]) * total(groupKeys[a]);
+            return Long.compare(right, left);
+        };
+        Comparator<Integer> missing = Comparator.comparingInt(g -> total(groupKeys[g]) - matched(groupKeys[g]));
+        // Equal scores: the recipe that uses more of the pantry first
+        Comparator<Integer> matched = Comparator.comparingInt(g -> -matched(groupKeys[g]));
+        Comparator<Integer> primary = order == Order.FEWEST_MISSING
+                ? missing.thenComparing(coverage) : coverage.thenComparing(missing);
+        return primary.thenComparing(matched);
+    }
+
+    /**
+     * Best-first cursor over the ranked recipes
+     */
+    public static final class Ranking {
+        private final IngredientBitsetIndex index;
+        // Recipe indexes by group: group g is grouped[starts[g] .. starts[g + 1])
+        private final int[] grouped;
+        private final int[] starts;
+        private final long[] groupKeys;
+        private final List<Integer> groups; // best first
+        private final float minCoverage;
+        // Groups come in descending coverage, so the first one below minCoverage ends the ranking
+        private final boolean stopBelowMin;
+        private int group; // position in groups
+        private int cursor = -1; // position in grouped, -1 before the current group starts
+
+        Ranking(IngredientBitsetIndex index, int[] grouped, int[] starts, long[] groupKeys, List<Integer> groups,
+                float minCoverage, boolean stopBelowMin) {
+            this.index = index;
+            this.grouped = grouped;
+            this.starts = starts;
+            this.groupKeys = groupKeys;
+            this.groups = groups;
+            this.minCoverage = minCoverage;
+            this.stopBelowMin = stopBelowMin;
+        }
+
+        /**
+         * @param recipeIdsOut Receives the next recipe ids, best first
+         * @return Number written; less than the array length only when the ranking is exhausted
+         */
+        public int next(long[] recipeIdsOut) {
+            int written = 0;
+            while (written < recipeIdsOut.length) {
+                if (group == groups.size()) break;
+                int g = groups.get(group);
+                if (cursor == -1) {
+                    int total = total(groupKeys[g]);
+                    if (total > 0 && (float) matched(groupKeys[g]) / total < minCoverage) {
+                        group = stopBelowMin ? groups.size() : group + 1;
+                        continue;
+                    }
+                    cursor = starts[g];
+                }
+                recipeIdsOut[written++] = index.recipeId(grouped[cursor++]);
+                if (cursor == starts[g + 1]) {
+                    group++;
+                    cursor = -1;
+                }
+            }
+            return written;
+        }
+    }
+}
@@ -20,5 +20,6 @@ public class FavouriteViewModel extends AndroidViewModel {
     public LiveData<List<Favourite>> getAll() { return repo.getAll(); }
     public LiveData<Boolean> isFavourite(String id) { return repo.isFavourite(id); }
     public void add(String id, java.util.List<String> ingredients, java.util.List<String> steps) { repo.add(id, ingredients, steps); }
+    public void addAiRecipe(String id, java.util.List<String> ingredients, long aiRecipeId) { repo.addAiRecipe(id, ingredients, aiRecipeId); }
     public void remove(String id) { repo.remove(id); }
 }
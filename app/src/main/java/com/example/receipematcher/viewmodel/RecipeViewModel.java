@@ -1,23 +1,95 @@
 package com.example.receipematcher.viewmodel;
 
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
 import androidx.lifecycle.ViewModel;
+import androidx.lifecycle.ViewModelKt;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
 
 import com.example.receipematcher.data.repository.RecipeRepository;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import com.example.receipematcher.data.repository.RecipeRepository.AiRecipe;
+import com.example.receipematcher.utils.FilterManager;
+import com.example.receipematcher.utils.IngredientBitsetIndex;
+import com.example.receipematcher.utils.RecipeMatchCache;
 
 public class RecipeViewModel extends ViewModel {
 
     private final RecipeRepository repository;
+    private final RecipeMatchCache matchCache = new RecipeMatchCache();
+
+    // Latest search; identical consecutive requests are dropped
+    private final MutableLiveData<SearchRequest> request = new MutableLiveData<>();
+    private final LiveData<PagingData<AiRecipe>> aiRecipes;
 
     public RecipeViewModel() {
         repository = RecipeRepository.getInstance();
+        // A request equal to the previous one is dropped, so it keeps the current
+        // result. A different one makes switchMap detach the previous search, which
+        // stops its paging or ranking; cachedIn shares the result with every observer
+        aiRecipes = PagingLiveData.cachedIn(
+                Transformations.switchMap(Transformations.distinctUntilChanged(request),
+                        r -> repository.getAiRecipes(r.pantry, r.filters, r.searchText, matchCache)),
+                ViewModelKt.getViewModelScope(this));
+    }
+
+    // Paged recipes for the most recent search, cached across configuration changes
+    public LiveData<PagingData<AiRecipe>> getAiRecipes() {
+        return aiRecipes;
+    }
+
+    /**
+     * Run a search; a no-op if it matches the current one
+     * @param pantry Pantry ingredient names
+     * @param filters Current filters (copied, the UI may keep editing them)
+     * @param searchText Free-text search
+     */
+    public void search(List<String> pantry, FilterManager.RecipeFilters filters, String searchText) {
+        request.setValue(new SearchRequest(pantry, filters, searchText));
+    }
+
+    // Steps for the detail screen; list rows are loaded without them
+    public LiveData<List<String>> getSteps(long recipeId) {
+        return repository.getSteps(recipeId);
     }
 
-    // AI recipes via Gemini
-    public LiveData<List<AiRecipe>> getAiRecipes(List<String> pantry) {
-        return repository.getAiRecipes(pantry);
+    // Ingredient index for bitset matching; install it with RecipeMatchCache#setIndex
+    public LiveData<IngredientBitsetIndex> getBitsetIndex() {
+        return repository.getBitsetIndex();
+    }
+
+    // Pantry match results shared by the list, filters and sorting
+    public RecipeMatchCache getMatchCache() {
+        return matchCache;
+    }
+
+    private static final class SearchRequest {
+        final List<String> pantry;
+        final FilterManager.RecipeFilters filters;
+        final String searchText;
+
+        SearchRequest(List<String> pantry, FilterManager.RecipeFilters filters, String searchText) {
+            this.pantry = pantry == null ? new ArrayList<>() : new ArrayList<>(pantry);
+            this.filters = filters == null ? null : filters.copy();
+            this.searchText = searchText == null ? "" : searchText;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof SearchRequest)) return false;
+            SearchRequest r = (SearchRequest) o;
+            return pantry.equals(r.pantry) && Objects.equals(filters, r.filters) && searchText.equals(r.searchText);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(pantry, filters, searchText);
+        }
     }
 }
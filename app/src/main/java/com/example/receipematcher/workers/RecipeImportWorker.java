@@ -13,135 +13,300 @@ import androidx.work.WorkManager;
 import androidx.work.Worker;
 import androidx.work.WorkerParameters;
 
-import com.example.receipematcher.data.db.AiRecipeEntity;
+import com.example.receipematcher.data.db.AiRecipeBulkInserter;
+import com.example.receipematcher.data.db.AiRecipeDeltaApplier;
 import com.example.receipematcher.data.db.AppDatabase;
-import com.example.receipematcher.data.db.dao.AiRecipeDao;
-
-import org.json.JSONArray;
-import org.json.JSONObject;
+import com.example.receipematcher.data.db.ImportStateEntity;
+import com.example.receipematcher.data.db.PrebuiltRecipeCopier;
+import com.example.receipematcher.data.db.dao.ImportStateDao;
+import com.example.receipematcher.utils.DatasetManifest;
+import com.example.receipematcher.utils.RecipeImportPipeline;
+import com.example.receipematcher.utils.RecipeJsonlParser;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.zip.GZIPInputStream;
 
 public class RecipeImportWorker extends Worker {
     public static final String UNIQUE_NAME = "recipe_import_worker";
-    private static final String PREFS = "import_prefs";
-    private static final String KEY_IMPORTED = "recipes_imported";
+    // Import progress before database version 12; read once, see loadState
+    private static final String LEGACY_PREFS = "import_prefs";
+    private static final String LEGACY_KEY_IMPORTED = "recipes_imported";
+    private static final String LEGACY_KEY_DATASET_VERSION = "dataset_version";
+    private static final String MANIFEST_ASSET = "recipes_manifest.json";
+
+    // Progress keys
+    public static final String PROGRESS_IMPORTED = "imported";
+    public static final String PROGRESS_FRACTION = "fraction"; // 0..1 of the compressed asset read
 
     public RecipeImportWorker(@NonNull Context context, @NonNull WorkerParameters params) {
         super(context, params);
     }
 
     public static void enqueueIfNeeded(Context context) {
-        SharedPreferences sp = context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
-        boolean imported = sp.getBoolean(KEY_IMPORTED, false);
-        try {
-            // If DB is empty, force reimport regardless of the flag
-            AppDatabase db = AppDatabase.getDatabase(context);
-            AiRecipeDao dao = db.aiRecipeDao();
-            long count = 0;
-            try { count = dao.count(); } catch (Exception ignored) {}
-            if (count == 0) {
-                imported = false;
-                sp.edit().putBoolean(KEY_IMPORTED, false).apply();
-            }
-        } catch (Exception ignored) {}
-        if (imported) return;
+        ImportStateEntity state = loadState(AppDatabase.getDatabase(context), context);
+        if (state.imported) {
+            // Only deltas newer than the database need a run
+            DatasetManifest manifest = readManifest(context);
+            if (manifest == null || manifest.latestVersion() <= state.datasetVersion) return;
+        }
         WorkManager.getInstance(context).enqueueUniqueWork(
                 UNIQUE_NAME,
-                androidx.work.ExistingWorkPolicy.REPLACE,
+                // A running import resumes from its checkpoint; don't restart it
+                androidx.work.ExistingWorkPolicy.KEEP,
                 new OneTimeWorkRequest.Builder(RecipeImportWorker.class).build()
         );
     }
 
+    /**
+     * The import_state row, created on first use. A database upgraded from a build
+     * that kept progress in SharedPreferences carries the imported flag over, as
+     * long as its recipes are still there; the old checkpoint is not trusted, as it
+     * was written after the batch committed, and the import restarts from the top
+     * instead (replayed recipes are ignored by recipeKey).
+     */
+    private static ImportStateEntity loadState(AppDatabase db, Context context) {
+        ImportStateDao dao = db.importStateDao();
+        // One transaction, so concurrent callers see the row the first one created
+        return db.runInTransaction(() -> {
+            ImportStateEntity state = dao.get();
+            if (state != null) return state;
+            state = new ImportStateEntity();
+            SharedPreferences legacy = context.getSharedPreferences(LEGACY_PREFS, Context.MODE_PRIVATE);
+            if (legacy.getBoolean(LEGACY_KEY_IMPORTED, false) && db.aiRecipeDao().count() > 0) {
+                state.imported = true;
+                state.datasetVersion = legacy.getInt(LEGACY_KEY_DATASET_VERSION, 0);
+            }
+            dao.save(state);
+            legacy.edit().clear().apply();
+            return state;
+        });
+    }
+
     @NonNull
     @Override
     public Result doWork() {
         try {
             Context ctx = getApplicationContext();
-            SharedPreferences sp = ctx.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
-            if (sp.getBoolean(KEY_IMPORTED, false)) return Result.success();
+            AppDatabase db = AppDatabase.getDatabase(ctx);
+            ImportStateEntity state = loadState(db, ctx);
+            DatasetManifest manifest = readManifest(ctx);
+            if (!state.imported && !importBase(ctx, db, state, manifest)) {
+                return Result.failure();
+            }
+            if (manifest != null) {
+                applyDeltas(ctx, db, state, manifest);
+            }
+            return Result.success();
+        } catch (Exception e) {
+            Log.e("RecipeImportWorker", "Import failed", e);
+            return Result.retry();
+        }
+    }
 
-            AssetManager am = ctx.getAssets();
-            boolean usedGzip = false;
-            InputStream raw;
+    /**
+     * Full import of the base dataset, resumable from the last committed batch
+     * @return false if the dataset asset is missing
+     */
+    private boolean importBase(Context ctx, AppDatabase db, ImportStateEntity state, DatasetManifest manifest)
+            throws Exception {
+        AssetManager am = ctx.getAssets();
+        String assetName;
+        InputStream raw;
+        if (manifest != null) {
+            assetName = manifest.base.file;
+            try {
+                raw = am.open(assetName);
+            } catch (java.io.FileNotFoundException fnf) {
+                if (copyPrebuilt(ctx, db, state, manifest)) return true;
+                Log.e("RecipeImportWorker", "Manifest names missing base dataset assets/" + assetName, fnf);
+                return false;
+            }
+            Log.i("RecipeImportWorker", "Loading assets/" + assetName + " (dataset v" + manifest.base.version + ")");
+        } else {
             try {
-                raw = am.open("recipes.jsonl.gz");
-                usedGzip = true;
+                assetName = "recipes.jsonl.gz";
+                raw = am.open(assetName);
                 Log.i("RecipeImportWorker", "Loading assets/recipes.jsonl.gz (gzipped)");
             } catch (java.io.FileNotFoundException fnfGz) {
                 try {
-                    raw = am.open("recipes.jsonl");
-                    usedGzip = false;
+                    assetName = "recipes.jsonl";
+                    raw = am.open(assetName);
                     Log.i("RecipeImportWorker", "Loading assets/recipes.jsonl (plain JSONL)");
                 } catch (java.io.FileNotFoundException fnfPlain) {
-                    Log.e("RecipeImportWorker", "Missing dataset. Place recipes.jsonl.gz or recipes.jsonl under app/src/main/assets/", fnfPlain);
-                    return Result.failure();
+                    if (copyPrebuilt(ctx, db, state, manifest)) return true;
+                    Log.e("RecipeImportWorker", "Missing dataset. Place recipes.jsonl.gz or recipes.jsonl under app/src/dataset/", fnfPlain);
+                    return false;
                 }
             }
-            InputStreamReader isr;
-            if (usedGzip) {
-                isr = new InputStreamReader(new GZIPInputStream(raw), StandardCharsets.UTF_8);
-            } else {
-                isr = new InputStreamReader(raw, StandardCharsets.UTF_8);
-            }
-            try (InputStreamReader autoIsr = isr;
-                 BufferedReader br = new BufferedReader(autoIsr)) {
-
-                AppDatabase db = AppDatabase.getDatabase(ctx);
-                AiRecipeDao dao = db.aiRecipeDao();
-
-                List<AiRecipeEntity> batch = new ArrayList<>(1000);
-                String line;
-                int total = 0;
-                while ((line = br.readLine()) != null) {
-                    line = line.trim();
-                    if (line.isEmpty()) continue;
-                    try {
-                        JSONObject obj = new JSONObject(line);
-                        String name = obj.optString("name", "").trim();
-                        if (name.isEmpty()) continue;
-                        JSONArray ingr = obj.optJSONArray("ingredients");
-                        JSONArray steps = obj.optJSONArray("steps");
-                        if (ingr == null) ingr = new JSONArray();
-                        if (steps == null) steps = new JSONArray();
-                        // normalize ingredients to lowercase
-                        JSONArray normIngr = new JSONArray();
-                        for (int i = 0; i < ingr.length(); i++) {
-                            String s = ingr.optString(i, "");
-                            if (s != null) normIngr.put(s.trim().toLowerCase());
-                        }
-                        AiRecipeEntity e = new AiRecipeEntity(
-                                name,
-                                normIngr.toString(),
-                                steps.toString()
-                        );
-                        batch.add(e);
-                        if (batch.size() >= 1000) {
-                            dao.insertAll(batch);
-                            total += batch.size();
-                            batch.clear();
-                            setProgressAsync(new Data.Builder().putInt("imported", total).build());
-                        }
-                    } catch (Exception ignored) {
+        }
+
+        // Resume after the last committed batch of the same asset
+        long checkpoint = assetName.equals(state.checkpointAsset) ? state.checkpointOffset : 0;
+
+        // Asset streams report their full remaining length before the first read
+        long totalBytes = Math.max(1, raw.available());
+        CountingInputStream counted = new CountingInputStream(raw);
+        InputStream data = assetName.endsWith(".gz")
+                ? new GZIPInputStream(counted, 1 << 16) : new BufferedInputStream(counted, 1 << 16);
+        try (InputStream in = data) {
+            skipFully(in, checkpoint);
+            if (checkpoint > 0) Log.i("RecipeImportWorker", "Resuming import at byte " + checkpoint);
+
+            ImportStateDao stateDao = db.importStateDao();
+            String asset = assetName;
+            int[] imported = {0};
+            // Parsing runs on a thread pool; each batch is committed on this thread in its own
+            // transaction together with its checkpoint. A replayed batch is ignored by recipeKey.
+            int total = RecipeImportPipeline.forDevice().run(in, checkpoint, batch -> {
+                if (isStopped()) throw new java.util.concurrent.CancellationException("Import stopped");
+                db.runInTransaction(() -> {
+                    AiRecipeBulkInserter inserter = new AiRecipeBulkInserter(db.getOpenHelper().getWritableDatabase());
+                    for (int i = 0; i < batch.recipes.size(); i++) {
+                        inserter.insert(batch.recipes.get(i), batch.metadata.get(i));
                     }
-                }
-                if (!batch.isEmpty()) {
-                    dao.insertAll(batch);
-                    total += batch.size();
-                }
-                sp.edit().putBoolean(KEY_IMPORTED, true).apply();
-                Log.i("RecipeImportWorker", "Imported recipes: " + total);
-                return Result.success();
+                    inserter.finish();
+                    state.checkpointAsset = asset;
+                    state.checkpointOffset = batch.endOffset;
+                    stateDao.save(state);
+                    return null;
+                });
+                imported[0] += batch.recipes.size();
+                setProgressAsync(new Data.Builder()
+                        .putInt(PROGRESS_IMPORTED, imported[0])
+                        .putFloat(PROGRESS_FRACTION, Math.min(1f, (float) counted.count / totalBytes))
+                        .build());
+            });
+            markImported(stateDao, state, manifest);
+            Log.i("RecipeImportWorker", "Imported recipes: " + total);
+            return true;
+        }
+    }
+
+    /**
+     * Builds with the prebuilt database do not package the base dataset. A database
+     * created before this install (an upgrade that had not finished importing) gets
+     * the prebuilt rows copied in instead.
+     * @return false if the prebuilt database is not packaged either
+     */
+    private boolean copyPrebuilt(Context ctx, AppDatabase db, ImportStateEntity state, DatasetManifest manifest)
+            throws IOException {
+        if (!AppDatabase.hasAsset(ctx, AppDatabase.PREBUILT_ASSET)) return false;
+        File file = new File(ctx.getCacheDir(), "prebuilt_recipes.db");
+        try (InputStream in = ctx.getAssets().open(AppDatabase.PREBUILT_ASSET);
+             OutputStream out = new FileOutputStream(file)) {
+            byte[] buffer = new byte[1 << 16];
+            int n;
+            while ((n = in.read(buffer)) > 0) out.write(buffer, 0, n);
+        }
+        try {
+            int added = PrebuiltRecipeCopier.copy(db, file);
+            markImported(db.importStateDao(), state, manifest);
+            Log.i("RecipeImportWorker", "Copied recipes from the prebuilt database: " + added);
+            return true;
+        } finally {
+            file.delete();
+        }
+    }
+
+    // Every recipe of the base dataset is committed; the database is at its version
+    private static void markImported(ImportStateDao dao, ImportStateEntity state, DatasetManifest manifest) {
+        state.imported = true;
+        state.datasetVersion = manifest == null ? 0 : manifest.base.version;
+        state.checkpointAsset = null;
+        state.checkpointOffset = 0;
+        dao.save(state);
+    }
+
+    /**
+     * Apply the manifest's deltas newer than the database, one transaction per
+     * delta, which also records the new dataset version
+     */
+    private void applyDeltas(Context ctx, AppDatabase db, ImportStateEntity state, DatasetManifest manifest)
+            throws Exception {
+        ImportStateDao stateDao = db.importStateDao();
+        for (DatasetManifest.Entry delta : manifest.deltasAfter(state.datasetVersion)) {
+            if (isStopped()) return;
+            InputStream raw = ctx.getAssets().open(delta.file);
+            InputStream data = delta.file.endsWith(".gz") ? new GZIPInputStream(raw) : raw;
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(data, StandardCharsets.UTF_8))) {
+                int changed = db.runInTransaction(() -> {
+                    AiRecipeDeltaApplier applier = new AiRecipeDeltaApplier(db.getOpenHelper().getWritableDatabase());
+                    int rows = 0;
+                    String line;
+                    while ((line = br.readLine()) != null) {
+                        RecipeJsonlParser.DeltaEntry entry = RecipeJsonlParser.parseDelta(line);
+                        if (entry != null) rows += applier.apply(entry);
+                    }
+                    applier.close();
+                    state.datasetVersion = delta.version;
+                    stateDao.save(state);
+                    return rows;
+                });
+                Log.i("RecipeImportWorker", "Applied dataset v" + delta.version + ": " + changed + " rows changed");
             }
+        }
+    }
+
+    private static DatasetManifest readManifest(Context context) {
+        try (Reader r = new InputStreamReader(context.getAssets().open(MANIFEST_ASSET), StandardCharsets.UTF_8)) {
+            return DatasetManifest.parse(r);
+        } catch (java.io.FileNotFoundException e) {
+            return null; // legacy layout: a single dataset file, no deltas
         } catch (Exception e) {
-            Log.e("RecipeImportWorker", "Import failed", e);
-            return Result.retry();
+            Log.e("RecipeImportWorker", "Ignoring unreadable " + MANIFEST_ASSET, e);
+            return null;
+        }
+    }
+
+    private static void skipFully(InputStream in, long bytes) throws IOException {
+        while (bytes > 0) {
+            long skipped = in.skip(bytes);
+            if (skipped <= 0) {
+                if (in.read() < 0) throw new EOFException("Checkpoint past end of dataset");
+                skipped = 1;
+            }
+            bytes -= skipped;
+        }
+    }
+
+    // Counts compressed bytes read from the asset, for progress reporting
+    private static final class CountingInputStream extends FilterInputStream {
+        volatile long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
         }
     }
 }
@@ -0,0 +1,197 @@
+package com.example.receipematcher.benchmark;
+
+import android.app.Application;
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.receipematcher.data.db.AiRecipeBulkInserter;
+import com.example.receipematcher.data.db.AppDatabase;
+import com.example.receipematcher.data.db.RecipeQueryBuilder;
+import com.example.receipematcher.data.db.dao.AiRecipeDao;
+import com.example.receipematcher.data.db.dao.PantryDao;
+import com.example.receipematcher.data.db.dao.ShoppingDao;
+import com.example.receipematcher.data.entities.Ingredient;
+import com.example.receipematcher.data.entities.ShoppingItem;
+import com.example.receipematcher.data.repository.RecipeRepository;
+import com.example.receipematcher.utils.IngredientNormalizer;
+import com.example.receipematcher.utils.RecipeImportPipeline;
+
+import org.junit.Assume;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Query timings against an AppDatabase seeded with a synthetic corpus, on
+ * Robolectric's SQLite so it runs headless.
+ *
+ * For each recipe count in queryBenchmark.recipes, the corpus is loaded
+ * through the import path (timed), then the recipe, pantry and shopping
+ * queries are timed with 50, 100 and 500 pantry items. Each timing is the
+ * median of {@link #RUNS} runs after {@link #WARMUP} warm-up runs. Results are
+ * printed and written as CSV to queryBenchmark.output.
+ *
+ * Skipped unless sizes are given; see testOptions in app/build.gradle.kts.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34, application = Application.class)
+public class RoomQueryBenchmark {
+
+    private static final int[] PANTRY_SIZES = {50, 100, 500};
+    private static final int WARMUP = 3;
+    private static final int RUNS = 15;
+    // Rows asked for by the FTS fallback and by one page of the ranked list
+    private static final int SEARCH_LIMIT = 200;
+    private static final int PAGE_SIZE = 20;
+    private static final int EXPIRY_DAYS = 3;
+
+    private final List<String> results = new ArrayList<>();
+
+    @Test
+    public void queries() throws Exception {
+        String sizes = System.getProperty("queryBenchmark.recipes");
+        Assume.assumeTrue("Pass -PqueryBenchmarkRecipes=<counts> to run", sizes != null);
+
+        results.add("recipes,pantryItems,operation,medianMs");
+        for (String size : sizes.split(",")) {
+            if (!size.trim().isEmpty()) run(Integer.parseInt(size.trim()));
+        }
+
+        String output = System.getProperty("queryBenchmark.output");
+        if (output != null) {
+            File file = new File(output);
+            file.getParentFile().mkdirs();
+            Files.write(file.toPath(), results, StandardCharsets.UTF_8);
+        }
+    }
+
+    private void run(int recipeCount) throws Exception {
+        Context context = ApplicationProvider.getApplicationContext();
+        String name = "query-benchmark-" + recipeCount + ".db";
+        context.deleteDatabase(name);
+        AppDatabase db = Room.databaseBuilder(context, AppDatabase.class, name)
+                .allowMainThreadQueries()
+                .build();
+        try {
+            SyntheticCorpus corpus = new SyntheticCorpus(recipeCount);
+            File dataset = File.createTempFile("recipes", ".jsonl");
+            try {
+                try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(dataset),
+                        StandardCharsets.UTF_8))) {
+                    corpus.writeJsonl(out, recipeCount);
+                }
+                long start = System.nanoTime();
+                int imported = importDataset(db, dataset);
+                record(recipeCount, 0, "import", (System.nanoTime() - start) / 1e6);
+                assertTrue(imported > 0 && db.aiRecipeDao().count() > 0);
+            } finally {
+                dataset.delete();
+            }
+
+            AiRecipeDao recipes = db.aiRecipeDao();
+            PantryDao pantry = db.pantryDao();
+            ShoppingDao shopping = db.shoppingDao();
+            List<Ingredient> items = corpus.pantryItems(PANTRY_SIZES[PANTRY_SIZES.length - 1]);
+            String boundary = isoDate(EXPIRY_DAYS);
+            int inserted = 0;
+            for (int pantrySize : PANTRY_SIZES) {
+                List<String> names = new ArrayList<>();
+                for (; inserted < pantrySize; inserted++) {
+                    Ingredient item = items.get(inserted);
+                    pantry.insert(item);
+                    shopping.insert(shoppingItem(item.name));
+                }
+                for (Ingredient item : items.subList(0, pantrySize)) names.add(item.name);
+
+                String match = RecipeRepository.buildFtsMatch(names);
+                List<String> rankTerms = IngredientNormalizer.canonicalSet(names);
+                // Last added, so a scan reaches the end of the table; case differs, as LOWER() allows
+                String shoppingName = names.get(names.size() - 1).toUpperCase(Locale.US);
+
+                record(recipeCount, pantrySize, "searchByFts",
+                        time(() -> recipes.searchByFts(match, SEARCH_LIMIT)));
+                record(recipeCount, pantrySize, "searchRankedPage",
+                        time(() -> recipes.getRows(RecipeQueryBuilder.search(match, rankTerms, null, "", PAGE_SIZE))));
+                record(recipeCount, pantrySize, "getExpiringOnOrBefore",
+                        time(() -> pantry.getExpiringOnOrBefore(boundary)));
+                record(recipeCount, pantrySize, "getByNameSync",
+                        time(() -> shopping.getByNameSync(shoppingName)));
+            }
+        } finally {
+            db.close();
+            context.deleteDatabase(name);
+        }
+    }
+
+    // Same batches and transactions as RecipeImportWorker
+    private static int importDataset(AppDatabase db, File dataset) throws Exception {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(dataset), 1 << 16)) {
+            return RecipeImportPipeline.forDevice().run(in, 0, batch -> db.runInTransaction(() -> {
+                AiRecipeBulkInserter inserter = new AiRecipeBulkInserter(db.getOpenHelper().getWritableDatabase());
+                for (int i = 0; i < batch.recipes.size(); i++) {
+                    inserter.insert(batch.recipes.get(i), batch.metadata.get(i));
+                }
+                inserter.finish();
+                return null;
+            }));
+        }
+    }
+
+    // Median wall time in milliseconds
+    private static double time(Callable<?> query) throws Exception {
+        for (int i = 0; i < WARMUP; i++) query.call();
+        double[] ms = new double[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            query.call();
+            ms[i] = (System.nanoTime() - start) / 1e6;
+        }
+        Arrays.sort(ms);
+        return ms[RUNS / 2];
+    }
+
+    private void record(int recipeCount, int pantrySize, String operation, double ms) {
+        String line = recipeCount + "," + pantrySize + "," + operation + "," + String.format(Locale.US, "%.3f", ms);
+        System.out.println(line);
+        results.add(line);
+    }
+
+    private static ShoppingItem shoppingItem(String name) {
+        ShoppingItem item = new ShoppingItem();
+        item.name = name;
+        item.quantity = 1;
+        item.unit = "pcs";
+        item.addedAt = new Date();
+        return item;
+    }
+
+    private static String isoDate(int daysFromToday) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.add(Calendar.DAY_OF_YEAR, daysFromToday);
+        return new SimpleDateFormat("yyyy-MM-dd", Locale.US).format(calendar.getTime());
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.receipematcher.data.db;
+
+import android.app.Application;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.receipematcher.utils.RecipeJsonlParser;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34, application = Application.class)
+public class AiRecipeDeltaApplierTest {
+
+    private static final String SOUP = "{\"name\": \"Soup\", \"ingredients\": [\"water\", \"salt\"]}";
+    private static final String STEW = "{\"name\": \"Stew\", \"ingredients\": [\"beef\", \"carrot\"]}";
+
+    private AppDatabase db;
+    private SupportSQLiteDatabase sql;
+
+    @Before
+    public void open() {
+        db = Room.inMemoryDatabaseBuilder(ApplicationProvider.getApplicationContext(), AppDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        sql = db.getOpenHelper().getWritableDatabase();
+    }
+
+    @After
+    public void close() {
+        db.close();
+    }
+
+    @Test
+    public void updateKeepsTheRowAndRelinksIngredients() throws IOException {
+        apply(SOUP);
+        long id = number("SELECT id FROM ai_recipes");
+        String soupKey = key(SOUP);
+
+        assertEquals(1, apply(update(soupKey, "{\"name\": \"Soup\", \"ingredients\": [\"water\", \"leek\"]}")));
+        assertEquals(id, number("SELECT id FROM ai_recipes"));
+        assertEquals(Arrays.asList("leek", "water"), strings("SELECT d.name FROM recipe_ingredient ri"
+                + " JOIN ingredients_dict d ON d.id = ri.ingredient_id ORDER BY d.name"));
+    }
+
+    @Test
+    public void updateToAnExistingKeyDropsTheOldRow() throws IOException {
+        apply(SOUP);
+        apply(STEW);
+        String soupKey = key(SOUP);
+        String stewKey = key(STEW);
+        long stewId = number("SELECT id FROM ai_recipes WHERE recipeKey = '" + stewKey + "'");
+
+        // Soup now has Stew's content, so its new key is already taken
+        String collision = update(soupKey, STEW);
+        assertEquals(1, apply(collision));
+        assertEquals(Arrays.asList(stewKey), strings("SELECT recipeKey FROM ai_recipes"));
+        assertEquals(stewId, number("SELECT id FROM ai_recipes"));
+        assertEquals(2, number("SELECT count(*) FROM recipe_ingredient"));
+
+        // Applying it again changes nothing
+        assertEquals(0, apply(collision));
+        assertEquals(1, number("SELECT count(*) FROM ai_recipes"));
+    }
+
+    @Test
+    public void updateOfAMissingRowAddsIt() throws IOException {
+        assertEquals(1, apply(update("gone", STEW)));
+        assertEquals(Arrays.asList(key(STEW)), strings("SELECT recipeKey FROM ai_recipes"));
+    }
+
+    // Delta line replacing the row keyed oldKey with the recipe line's content
+    private static String update(String oldKey, String recipe) {
+        return "{\"op\": \"update\", \"key\": \"" + oldKey + "\", " + recipe.substring(1);
+    }
+
+    private static String key(String line) {
+        return RecipeJsonlParser.parse(line).key;
+    }
+
+    private int apply(String line) throws IOException {
+        AiRecipeDeltaApplier applier = new AiRecipeDeltaApplier(sql);
+        try {
+            return applier.apply(RecipeJsonlParser.parseDelta(line));
+        } finally {
+            applier.close();
+        }
+    }
+
+    private long number(String query) {
+        try (Cursor c = sql.query(query)) {
+            c.moveToFirst();
+            return c.getLong(0);
+        }
+    }
+
+    private List<String> strings(String query) {
+        List<String> values = new ArrayList<>();
+        try (Cursor c = sql.query(query)) {
+            while (c.moveToNext()) values.add(c.getString(0));
+        }
+        return values;
+    }
+}
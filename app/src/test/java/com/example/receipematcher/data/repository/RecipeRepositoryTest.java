@@ -0,0 +1,31 @@
+package com.example.receipematcher.data.repository;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+public class RecipeRepositoryTest {
+
+    @Test
+    public void matchesCanonicalNamesAsPhrases() {
+        assertEquals("\"tomato\" OR \"olive oil\"",
+                RecipeRepository.buildFtsMatch(Arrays.asList("2 Tomatoes", "olive oil", "tomato")));
+    }
+
+    @Test
+    public void quotesInPantryNamesDoNotBreakTheExpression() {
+        // Names with no words keep their raw text, quotes included
+        assertEquals("\"pasta\" OR \"- -\"",
+                RecipeRepository.buildFtsMatch(Arrays.asList("pasta", "-\"-", "\"", "\" \"")));
+        assertEquals("", RecipeRepository.buildFtsMatch(Collections.singletonList("\"\"")));
+    }
+
+    @Test
+    public void emptyPantryHasNoExpression() {
+        assertEquals("", RecipeRepository.buildFtsMatch(null));
+        assertEquals("", RecipeRepository.buildFtsMatch(Collections.emptyList()));
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.receipematcher.utils;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+public class IngredientNormalizerTest {
+
+    private static final String[][] CANONICAL = {
+            {"1 1/2 tbsp. tomatoes, diced", "tomato"},
+            {"Tomatoes", "tomato"},
+            {"2 1/2 cups of all purpose flour", "all-purpose flour"},
+            {"a pinch of salt", "salt"},
+            {"Salt to taste", "salt"},
+            {"3 large Eggs", "egg"},
+            {"1½ cups milk", "milk"},
+            {"½ tsp ground cumin", "cumin"},
+            {"2-3 cloves garlic, minced", "garlic"},
+            {"1 to 2 tsp salt", "salt"},
+            {"1 (14 oz) can chickpeas", "chickpea"},
+            {"Fresh basil leaves (optional)", "basil leaf"},
+            {"2 Tbsp. olive oil", "olive oil"},
+            {"1 cup chopped onion", "onion"},
+            {"Scallions", "green onion"},
+            {"Garbanzo beans", "chickpea"},
+            {"courgettes", "zucchini"},
+            {"berries", "berry"},
+            {"dishes", "dish"},
+            {"Molasses", "molasses"},
+            {"Couscous", "couscous"},
+            // Nothing but a descriptor or a quantity: the words are kept
+            {"fresh", "fresh"},
+            {"2 cups", "2 cup"},
+            {"   ", ""},
+    };
+
+    @Test
+    public void canonicalNames() {
+        for (String[] c : CANONICAL) {
+            assertEquals(c[0], c[1], IngredientNormalizer.canonical(c[0]));
+        }
+        assertEquals("", IngredientNormalizer.canonical(null));
+    }
+
+    @Test
+    public void canonicalIsIdempotent() {
+        for (String[] c : CANONICAL) {
+            String once = IngredientNormalizer.canonical(c[0]);
+            assertEquals(c[0], once, IngredientNormalizer.canonical(once));
+        }
+    }
+
+    @Test
+    public void canonicalListKeepsPositions() {
+        assertEquals(Arrays.asList("tomato", "", "basil"),
+                IngredientNormalizer.canonicalList(Arrays.asList("Tomatoes", null, "fresh basil")));
+        assertEquals(Collections.emptyList(), IngredientNormalizer.canonicalList(null));
+    }
+
+    @Test
+    public void canonicalSetIsDistinctInFirstSeenOrder() {
+        assertEquals(Arrays.asList("tomato", "basil"), IngredientNormalizer.canonicalSet(
+                Arrays.asList("Tomatoes", null, " ", "2 tomatoes", "Basil", "fresh basil")));
+    }
+
+    @Test
+    public void stripQuantityKeepsTheRestAsWritten() {
+        assertEquals("Flour, sifted", IngredientNormalizer.stripQuantity("2 cups Flour, sifted"));
+        assertEquals("Tomatoes, diced", IngredientNormalizer.stripQuantity("1 1/2 tbsp. Tomatoes, diced"));
+        assertEquals("salt", IngredientNormalizer.stripQuantity("a pinch of salt"));
+        assertEquals("Salt", IngredientNormalizer.stripQuantity(" Salt "));
+        // Nothing would be left
+        assertEquals("2 cups", IngredientNormalizer.stripQuantity("2 cups"));
+    }
+
+    @Test
+    public void searchTextJoinsNames() {
+        assertEquals("tomato, basil", IngredientNormalizer.searchText(Arrays.asList("tomato", "basil")));
+    }
+}
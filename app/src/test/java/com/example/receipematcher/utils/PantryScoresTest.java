@@ -0,0 +1,119 @@
+package com.example.receipematcher.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class PantryScoresTest {
+
+    private static final String[] NAMES = {
+            "chicken", "chicken breast", "olive oil", "oil", "egg", "eggplant", "rice", "brown rice",
+            "basil", "salt", "sea salt", "green onion", null, "onion", "garlic"};
+
+    private static final String[] TERMS = {
+            "chicken", "chicken breast", "oil", "eg", "brown rice", "sea salt", "onion", "garlic",
+            "basil leaves", "parmesan"};
+
+    @Test
+    public void resolvesContainedAndContainingNames() {
+        int[][] recipes = {
+                {0},     // 1: chicken
+                {1},     // 2: chicken breast
+                {6},     // 3: rice
+                {7},     // 4: brown rice
+                {5, 4},  // 5: eggplant, egg
+                {2, 14}  // 6: olive oil, garlic
+        };
+        IngredientBitsetIndex index = RecipeTopKTest.index(NAMES, recipes);
+        PantryScores scores = new PantryScores(index);
+        // "chicken breast" contains chicken; "brown rice" contains rice; "oil" is in olive oil
+        assertArrayEquals(new long[]{1, 2, 3, 4, 6},
+                RecipeTopKTest.drain(scores.rank(Arrays.asList("chicken breast", "brown rice", "oil"),
+                        RecipeTopK.Order.FEWEST_MISSING, 0f), 10));
+        // "chicken" is in chicken breast, "eg" in egg and eggplant (2/2 first); "oil" is gone
+        assertArrayEquals(new long[]{5, 1, 2},
+                RecipeTopKTest.drain(scores.rank(Arrays.asList("chicken", "eg"),
+                        RecipeTopK.Order.FEWEST_MISSING, 0f), 10));
+    }
+
+    @Test
+    public void matchesBruteForceAcrossPantries() {
+        Random random = new Random(7);
+        IngredientBitsetIndex index = RecipeTopKTest.index(NAMES, randomRecipes(random, 300, NAMES.length));
+        PantryScores scores = new PantryScores(index);
+        for (int round = 0; round < 40; round++) {
+            List<String> terms = randomTerms(random);
+            assertRanksLikeBruteForce(index, scores, terms);
+        }
+    }
+
+    @Test
+    public void carriesPantryOverWhenDictionaryGrows() {
+        Random random = new Random(11);
+        IngredientBitsetIndex before = RecipeTopKTest.index(NAMES, randomRecipes(random, 200, NAMES.length));
+        PantryScores scores = new PantryScores(before);
+        List<String> terms = Arrays.asList("chicken", "oil", "onion", "eg");
+        assertRanksLikeBruteForce(before, scores, terms);
+
+        String[] grown = Arrays.copyOf(NAMES, NAMES.length + 3);
+        grown[NAMES.length] = "chicken thigh";
+        grown[NAMES.length + 1] = "red onion";
+        grown[NAMES.length + 2] = "flour";
+        IngredientBitsetIndex after = RecipeTopKTest.index(grown, randomRecipes(random, 250, grown.length));
+        PantryScores carried = new PantryScores(after, scores);
+        assertRanksLikeBruteForce(after, carried, terms);
+        assertRanksLikeBruteForce(after, carried, Arrays.asList("chicken", "flour"));
+    }
+
+    @Test
+    public void startsOverWhenDictionaryChanges() {
+        Random random = new Random(13);
+        IngredientBitsetIndex before = RecipeTopKTest.index(NAMES, randomRecipes(random, 200, NAMES.length));
+        PantryScores scores = new PantryScores(before);
+        List<String> terms = Arrays.asList("chicken", "rice");
+        assertRanksLikeBruteForce(before, scores, terms);
+
+        String[] renamed = NAMES.clone();
+        renamed[6] = "pasta";
+        IngredientBitsetIndex after = RecipeTopKTest.index(renamed, randomRecipes(random, 200, renamed.length));
+        assertRanksLikeBruteForce(after, new PantryScores(after, scores), terms);
+    }
+
+    private static void assertRanksLikeBruteForce(IngredientBitsetIndex index, PantryScores scores,
+                                                  List<String> terms) {
+        IngredientBitsetIndex.PantrySet pantry = index.pantrySet(new PantryMatcher(terms));
+        for (RecipeTopK.Order order : RecipeTopK.Order.values()) {
+            long[] expected = RecipeTopKTest.drain(RecipeTopK.rank(index, pantry, order, 0f), 1000);
+            assertArrayEquals(order + " " + terms, expected,
+                    RecipeTopKTest.drain(scores.rank(terms, order, 0f), 1000));
+        }
+    }
+
+    private static List<String> randomTerms(Random random) {
+        List<String> terms = new ArrayList<>();
+        for (String term : TERMS) {
+            if (random.nextInt(3) == 0) terms.add(term);
+        }
+        return terms;
+    }
+
+    // Distinct ids of named entries
+    private static int[][] randomRecipes(Random random, int count, int dictionarySize) {
+        int[][] recipes = new int[count][];
+        for (int r = 0; r < count; r++) {
+            List<Integer> ids = new ArrayList<>();
+            int size = 1 + random.nextInt(5);
+            while (ids.size() < size) {
+                int id = random.nextInt(dictionarySize);
+                if (id != 12 && !ids.contains(id)) ids.add(id);
+            }
+            recipes[r] = ids.stream().mapToInt(Integer::intValue).toArray();
+        }
+        return recipes;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.receipematcher.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PantryTermAutomatonTest {
+
+    @Test
+    public void findsTermsAnywhereInText() {
+        PantryTermAutomaton automaton = new PantryTermAutomaton(Arrays.asList("he", "she", "hers", "rice"));
+        assertTrue(automaton.containsAny("ushers"));
+        assertTrue(automaton.containsAny("brown rice"));
+        // A mismatch after "ri" falls back without skipping the "rice" that starts there
+        assertTrue(automaton.containsAny("ririce"));
+        assertFalse(automaton.containsAny("ric"));
+        assertFalse(automaton.containsAny("basil"));
+    }
+
+    @Test
+    public void emptyAutomatonMatchesNothing() {
+        PantryTermAutomaton automaton = new PantryTermAutomaton(Arrays.asList(null, ""));
+        assertTrue(automaton.isEmpty());
+        assertFalse(automaton.containsAny("anything"));
+        assertFalse(new PantryTermAutomaton(Collections.emptyList()).containsAny(null));
+    }
+
+    @Test
+    public void matchesNaiveSubstringSearch() {
+        Random random = new Random(3);
+        for (int round = 0; round < 500; round++) {
+            List<String> terms = new ArrayList<>();
+            int count = 1 + random.nextInt(6);
+            for (int i = 0; i < count; i++) terms.add(randomText(random, 1 + random.nextInt(4)));
+            PantryTermAutomaton automaton = new PantryTermAutomaton(terms);
+            for (int t = 0; t < 20; t++) {
+                String text = randomText(random, random.nextInt(12));
+                boolean expected = false;
+                for (String term : terms) expected |= text.contains(term);
+                assertEquals(terms + " in " + text, expected, automaton.containsAny(text));
+            }
+        }
+    }
+
+    @Test
+    public void pantryMatcherAgreesWithPairwiseRule() {
+        List<String> pantry = Arrays.asList("Chicken", "2 cups brown rice", "Scallions", "oil");
+        PantryMatcher matcher = new PantryMatcher(pantry);
+        List<String> canonicalPantry = IngredientNormalizer.canonicalSet(pantry);
+        for (String ingredient : Arrays.asList("chicken breast", "1 lb chicken, diced", "rice", "wild rice",
+                "green onion", "olive oil", "boiled eggs", "basil", "")) {
+            String canonical = IngredientNormalizer.canonical(ingredient);
+            boolean expected = false;
+            for (String term : canonicalPantry) expected |= PantryMatcher.matchesTerm(canonical, term);
+            assertEquals(ingredient, expected, matcher.matches(ingredient));
+        }
+        assertTrue(matcher.matches("chicken breast"));
+        assertTrue(matcher.matches("green onion"));
+        assertTrue(matcher.matches("rice"));
+        assertFalse(matcher.matches("basil"));
+    }
+
+    // Small alphabet, so terms overlap and share prefixes often
+    private static String randomText(Random random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) text.append("abc ".charAt(random.nextInt(4)));
+        return text.toString();
+    }
+}
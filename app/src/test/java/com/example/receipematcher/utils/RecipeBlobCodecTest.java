@@ -0,0 +1,75 @@
+package com.example.receipematcher.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RecipeBlobCodecTest {
+
+    @Test
+    public void roundTripsStrings() {
+        List<String> values = Arrays.asList("2 cups flour", "crème fraîche", "1 tbsp. 醤油", "x");
+        byte[] blob = RecipeBlobCodec.encode(values);
+        assertEquals(values, RecipeBlobCodec.decode(blob));
+        assertEquals(4, RecipeBlobCodec.count(blob));
+    }
+
+    @Test
+    public void dropsNullAndEmptyElements() {
+        byte[] blob = RecipeBlobCodec.encode(Arrays.asList("salt", null, "", "pepper"));
+        assertEquals(Arrays.asList("salt", "pepper"), RecipeBlobCodec.decode(blob));
+    }
+
+    @Test
+    public void encodesTheDocumentedLayout() {
+        // count 2; "ab" and a 200-byte string, whose length takes a two-byte varint (0xc8 0x01)
+        char[] longValue = new char[200];
+        Arrays.fill(longValue, 'z');
+        byte[] blob = RecipeBlobCodec.encode(Arrays.asList("ab", new String(longValue)));
+        assertEquals(1 + 1 + 2 + 2 + 200, blob.length);
+        assertArrayEquals(new byte[]{2, 2, 'a', 'b', (byte) 0xc8, 0x01}, Arrays.copyOf(blob, 6));
+        assertEquals(200, RecipeBlobCodec.decode(blob).get(1).length());
+    }
+
+    @Test
+    public void roundTripsManyElements() {
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 300; i++) values.add("step " + i);
+        assertEquals(values, RecipeBlobCodec.decode(RecipeBlobCodec.encode(values)));
+    }
+
+    @Test
+    public void emptyBlobsDecodeToEmptyLists() {
+        assertTrue(RecipeBlobCodec.decode(null).isEmpty());
+        assertTrue(RecipeBlobCodec.decode(new byte[0]).isEmpty());
+        assertEquals(0, RecipeBlobCodec.count(null));
+        assertTrue(RecipeBlobCodec.decode(RecipeBlobCodec.encode(Collections.emptyList())).isEmpty());
+    }
+
+    @Test
+    public void rejectsMalformedBlobs() {
+        byte[] valid = RecipeBlobCodec.encode(Arrays.asList("salt", "pepper"));
+        assertMalformed(Arrays.copyOf(valid, valid.length - 1)); // truncated string
+        assertMalformed(new byte[]{5, 1, 'a'}); // count larger than the blob
+        assertMalformed(new byte[]{1, (byte) 0x80}); // varint cut off
+        assertMalformed(new byte[]{(byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x01});
+        assertMalformed(new byte[]{1, 9, 'a', 'b'}); // length past the end
+    }
+
+    private static void assertMalformed(byte[] blob) {
+        try {
+            RecipeBlobCodec.decode(blob);
+            fail("Decoded a malformed blob: " + Arrays.toString(blob));
+        } catch (IllegalArgumentException expected) {
+            // Malformed recipe blob
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.receipematcher.utils;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class RecipeImportPipelineTest {
+
+    @Test
+    public void deliversBatchesInInputOrder() throws Exception {
+        byte[] data = dataset(100);
+        List<RecipeImportPipeline.Batch> batches = new ArrayList<>();
+        int total = new RecipeImportPipeline(4, 7, 2).run(new ByteArrayInputStream(data), 0, batches::add);
+
+        // Line 13 is malformed: skipped, but counted in lineCount
+        assertEquals(99, total);
+        assertEquals(expectedNames(0, 100), names(batches));
+        int lines = 0;
+        for (RecipeImportPipeline.Batch batch : batches) lines += batch.lineCount;
+        assertEquals(100, lines);
+        assertEquals(data.length, batches.get(batches.size() - 1).endOffset);
+    }
+
+    @Test
+    public void batchOffsetsEndOnLineBoundaries() throws Exception {
+        byte[] data = dataset(30);
+        List<RecipeImportPipeline.Batch> batches = new ArrayList<>();
+        new RecipeImportPipeline(2, 4, 2).run(new ByteArrayInputStream(data), 0, batches::add);
+        for (RecipeImportPipeline.Batch batch : batches) {
+            assertEquals('\n', data[(int) batch.endOffset - 1]);
+        }
+        // Offsets count bytes, not chars: the first batch of 4 lines ends where line 4 starts
+        assertEquals(lineStart(data, 4), batches.get(0).endOffset);
+    }
+
+    @Test
+    public void resumesFromACheckpoint() throws Exception {
+        byte[] data = dataset(50);
+        List<RecipeImportPipeline.Batch> full = new ArrayList<>();
+        new RecipeImportPipeline(3, 6, 2).run(new ByteArrayInputStream(data), 0, full::add);
+
+        // Stop after the third batch, as a killed import would, and resume from its offset
+        long checkpoint = full.get(2).endOffset;
+        List<RecipeImportPipeline.Batch> resumed = new ArrayList<>();
+        InputStream rest = new ByteArrayInputStream(data, (int) checkpoint, data.length - (int) checkpoint);
+        int total = new RecipeImportPipeline(3, 6, 2).run(rest, checkpoint, resumed::add);
+
+        assertEquals(expectedNames(18, 50), names(resumed));
+        assertEquals(32, total); // the malformed line 13 was in the first part
+        // Offsets keep counting from the dataset start
+        assertEquals(full.get(3).endOffset, resumed.get(0).endOffset);
+        assertEquals(data.length, resumed.get(resumed.size() - 1).endOffset);
+    }
+
+    @Test
+    public void readsCrLfAndUnterminatedLastLine() throws Exception {
+        byte[] data = ("{\"name\": \"A\"}\r\n{\"name\": \"B\"}\r\n\n{\"name\": \"C\"}").getBytes(StandardCharsets.UTF_8);
+        List<RecipeImportPipeline.Batch> batches = new ArrayList<>();
+        new RecipeImportPipeline(1, 10, 1).run(new ByteArrayInputStream(data), 0, batches::add);
+        assertEquals(Arrays.asList("A", "B", "C"), names(batches));
+        assertEquals(4, batches.get(0).lineCount);
+        assertEquals(data.length, batches.get(0).endOffset);
+    }
+
+    @Test
+    public void surfacesReadErrors() throws Exception {
+        IOException failure = new IOException("disk");
+        InputStream broken = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw failure;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                throw failure;
+            }
+        };
+        try {
+            new RecipeImportPipeline(2, 5, 2).run(broken, 0, batch -> { });
+            fail("Read error was swallowed");
+        } catch (IOException e) {
+            assertSame(failure, e);
+        }
+    }
+
+    // Line i names "Recipe i"; odd lines carry a two-byte character, line 13 is malformed
+    private static byte[] dataset(int lines) {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            if (i == 13) {
+                out.append("{\"name\": \"broken\n");
+                continue;
+            }
+            out.append("{\"name\": \"Recipe ").append(i).append("\", \"ingredients\": [\"")
+                    .append(i % 2 == 1 ? "crème fraîche" : "salt").append("\"], \"steps\": [\"mix\"]}\n");
+        }
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> expectedNames(int from, int to) {
+        List<String> names = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            if (i != 13) names.add("Recipe " + i);
+        }
+        return names;
+    }
+
+    private static List<String> names(List<RecipeImportPipeline.Batch> batches) {
+        List<String> names = new ArrayList<>();
+        for (RecipeImportPipeline.Batch batch : batches) {
+            assertEquals(batch.recipes.size(), batch.metadata.size());
+            for (RecipeJsonlParser.ParsedRecipe recipe : batch.recipes) names.add(recipe.name);
+        }
+        return names;
+    }
+
+    // Byte offset where line n (0-based) starts
+    private static long lineStart(byte[] data, int n) {
+        int line = 0;
+        for (int i = 0; i < data.length; i++) {
+            if (line == n) return i;
+            if (data[i] == '\n') line++;
+        }
+        return data.length;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.receipematcher.utils;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+public class RecipeJsonlParserTest {
+
+    @Test
+    public void readsNameIngredientsAndSteps() {
+        RecipeJsonlParser.ParsedRecipe recipe = RecipeJsonlParser.parse("{\"id\": 7, \"name\": \" Tomato Soup \","
+                + " \"tags\": {\"a\": [1, 2]}, \"ingredients\": [\" 2 Cups TOMATOES, diced\", 3, null, \"Salt\"],"
+                + " \"steps\": [\"Simmer.\", \"Blend.\"]}");
+        assertEquals("Tomato Soup", recipe.name);
+        // Ingredients are trimmed and lowercased; numbers are kept as text, nulls dropped
+        assertEquals(Arrays.asList("2 cups tomatoes, diced", "3", "salt"), recipe.ingredients);
+        assertEquals(Arrays.asList("Simmer.", "Blend."), recipe.steps);
+        assertEquals(Arrays.asList("tomato", "3", "salt"), recipe.canonicalIngredients);
+        assertEquals(recipe.ingredients, RecipeBlobCodec.decode(recipe.ingredientsBlob));
+        assertEquals(recipe.steps, RecipeBlobCodec.decode(recipe.stepsBlob));
+    }
+
+    @Test
+    public void rejectsBlankMalformedAndNamelessLines() {
+        assertNull(RecipeJsonlParser.parse(null));
+        assertNull(RecipeJsonlParser.parse("   "));
+        assertNull(RecipeJsonlParser.parse("{\"name\": \"Soup\", \"ingredients\": [\"salt\""));
+        assertNull(RecipeJsonlParser.parse("[\"not an object\"]"));
+        assertNull(RecipeJsonlParser.parse("{\"name\": \"  \", \"ingredients\": [\"salt\"]}"));
+        assertNull(RecipeJsonlParser.parse("{\"ingredients\": [\"salt\"]}"));
+    }
+
+    @Test
+    public void keysFollowNameAndIngredients() {
+        String key = RecipeJsonlParser.parse("{\"name\": \"Soup\", \"ingredients\": [\"Salt\"], \"steps\": [\"a\"]}").key;
+        // Same recipe with other steps, name case and spacing: same row
+        assertEquals(key, RecipeJsonlParser.parse("{\"name\": \"SOUP \", \"ingredients\": [\" salt\"]}").key);
+        assertNotEquals(key, RecipeJsonlParser.parse("{\"name\": \"Soup\", \"ingredients\": [\"pepper\"]}").key);
+        assertEquals(key, RecipeJsonlParser.recipeKey("Soup", "[\"salt\"]"));
+    }
+
+    @Test
+    public void readsDeltaOps() {
+        RecipeJsonlParser.DeltaEntry add = RecipeJsonlParser.parseDelta("{\"name\": \"Soup\", \"ingredients\": []}");
+        assertEquals(RecipeJsonlParser.DeltaEntry.OP_ADD, add.op);
+        assertEquals(Collections.emptyList(), add.recipe.ingredients);
+
+        RecipeJsonlParser.DeltaEntry update = RecipeJsonlParser.parseDelta(
+                "{\"op\": \"update\", \"key\": \"abc\", \"name\": \"Soup\", \"ingredients\": [\"salt\"]}");
+        assertEquals("abc", update.key);
+        assertEquals("Soup", update.recipe.name);
+
+        RecipeJsonlParser.DeltaEntry delete = RecipeJsonlParser.parseDelta("{\"op\": \"delete\", \"key\": \"abc\"}");
+        assertEquals("abc", delete.key);
+        assertNull(delete.recipe);
+
+        // Incomplete for their op, or unknown
+        assertNull(RecipeJsonlParser.parseDelta("{\"op\": \"update\", \"name\": \"Soup\"}"));
+        assertNull(RecipeJsonlParser.parseDelta("{\"op\": \"delete\"}"));
+        assertNull(RecipeJsonlParser.parseDelta("{\"op\": \"rename\", \"key\": \"abc\", \"name\": \"Soup\"}"));
+    }
+}
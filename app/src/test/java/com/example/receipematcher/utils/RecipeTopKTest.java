@@ -0,0 +1,151 @@
+package com.example.receipematcher.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class RecipeTopKTest {
+
+    private static final String[] NAMES = {"tomato", "basil", "pasta", "chicken", "rice"};
+
+    // Recipe id -> dictionary ids
+    private static final int[][] RECIPES = {
+            {0, 1, 2},       // 1: 3/3
+            {0, 3},          // 2: 1/2
+            {4},             // 3: 0/1
+            {0, 1},          // 4: 2/2
+            {3, 4, 2, 1},    // 5: 2/4
+            {1, 3},          // 6: 1/2
+            {0, 1, 2, 3, 4}  // 7: 3/5
+    };
+
+    @Test
+    public void coverageOrder() {
+        IngredientBitsetIndex index = index(NAMES, RECIPES);
+        long[] top = RecipeTopK.top(index, pantry(index, "tomato", "basil", "pasta"), 10, RecipeTopK.Order.COVERAGE);
+        // Full coverage (more matched first), 3/5, then the 1/2s by id, then 2/4 (more missing)
+        assertArrayEquals(new long[]{1, 4, 7, 2, 6, 5}, top);
+    }
+
+    @Test
+    public void fewestMissingOrder() {
+        IngredientBitsetIndex index = index(NAMES, RECIPES);
+        long[] top = RecipeTopK.top(index, pantry(index, "tomato", "basil", "pasta"), 10,
+                RecipeTopK.Order.FEWEST_MISSING);
+        assertArrayEquals(new long[]{1, 4, 2, 6, 7, 5}, top);
+    }
+
+    @Test
+    public void topKStopsAtK() {
+        IngredientBitsetIndex index = index(NAMES, RECIPES);
+        long[] top = RecipeTopK.top(index, pantry(index, "tomato", "basil", "pasta"), 3, RecipeTopK.Order.COVERAGE);
+        assertArrayEquals(new long[]{1, 4, 7}, top);
+    }
+
+    @Test
+    public void minCoverageDropsLowGroups() {
+        IngredientBitsetIndex index = index(NAMES, RECIPES);
+        IngredientBitsetIndex.PantrySet pantry = pantry(index, "tomato", "basil", "pasta");
+        assertArrayEquals(new long[]{1, 4, 7},
+                drain(RecipeTopK.rank(index, pantry, RecipeTopK.Order.COVERAGE, 0.55f), 4));
+        // Not sorted by coverage: groups below the minimum are skipped, not the end
+        assertArrayEquals(new long[]{1, 4, 7},
+                drain(RecipeTopK.rank(index, pantry, RecipeTopK.Order.FEWEST_MISSING, 0.55f), 4));
+    }
+
+    @Test
+    public void emptyPantryRanksNothing() {
+        IngredientBitsetIndex index = index(NAMES, RECIPES);
+        assertEquals(0, RecipeTopK.top(index, pantry(index), 10, RecipeTopK.Order.COVERAGE).length);
+    }
+
+    @Test
+    public void matchesBruteForce() {
+        Random random = new Random(42);
+        String[] names = new String[60];
+        for (int i = 0; i < names.length; i++) names[i] = "n" + i + "x";
+        int[][] recipes = new int[500][];
+        for (int r = 0; r < recipes.length; r++) {
+            List<Integer> ids = new ArrayList<>();
+            int size = 1 + random.nextInt(12);
+            while (ids.size() < size) {
+                int id = random.nextInt(names.length);
+                if (!ids.contains(id)) ids.add(id);
+            }
+            recipes[r] = ids.stream().mapToInt(Integer::intValue).toArray();
+        }
+        IngredientBitsetIndex index = index(names, recipes);
+
+        for (int trial = 0; trial < 20; trial++) {
+            List<String> terms = new ArrayList<>();
+            for (int i = 0; i < names.length; i++) {
+                if (random.nextInt(4) == 0) terms.add(names[i]);
+            }
+            IngredientBitsetIndex.PantrySet pantry = index.pantrySet(new PantryMatcher(terms));
+            float minCoverage = trial % 2 == 0 ? 0f : 0.4f;
+            for (RecipeTopK.Order order : RecipeTopK.Order.values()) {
+                long[] expected = bruteForce(index, pantry, order, minCoverage);
+                // Pulled in uneven chunks, as the repository pages through it
+                assertArrayEquals(order + " " + terms, expected,
+                        drain(RecipeTopK.rank(index, pantry, order, minCoverage), 7));
+            }
+        }
+    }
+
+    // Every recipe with a match, fully sorted by the documented order; ties by recipe id
+    private static long[] bruteForce(IngredientBitsetIndex index, IngredientBitsetIndex.PantrySet pantry,
+                                     RecipeTopK.Order order, float minCoverage) {
+        List<int[]> rows = new ArrayList<>(); // {recipe index, matched, total}
+        for (int r = 0; r < index.size(); r++) {
+            int matched = pantry.matchedCount(r);
+            int total = index.totalCount(r);
+            if (matched > 0 && (float) matched / total >= minCoverage) rows.add(new int[]{r, matched, total});
+        }
+        Comparator<int[]> coverage = (a, b) -> Long.compare((long) b[1] * a[2], (long) a[1] * b[2]);
+        Comparator<int[]> missing = Comparator.comparingInt(a -> a[2] - a[1]);
+        Comparator<int[]> primary = order == RecipeTopK.Order.COVERAGE
+                ? coverage.thenComparing(missing) : missing.thenComparing(coverage);
+        rows.sort(primary.thenComparing(Comparator.comparingInt((int[] a) -> -a[1]))
+                .thenComparingLong(a -> index.recipeId(a[0])));
+        long[] ids = new long[rows.size()];
+        for (int i = 0; i < ids.length; i++) ids[i] = index.recipeId(rows.get(i)[0]);
+        return ids;
+    }
+
+    static long[] drain(RecipeTopK.Ranking ranking, int chunk) {
+        long[] all = new long[0];
+        long[] buffer = new long[chunk];
+        int n;
+        do {
+            n = ranking.next(buffer);
+            all = Arrays.copyOf(all, all.length + n);
+            System.arraycopy(buffer, 0, all, all.length - n, n);
+        } while (n == chunk);
+        return all;
+    }
+
+    private static IngredientBitsetIndex.PantrySet pantry(IngredientBitsetIndex index, String... terms) {
+        return index.pantrySet(new PantryMatcher(Arrays.asList(terms)));
+    }
+
+    // Recipe i gets id i + 1
+    static IngredientBitsetIndex index(String[] names, int[][] recipes) {
+        long[] recipeIds = new long[recipes.length];
+        int[] offsets = new int[recipes.length + 1];
+        List<Integer> ingredientIds = new ArrayList<>();
+        for (int r = 0; r < recipes.length; r++) {
+            recipeIds[r] = r + 1;
+            for (int id : recipes[r]) ingredientIds.add(id);
+            offsets[r + 1] = ingredientIds.size();
+        }
+        return new IngredientBitsetIndex(names, recipeIds, offsets,
+                ingredientIds.stream().mapToInt(Integer::intValue).toArray());
+    }
+}
@@ -1,6 +1,8 @@
 // build.gradle.kts (Project: RecipeMatcher)
 plugins {
     alias(libs.plugins.android.application) apply false
+    alias(libs.plugins.android.test) apply false
+    alias(libs.plugins.baselineprofile) apply false
     alias(libs.plugins.kotlin.android) apply false
     alias(libs.plugins.kapt) apply false
 }
@@ -0,0 +1,45 @@
+// build.gradle.kts (Module: macrobenchmark)
+//
+// Startup and scrolling benchmarks, and the Baseline Profile generator, run
+// against the app on a connected emulator or device:
+//   ./gradlew :macrobenchmark:connectedBenchmarkReleaseAndroidTest
+//   ./gradlew :app:generateBaselineProfile (API 33+ or rooted)
+plugins {
+    alias(libs.plugins.android.test)
+    alias(libs.plugins.kotlin.android)
+    alias(libs.plugins.baselineprofile)
+}
+
+android {
+    namespace = "com.example.receipematcher.macrobenchmark"
+    compileSdk = 34
+
+    defaultConfig {
+        // Baseline Profile collection needs API 28+
+        minSdk = 28
+        targetSdk = 34
+
+        testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+    }
+
+    compileOptions {
+        sourceCompatibility = JavaVersion.VERSION_21
+        targetCompatibility = JavaVersion.VERSION_21
+    }
+
+    kotlinOptions {
+        jvmTarget = "21"
+    }
+
+    targetProjectPath = ":app"
+}
+
+baselineProfile {
+    useConnectedDevices = true
+}
+
+dependencies {
+    implementation(libs.androidx.junit)
+    implementation(libs.androidx.uiautomator)
+    implementation(libs.androidx.benchmark.macro.junit4)
+}
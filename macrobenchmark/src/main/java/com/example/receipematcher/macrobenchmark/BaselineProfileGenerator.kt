@@ -0,0 +1,33 @@
+package com.example.receipematcher.macrobenchmark
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule
+import androidx.test.ext.junit.runners.AndroidJUnit4
+
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * Generates the app's Baseline Profile: cold start, then scrolling the pantry
+ * and the recipe list. Run with ./gradlew :app:generateBaselineProfile; the
+ * result is written to app/src/main/generated/baselineProfiles.
+ */
+@RunWith(AndroidJUnit4::class)
+class BaselineProfileGenerator {
+    @get:Rule
+    val baselineProfileRule = BaselineProfileRule()
+
+    @Test
+    fun generate() = baselineProfileRule.collect(
+        packageName = TARGET_PACKAGE,
+        includeInStartupProfile = true
+    ) {
+        pressHome()
+        startActivityAndWait()
+        waitForMain()
+        seedPantry()
+        scrollList("recyclerViewPantry")
+        openTab("recipeListFragment")
+        scrollList("recyclerViewRecipes")
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.receipematcher.macrobenchmark
+
+import androidx.benchmark.macro.MacrobenchmarkScope
+import androidx.test.uiautomator.By
+import androidx.test.uiautomator.Direction
+import androidx.test.uiautomator.UiObject2
+import androidx.test.uiautomator.Until
+
+// User journeys shared by the benchmarks and the Baseline Profile generator.
+// Views are found by their resource ids in the app's layouts.
+
+/**
+ * Application id of the app under test
+ */
+const val TARGET_PACKAGE = "com.example.receipematcher"
+
+private const val LAUNCH_TIMEOUT_MS = 10_000L
+// First launch may still be importing recipes
+private const val LIST_TIMEOUT_MS = 60_000L
+
+// Enough rows to fill several screens of the pantry, and to match a large part of the recipes
+private val PANTRY_ITEMS = listOf(
+    "Salt", "Butter", "Eggs", "Sugar", "Flour", "Garlic", "Onion", "Olive oil", "Milk", "Black pepper",
+    "Tomatoes", "Lemon", "Honey", "Chicken breast", "Carrots", "Celery", "Potatoes", "Rice", "Pasta",
+    "Cheddar cheese", "Parmesan cheese", "Basil", "Oregano", "Paprika", "Cumin", "Ginger", "Soy sauce",
+    "Bacon", "Mushrooms", "Spinach"
+)
+
+/**
+ * Wait for MainActivity, which SplashActivity opens after its delay
+ */
+fun MacrobenchmarkScope.waitForMain() {
+    device.wait(Until.hasObject(By.res(TARGET_PACKAGE, "bottom_navigation")), LAUNCH_TIMEOUT_MS)
+}
+
+/**
+ * Add the benchmark pantry through the add-ingredient dialog, unless a
+ * previous run already did. The scroll journeys need rows to scroll.
+ */
+fun MacrobenchmarkScope.seedPantry() {
+    openTab("pantryFragment")
+    if (device.wait(Until.hasObject(By.text(PANTRY_ITEMS.first())), 2_000L)) return
+    for (name in PANTRY_ITEMS) {
+        device.findObject(By.res(TARGET_PACKAGE, "fabAddIngredient")).click()
+        val nameField = device.wait(Until.findObject(By.res(TARGET_PACKAGE, "editIngredientName")), LAUNCH_TIMEOUT_MS)
+        nameField.text = name
+        device.findObject(By.res(TARGET_PACKAGE, "btnSaveIngredient")).click()
+        device.wait(Until.gone(By.res(TARGET_PACKAGE, "editIngredientName")), LAUNCH_TIMEOUT_MS)
+    }
+}
+
+/**
+ * Select a bottom navigation tab by its menu item id
+ */
+fun MacrobenchmarkScope.openTab(menuItemId: String) {
+    device.findObject(By.res(TARGET_PACKAGE, menuItemId)).click()
+    device.waitForIdle()
+}
+
+/**
+ * Fling a list down and back up once it has rows
+ */
+fun MacrobenchmarkScope.scrollList(listId: String) {
+    val list = waitForRows(listId)
+    // Keep flings clear of the system gesture areas
+    list.setGestureMargin(device.displayWidth / 5)
+    repeat(3) { list.fling(Direction.DOWN) }
+    list.fling(Direction.UP)
+    device.waitForIdle()
+}
+
+private fun MacrobenchmarkScope.waitForRows(listId: String): UiObject2 {
+    val list = device.wait(Until.findObject(By.res(TARGET_PACKAGE, listId)), LAUNCH_TIMEOUT_MS)
+    list.wait(Until.hasObject(By.depth(1)), LIST_TIMEOUT_MS)
+    return list
+}
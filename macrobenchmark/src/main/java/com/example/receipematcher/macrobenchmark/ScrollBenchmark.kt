@@ -0,0 +1,54 @@
+package com.example.receipematcher.macrobenchmark
+
+import androidx.benchmark.macro.BaselineProfileMode
+import androidx.benchmark.macro.CompilationMode
+import androidx.benchmark.macro.FrameTimingMetric
+import androidx.benchmark.macro.StartupMode
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule
+import androidx.test.ext.junit.runners.AndroidJUnit4
+
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * Frame timing while flinging the pantry and recipe lists. The pantry is
+ * seeded on the first iteration so both lists have rows.
+ */
+@RunWith(AndroidJUnit4::class)
+class ScrollBenchmark {
+    @get:Rule
+    val benchmarkRule = MacrobenchmarkRule()
+
+    @Test
+    fun scrollPantryCompilationNone() = scroll("pantryFragment", "recyclerViewPantry", CompilationMode.None())
+
+    @Test
+    fun scrollPantryBaselineProfile() =
+        scroll("pantryFragment", "recyclerViewPantry", CompilationMode.Partial(BaselineProfileMode.Require))
+
+    @Test
+    fun scrollRecipesCompilationNone() = scroll("recipeListFragment", "recyclerViewRecipes", CompilationMode.None())
+
+    @Test
+    fun scrollRecipesBaselineProfile() =
+        scroll("recipeListFragment", "recyclerViewRecipes", CompilationMode.Partial(BaselineProfileMode.Require))
+
+    private fun scroll(tabId: String, listId: String, compilationMode: CompilationMode) =
+        benchmarkRule.measureRepeated(
+            packageName = TARGET_PACKAGE,
+            metrics = listOf(FrameTimingMetric()),
+            compilationMode = compilationMode,
+            startupMode = StartupMode.WARM,
+            iterations = 5,
+            setupBlock = {
+                pressHome()
+                startActivityAndWait()
+                waitForMain()
+                seedPantry()
+                openTab(tabId)
+            }
+        ) {
+            scrollList(listId)
+        }
+}
@@ -21,3 +21,4 @@ dependencyResolutionManagement {
 
 rootProject.name = "ReceipeMatcher"
 include(":app")
+include(":macrobenchmark")